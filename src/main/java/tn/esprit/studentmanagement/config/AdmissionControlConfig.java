@@ -0,0 +1,56 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Délestage adaptatif des listes complètes : quand MySQL ralentit, les getAll* sont limités
+ * avant d'occuper tous les threads Tomcat et toutes les connexions du pool.
+ * Désactivable avec app.admission.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AdmissionControlConfig.AdmissionProperties.class)
+public class AdmissionControlConfig {
+
+    static final List<String> HEAVY_PATHS = List.of(
+            "/students/getAllStudents", "/Enrollment/getAllEnrollment",
+            "/Depatment/getAllDepartment", "/Course/getAllCourse");
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(DataSource dataSource,
+                                                                                 AdmissionProperties properties,
+                                                                                 MeterRegistry meterRegistry) {
+        HikariPoolPressure poolPressure = new HikariPoolPressure(dataSource);
+        AdmissionControlFilter filter = new AdmissionControlFilter(HEAVY_PATHS, path -> new GradientConcurrencyLimit(
+                properties.initialLimit(), properties.minLimit(), properties.maxLimit(), properties.smoothing(),
+                properties.tolerance(), properties.longWindow(), poolPressure), meterRegistry);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns(HEAVY_PATHS.toArray(String[]::new));
+        // ✅ avant tout autre filtre : un rejet ne coûte presque rien
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @ConfigurationProperties("app.admission")
+    public record AdmissionProperties(Boolean enabled, Integer initialLimit, Integer minLimit, Integer maxLimit,
+                                      Double smoothing, Double tolerance, Integer longWindow) {
+        public AdmissionProperties {
+            initialLimit = initialLimit == null ? 4 : initialLimit;
+            minLimit = minLimit == null ? 1 : minLimit;
+            maxLimit = maxLimit == null ? 20 : maxLimit;
+            smoothing = smoothing == null ? 0.2 : smoothing;
+            tolerance = tolerance == null ? 1.5 : tolerance;
+            longWindow = longWindow == null ? 100 : longWindow;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Contrôle d'admission des listes complètes (getAll*) : une limite de concurrence adaptative
+ * par endpoint. Au-delà, 503 immédiat avec Retry-After, sans toucher au pool de connexions :
+ * les lectures unitaires (get*&#47;{id}) et /actuator/health gardent des connexions libres.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private final Map<String, Endpoint> endpoints = new HashMap<>();
+
+    public AdmissionControlFilter(List<String> paths, Function<String, GradientConcurrencyLimit> limitFactory,
+                                  MeterRegistry meterRegistry) {
+        for (String path : paths) {
+            GradientConcurrencyLimit limit = limitFactory.apply(path);
+            Gauge.builder("http.admission.limit", limit, GradientConcurrencyLimit::limit)
+                    .description("Limite de concurrence courante").tag("endpoint", path).register(meterRegistry);
+            Gauge.builder("http.admission.inflight", limit, GradientConcurrencyLimit::inflight)
+                    .description("Requêtes admises en cours").tag("endpoint", path).register(meterRegistry);
+            Counter rejected = Counter.builder("http.admission.rejected")
+                    .description("Requêtes rejetées (503) au-delà de la limite").tag("endpoint", path).register(meterRegistry);
+            endpoints.put(path, new Endpoint(limit, rejected));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !endpoints.containsKey(pathOf(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Endpoint endpoint = endpoints.get(pathOf(request));
+        if (!endpoint.limit.tryAcquire()) {
+            endpoint.rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service surchargé, réessayer plus tard");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            chain.doFilter(request, response);
+            succeeded = response.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            if (succeeded) {
+                endpoint.limit.onSuccess(System.nanoTime() - start);
+            } else {
+                endpoint.limit.onDropped();
+            }
+        }
+    }
+
+    GradientConcurrencyLimit limitFor(String path) {
+        return endpoints.get(path).limit;
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private record Endpoint(GradientConcurrencyLimit limit, Counter rejected) {
+    }
+}
@@ -0,0 +1,86 @@
+package tn.esprit.studentmanagement.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Caches en mémoire (Caffeine) : chaque cache a sa taille maximale et son expiration
+ * (app.cache.specs.&lt;nom&gt;, syntaxe CaffeineSpec). Les caches sont créés au démarrage
+ * avec recordStats pour que Spring Boot publie hits/misses/evictions dans Micrometer.
+ * Les services ne dépendent que des annotations Spring Cache : le CacheManager est remplaçable.
+ * Les put/evict faits dans une transaction ne sont appliqués qu'après le commit.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheConfig.CacheSpecs.class)
+public class CacheConfig {
+
+    public static final String DEPARTMENTS = "departments";
+    public static final String DEPARTMENT_LIST = "departmentList";
+    public static final String COURSES = "courses";
+    public static final String COURSE_LIST = "courseList";
+    public static final String STUDENTS = "students";
+    public static final String ENROLLMENTS = "enrollments";
+
+    private static final String DEFAULT_SPEC = "maximumSize=500,expireAfterWrite=10m";
+
+    @Bean
+    public CacheManager cacheManager(CacheSpecs cacheSpecs) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new AbsentNotCachedCaffeineCache(name, cache);
+            }
+        };
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCaffeine(Caffeine.from(DEFAULT_SPEC).recordStats());
+        cacheSpecs.specs().forEach((name, spec) ->
+                cacheManager.registerCustomCache(name, Caffeine.from(spec).recordStats().build()));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Lecture traversante synchronisée (@Cacheable(sync = true)) : un seul chargement par clé, et
+     * une éviction reçue pendant le chargement attend sa fin, la valeur lue avant le commit ne survit pas.
+     * Une absence (null) est rendue à l'appelant sans être mise en cache, au lieu de l'exception
+     * levée par CaffeineCache quand les valeurs null sont interdites.
+     */
+    static final class AbsentNotCachedCaffeineCache extends CaffeineCache {
+
+        AbsentNotCachedCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+            super(name, cache, false);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            // Caffeine ne crée pas d'entrée quand la fonction de chargement rend null
+            return (T) getNativeCache().get(key, k -> {
+                try {
+                    return valueLoader.call();
+                } catch (Exception e) {
+                    throw new ValueRetrievalException(key, valueLoader, e);
+                }
+            });
+        }
+    }
+
+    @ConfigurationProperties("app.cache")
+    public record CacheSpecs(Map<String, String> specs) {
+        public CacheSpecs {
+            specs = specs == null ? Map.of() : specs;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package tn.esprit.studentmanagement.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limite de concurrence adaptative (algorithme « gradient », proche de Vegas) : la latence
+ * courante est comparée à une moyenne longue ; tant qu'elle reste sous tolerance × moyenne,
+ * la limite monte de √limite, sinon elle baisse proportionnellement (au plus de moitié).
+ * Des threads en attente de connexion dans un pool (primaire ou réplica) comptent comme congestion : gradient 0,5.
+ * Un échec (erreur serveur) réduit la limite de 10 %.
+ * <p>
+ * La limite ne monte que si elle est au moins à moitié utilisée : une charge faible ne prouve rien.
+ */
+public class GradientConcurrencyLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final int longWindow;
+    private final BooleanSupplier poolSaturated;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing,
+                                    double tolerance, int longWindow, BooleanSupplier poolSaturated) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.longWindow = longWindow;
+        this.poolSaturated = poolSaturated;
+    }
+
+    /** Réserve une place ; false si la limite courante est atteinte (à rejeter tout de suite). */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Fin d'une requête admise et réussie : sa durée ajuste la limite. */
+    public void onSuccess(long rttNanos) {
+        int inflightAtEnd = inflight.getAndDecrement();
+        update(rttNanos, inflightAtEnd);
+    }
+
+    /** Fin d'une requête admise en échec (timeout du pool, erreur SQL...) : recul multiplicatif. */
+    public synchronized void onDropped() {
+        inflight.decrementAndGet();
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+
+    private synchronized void update(long rttNanos, int inflightAtEnd) {
+        double shortRtt = Math.max(1, rttNanos);
+        longRttNanos = longRttNanos == 0 ? shortRtt : longRttNanos + (shortRtt - longRttNanos) / longWindow;
+        if (longRttNanos / shortRtt > 2) {
+            // ✅ sortie de congestion : la moyenne longue oublie plus vite les anciennes latences
+            longRttNanos *= 0.95;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRttNanos / shortRtt));
+        if (poolSaturated.getAsBoolean()) {
+            gradient = MIN_GRADIENT;
+        }
+        double newLimit;
+        if (gradient < 1.0) {
+            newLimit = limit * gradient;
+        } else if (inflightAtEnd >= limit / 2) {
+            newLimit = limit + Math.sqrt(limit);
+        } else {
+            return;
+        }
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+}
@@ -0,0 +1,43 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Statistiques Hibernate (hibernate.generate_statistics=true) publiées en compteurs Micrometer,
+ * lues à la collecte Prometheus. hibernate.entities.fetches et hibernate.collections.fetches
+ * comptent les chargements paresseux : leur hausse rapide trahit un N+1.
+ */
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsMetrics(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "hibernate.sessions.open", "Sessions ouvertes", Statistics::getSessionOpenCount);
+        counter(registry, "hibernate.transactions", "Transactions terminées", Statistics::getTransactionCount);
+        counter(registry, "hibernate.flushes", "Flushes", Statistics::getFlushCount);
+        counter(registry, "hibernate.connections.obtained", "Connexions JDBC obtenues", Statistics::getConnectCount);
+        counter(registry, "hibernate.statements.prepared", "Instructions JDBC préparées", Statistics::getPrepareStatementCount);
+        counter(registry, "hibernate.query.executions", "Requêtes HQL/SQL exécutées", Statistics::getQueryExecutionCount);
+        counter(registry, "hibernate.entities.loads", "Entités chargées", Statistics::getEntityLoadCount);
+        counter(registry, "hibernate.entities.fetches", "Entités chargées à la demande", Statistics::getEntityFetchCount);
+        counter(registry, "hibernate.entities.inserts", "Entités insérées", Statistics::getEntityInsertCount);
+        counter(registry, "hibernate.entities.updates", "Entités mises à jour", Statistics::getEntityUpdateCount);
+        counter(registry, "hibernate.entities.deletes", "Entités supprimées", Statistics::getEntityDeleteCount);
+        counter(registry, "hibernate.collections.fetches", "Collections chargées à la demande", Statistics::getCollectionFetchCount);
+        counter(registry, "hibernate.optimistic.failures", "Échecs de verrou optimiste", Statistics::getOptimisticFailureCount);
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder(name, statistics, value).description(description).register(registry);
+    }
+}
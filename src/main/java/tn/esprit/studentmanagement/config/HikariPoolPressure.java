@@ -0,0 +1,67 @@
+package tn.esprit.studentmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Vrai quand des threads attendent une connexion d'un pool Hikari (pool saturé).
+ * Avec des réplicas, chaque pool est surveillé : les getAll* (readOnly) attendent sur les réplicas,
+ * les écritures et les replis sur le primaire.
+ * Les pools sont démarrés paresseusement : tant qu'un pool n'existe pas, il ne signale aucune saturation.
+ */
+public class HikariPoolPressure implements BooleanSupplier {
+
+    private final List<DataSource> targets;
+    private final AtomicReferenceArray<HikariPoolMXBean> pools;
+
+    public HikariPoolPressure(DataSource dataSource) {
+        this.targets = targets(dataSource);
+        this.pools = new AtomicReferenceArray<>(targets.size());
+    }
+
+    @Override
+    public boolean getAsBoolean() {
+        for (int i = 0; i < targets.size(); i++) {
+            HikariPoolMXBean current = pool(i);
+            if (current != null && current.getThreadsAwaitingConnection() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<DataSource> targets(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(ReplicaRoutingDataSource.class)) {
+                return dataSource.unwrap(ReplicaRoutingDataSource.class).targets();
+            }
+        } catch (SQLException e) {
+            // pas de routage accessible : seul le pool atteint par unwrap() est surveillé
+        }
+        return List.of(dataSource);
+    }
+
+    private HikariPoolMXBean pool(int index) {
+        HikariPoolMXBean pool = pools.get(index);
+        if (pool == null) {
+            DataSource target = targets.get(index);
+            try {
+                if (target instanceof HikariDataSource hikari) {
+                    pool = hikari.getHikariPoolMXBean();
+                } else if (target.isWrapperFor(HikariDataSource.class)) {
+                    pool = target.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                }
+            } catch (SQLException e) {
+                return null;
+            }
+            pools.set(index, pool);
+        }
+        return pool;
+    }
+}
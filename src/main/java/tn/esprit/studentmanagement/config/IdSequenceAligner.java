@@ -0,0 +1,74 @@
+package tn.esprit.studentmanagement.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Cale les séquences d'ID au-dessus des ID déjà présents en base.
+ * Indispensable lors du passage d'IDENTITY à une séquence : sans cela, la
+ * séquence repartirait de 1 et entrerait en collision avec les lignes existantes.
+ * S'exécute avant le démarrage du serveur web et ne fait jamais reculer une séquence.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdSequenceAligner implements SmartInitializingSingleton {
+
+    /** Taille des blocs d'ID réservés par Hibernate (optimiseur pooled). */
+    public static final int ALLOCATION_SIZE = 50;
+
+    static final List<SequenceBinding> SEQUENCES = List.of(
+            new SequenceBinding("student", "id_student", "student_seq"),
+            new SequenceBinding("department", "id_department", "department_seq"),
+            new SequenceBinding("course", "id_course", "course_seq"),
+            new SequenceBinding("enrollment", "id_enrollment", "enrollment_seq"),
+            // ✅ les inscriptions archivées gardent leur ID : la séquence doit aussi passer au-dessus
+            new SequenceBinding("enrollment_archive", "id_enrollment", "enrollment_seq"),
+            new SequenceBinding("waitlist_entry", "id_waitlist_entry", "waitlist_entry_seq"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        for (SequenceBinding binding : SEQUENCES) {
+            align(binding, "H2".equalsIgnoreCase(product));
+        }
+    }
+
+    private void align(SequenceBinding binding, boolean h2) {
+        Long maxId = jdbcTemplate.queryForObject(
+                "SELECT MAX(" + binding.idColumn() + ") FROM " + binding.table(), Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // Avec l'optimiseur pooled, la valeur lue v donne les ID [v - ALLOCATION_SIZE + 1, v]
+        long target = maxId + ALLOCATION_SIZE;
+        if (h2) {
+            Long current = jdbcTemplate.queryForObject(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = UPPER(?)",
+                    Long.class, binding.sequence());
+            if (current != null && current < target) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + binding.sequence() + " RESTART WITH " + target);
+                log.info("Séquence {} recalée à {}", binding.sequence(), target);
+            }
+        } else {
+            // MySQL n'a pas de séquences : Hibernate les émule avec une table (colonne next_val)
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + binding.sequence() + " SET next_val = ? WHERE next_val < ?", target, target);
+            if (updated > 0) {
+                log.info("Séquence {} recalée à {}", binding.sequence(), target);
+            }
+        }
+    }
+
+    record SequenceBinding(String table, String idColumn, String sequence) {
+    }
+}
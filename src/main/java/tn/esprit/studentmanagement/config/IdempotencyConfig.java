@@ -0,0 +1,60 @@
+package tn.esprit.studentmanagement.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.studentmanagement.services.IdempotencyStore;
+import tn.esprit.studentmanagement.services.InMemoryIdempotencyStore;
+import tn.esprit.studentmanagement.services.JdbcIdempotencyStore;
+import tn.esprit.studentmanagement.services.RequestCoalescer;
+
+import java.time.Duration;
+
+/**
+ * Idempotence des POST de création (en-tête Idempotency-Key) : app.idempotency.store=memory
+ * (par défaut, une seule instance) ou jdbc (survit aux redémarrages, partagé entre instances).
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyConfig.IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    static final String[] IDEMPOTENT_PATHS = {
+            "/students/createStudent", "/Enrollment/createEnrollment", "/Enrollment/submitEnrollment"};
+
+    @Bean
+    @ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(IdempotencyProperties properties) {
+        return new InMemoryIdempotencyStore(properties.maxKeys(), properties.ttl());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.idempotency.store", havingValue = "jdbc")
+    public IdempotencyStore jdbcIdempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyProperties properties) {
+        return new JdbcIdempotencyStore(jdbcTemplate, properties.ttl(), properties.claimTimeout());
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store,
+                                                                       RequestCoalescer requestCoalescer,
+                                                                       IdempotencyProperties properties) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(store, requestCoalescer, properties.inProgressWait()));
+        registration.addUrlPatterns(IDEMPOTENT_PATHS);
+        return registration;
+    }
+
+    @ConfigurationProperties("app.idempotency")
+    public record IdempotencyProperties(String store, Duration ttl, Long maxKeys,
+                                        Duration inProgressWait, Duration claimTimeout) {
+        public IdempotencyProperties {
+            ttl = ttl == null ? Duration.ofHours(24) : ttl;
+            maxKeys = maxKeys == null ? 100_000L : maxKeys;
+            inProgressWait = inProgressWait == null ? Duration.ofSeconds(5) : inProgressWait;
+            claimTimeout = claimTimeout == null ? Duration.ofMinutes(5) : claimTimeout;
+        }
+    }
+}
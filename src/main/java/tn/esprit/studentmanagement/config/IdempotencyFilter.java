@@ -0,0 +1,238 @@
+package tn.esprit.studentmanagement.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import tn.esprit.studentmanagement.services.IdempotencyStore;
+import tn.esprit.studentmanagement.services.IdempotencyStore.StoredResponse;
+import tn.esprit.studentmanagement.services.RequestCoalescer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * En-tête Idempotency-Key sur les POST de création : la première exécution enregistre sa
+ * réponse (2xx uniquement) et les répétitions de la même clé la reçoivent telle quelle,
+ * avec l'en-tête Idempotent-Replayed: true, sans repasser par le contrôleur.
+ * <ul>
+ *   <li>Doublons simultanés : regroupés par RequestCoalescer dans l'instance ; entre instances, la clé est
+ *   réservée dans le stockage avant l'exécution et le doublon attend la réponse (in-progress-wait),
+ *   puis 409 avec Retry-After si l'original n'a pas terminé.</li>
+ *   <li>Même clé, requête différente (corps, URI) : 422.</li>
+ *   <li>Sans en-tête : comportement inchangé. Les erreurs ne sont pas enregistrées (nouvel essai possible).</li>
+ * </ul>
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+    static final String RETRY_AFTER_SECONDS = "1";
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final IdempotencyStore store;
+    private final RequestCoalescer requestCoalescer;
+    private final Duration inProgressWait;
+
+    public IdempotencyFilter(IdempotencyStore store, RequestCoalescer requestCoalescer, Duration inProgressWait) {
+        this.store = store;
+        this.requestCoalescer = requestCoalescer;
+        this.inProgressWait = inProgressWait;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), HEADER + " invalide (1 à " + MAX_KEY_LENGTH + " caractères)");
+            return;
+        }
+        CachedBodyRequest cached = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(request, cached.body);
+        String storeKey = request.getRequestURI() + " " + key;
+
+        boolean[] executed = {false};
+        StoredResponse stored;
+        try {
+            stored = requestCoalescer.load("idempotency", storeKey,
+                    () -> claimOrAwait(cached, response, chain, storeKey, fingerprint, executed));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (ChainException e) {
+            throw e.getCause();
+        }
+        if (executed[0]) {
+            return; // la réponse a déjà été écrite par le contrôleur
+        }
+        if (!stored.fingerprint().equals(fingerprint)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    HEADER + " déjà utilisée pour une autre requête");
+            return;
+        }
+        if (stored.inProgress()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpStatus.CONFLICT.value(), "Requête en cours d'exécution pour cette " + HEADER);
+            return;
+        }
+        replay(stored, response);
+    }
+
+    /**
+     * Réponse enregistrée si elle existe, sinon réservation de la clé puis exécution. Si la clé est
+     * réservée ailleurs (autre instance), attente de la réponse jusqu'à inProgressWait : la
+     * réservation toujours en cours est alors renvoyée telle quelle (409).
+     */
+    private StoredResponse claimOrAwait(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                                        String storeKey, String fingerprint, boolean[] executed) {
+        long deadline = System.nanoTime() + inProgressWait.toNanos();
+        while (true) {
+            Optional<StoredResponse> existing = store.find(storeKey);
+            if (existing.isEmpty() && store.claim(storeKey, fingerprint)) {
+                executed[0] = true;
+                return execute(request, response, chain, storeKey, fingerprint);
+            }
+            if (existing.isPresent() && (!existing.get().inProgress()
+                    || !existing.get().fingerprint().equals(fingerprint) || System.nanoTime() >= deadline)) {
+                return existing.get();
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return StoredResponse.claimed(fingerprint);
+            }
+        }
+    }
+
+    private StoredResponse execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                                   String storeKey, String fingerprint) {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            chain.doFilter(request, wrapper);
+            StoredResponse result = new StoredResponse(fingerprint, wrapper.getStatus(), wrapper.getContentType(),
+                    wrapper.getContentAsByteArray(), Instant.now());
+            if (HttpStatus.valueOf(result.status()).is2xxSuccessful()) {
+                store.complete(storeKey, result);
+                completed = true;
+            }
+            wrapper.copyBodyToResponse();
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ServletException e) {
+            throw new ChainException(e);
+        } finally {
+            if (!completed) {
+                store.release(storeKey); // ✅ erreur : la clé est rendue, un nouvel essai pourra s'exécuter
+            }
+        }
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.body() != null) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Le corps est lu une fois pour l'empreinte puis relu par le contrôleur. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // ✅ corps déjà en mémoire : tout est disponible immédiatement
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final class ChainException extends RuntimeException {
+        ChainException(ServletException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ServletException getCause() {
+            return (ServletException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package tn.esprit.studentmanagement.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource mesuré : connexions, instructions et ResultSet sont enveloppés par des proxys JDK
+ * qui chronomètrent chaque execute* et comptent les lignes (lues à la fermeture du ResultSet,
+ * modifiées d'après le code retour). Le SQL est résolu en forme une seule fois par instruction
+ * préparée. DelegatingDataSource : unwrap() atteint toujours le pool (métriques Hikari).
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private final QueryInstrumentation instrumentation;
+
+    public InstrumentedDataSource(DataSource target, QueryInstrumentation instrumentation) {
+        super(target);
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = delegate(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, null));
+                case "prepareStatement" -> proxy(PreparedStatement.class,
+                        new StatementHandler((Statement) result, instrumentation.shapeOf((String) args[0])));
+                case "prepareCall" -> proxy(CallableStatement.class,
+                        new StatementHandler((Statement) result, instrumentation.shapeOf((String) args[0])));
+                default -> result;
+            };
+        });
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        // Forme de l'instruction préparée ; pour un Statement simple, celle du dernier SQL exécuté
+        private QueryInstrumentation.Shape shape;
+        private String batchSql;
+
+        private StatementHandler(Statement statement, QueryInstrumentation.Shape shape) {
+            this.statement = statement;
+            this.shape = shape;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            boolean hasSql = args != null && args.length > 0 && args[0] instanceof String;
+            if ("addBatch".equals(name) && hasSql) {
+                batchSql = (String) args[0];
+            }
+            if (!name.startsWith("execute")) {
+                Object result = delegate(statement, method, args);
+                return "getResultSet".equals(name) ? countRows((ResultSet) result) : result;
+            }
+            if (hasSql) {
+                shape = instrumentation.shapeOf((String) args[0]);
+            } else if (batchSql != null && name.contains("Batch")) {
+                shape = instrumentation.shapeOf(batchSql);
+            }
+            if (shape == null) {
+                return delegate(statement, method, args);
+            }
+            long start = System.nanoTime();
+            Object result = delegate(statement, method, args);
+            long elapsed = System.nanoTime() - start;
+            instrumentation.recordExecution(shape, elapsed, updatedRows(result));
+            return "executeQuery".equals(name) ? countRows((ResultSet) result) : result;
+        }
+
+        private ResultSet countRows(ResultSet resultSet) {
+            if (resultSet == null || shape == null) {
+                return resultSet;
+            }
+            QueryInstrumentation.Shape current = shape;
+            long[] rows = {0};
+            boolean[] closed = {false};
+            return proxy(ResultSet.class, (proxy, method, args) -> {
+                Object result = delegate(resultSet, method, args);
+                if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                    rows[0]++;
+                } else if ("close".equals(method.getName()) && !closed[0]) {
+                    closed[0] = true;
+                    instrumentation.recordRows(current, rows[0]);
+                }
+                return result;
+            });
+        }
+    }
+
+    /** Lignes modifiées d'après le retour de l'appel ; -1 pour une lecture (comptée sur le ResultSet). */
+    private static long updatedRows(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        long total = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                total += Math.max(0, count); // SUCCESS_NO_INFO (-2) : inconnu
+            }
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            for (long count : counts) {
+                total += Math.max(0, count);
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object delegate(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package tn.esprit.studentmanagement.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import tn.esprit.studentmanagement.dto.QueryShapeStatsDto;
+import tn.esprit.studentmanagement.dto.SlowQueryDto;
+
+import java.util.List;
+
+/**
+ * GET /student/actuator/queries : formes SQL les plus coûteuses (texte normalisé derrière
+ * l'étiquette shape des métriques Prometheus) et derniers échantillons de requêtes lentes.
+ */
+@Endpoint(id = "queries")
+public class QueriesEndpoint {
+
+    private static final int TOP_SHAPES = 50;
+
+    private final QueryInstrumentation instrumentation;
+
+    public QueriesEndpoint(QueryInstrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    @ReadOperation
+    public QueriesReport queries() {
+        return new QueriesReport(instrumentation.topShapes(TOP_SHAPES), instrumentation.slowQueries());
+    }
+
+    public record QueriesReport(List<QueryShapeStatsDto> shapes, List<SlowQueryDto> slowQueries) {
+    }
+}
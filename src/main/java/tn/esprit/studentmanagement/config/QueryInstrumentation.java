@@ -0,0 +1,244 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import tn.esprit.studentmanagement.dto.QueryShapeStatsDto;
+import tn.esprit.studentmanagement.dto.SlowQueryDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mesure des requêtes SQL par forme : le SQL est normalisé (littéraux et listes IN remplacés),
+ * chaque forme a son Timer (db.query) et son DistributionSummary de lignes (db.query.rows),
+ * étiquetés operation / table / shape. Le nombre de formes est borné (au-delà : shape=other).
+ * <ul>
+ *   <li>Requêtes lentes (au-delà de slowThreshold) : journalisées, compteur db.query.slow,
+ *       derniers échantillons gardés pour l'endpoint actuator queries.</li>
+ *   <li>Par requête HTTP (QueryStatsFilter) : nombre d'instructions (db.request.statements) et
+ *       détection N+1 quand une même forme est exécutée au moins repeatThreshold fois.</li>
+ * </ul>
+ * Histogrammes à seuils fixes (SLO) plutôt que percentiles : quelques séries par forme seulement.
+ */
+@Slf4j
+public class QueryInstrumentation {
+
+    static final String OTHER_SHAPE = "other";
+
+    private static final Duration[] LATENCY_BUCKETS = {
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25),
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+            Duration.ofSeconds(1), Duration.ofMillis(2500)};
+    private static final double[] ROW_BUCKETS = {1, 10, 100, 1_000, 10_000, 100_000};
+    // Taille max du cache SQL brut → forme : au-delà (SQL à littéraux variables), normalisation à chaque appel
+    private static final int MAX_CACHED_SQL = 2_000;
+
+    // Pas de groupe répété par caractère ou par paramètre : la récursion du moteur d'expressions
+    // régulières déborderait la pile sur un long littéral ou une liste IN de milliers de paramètres
+    private static final Pattern STRING_LITERAL = Pattern.compile("'[^']*(?:''[^']*)*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?[\\s,?]*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TABLE = Pattern.compile("(?i)\\b(?:from|into|update)\\s+([\\w.]+)");
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final int slowSamples;
+    private final int maxShapes;
+    private final int repeatThreshold;
+
+    private final Map<String, Shape> shapesBySql = new ConcurrentHashMap<>();
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+    private final Deque<SlowQueryDto> slowQueries = new ArrayDeque<>();
+    private final ThreadLocal<RequestQueries> currentRequest = new ThreadLocal<>();
+    private final Counter slowCounter;
+    private final Shape other;
+
+    public QueryInstrumentation(MeterRegistry meterRegistry, Duration slowThreshold, int slowSamples,
+                                int maxShapes, int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.slowSamples = slowSamples;
+        this.maxShapes = maxShapes;
+        this.repeatThreshold = repeatThreshold;
+        this.slowCounter = Counter.builder("db.query.slow")
+                .description("Requêtes SQL au-delà du seuil de lenteur").register(meterRegistry);
+        this.other = new Shape(OTHER_SHAPE, "other", "other", "(formes au-delà de la limite)");
+    }
+
+    /** Forme normalisée d'un SQL, créée (avec ses métriques) à la première rencontre. */
+    public Shape shapeOf(String sql) {
+        Shape cached = shapesBySql.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String normalized = normalize(sql);
+        Shape shape = shapes.get(normalized);
+        if (shape == null) {
+            shape = shapes.size() >= maxShapes ? other : shapes.computeIfAbsent(normalized, this::newShape);
+        }
+        if (shapesBySql.size() < MAX_CACHED_SQL) {
+            shapesBySql.put(sql, shape);
+        }
+        return shape;
+    }
+
+    /** Une exécution : durée de l'appel JDBC et lignes modifiées (-1 : inconnu, compté à la lecture). */
+    public void recordExecution(Shape shape, long nanos, long rows) {
+        shape.timer.record(nanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) {
+            shape.rows.record(rows);
+        }
+        RequestQueries request = currentRequest.get();
+        if (request != null) {
+            request.statements++;
+            request.byShape.merge(shape, 1, Integer::sum);
+        }
+        if (nanos >= slowThresholdNanos) {
+            slowCounter.increment();
+            SlowQueryDto sample = new SlowQueryDto(Instant.now(), shape.id, shape.sql,
+                    TimeUnit.NANOSECONDS.toMillis(nanos), request == null ? null : request.label);
+            log.warn("Requête lente ({} ms, forme {}) : {}", sample.durationMs(), shape.id, shape.sql);
+            synchronized (slowQueries) {
+                if (slowQueries.size() >= slowSamples) {
+                    slowQueries.removeFirst();
+                }
+                slowQueries.addLast(sample);
+            }
+        }
+    }
+
+    /** Lignes lues dans un ResultSet, comptées à sa fermeture. */
+    public void recordRows(Shape shape, long rows) {
+        shape.rows.record(rows);
+    }
+
+    void beginRequest(String label) {
+        currentRequest.set(new RequestQueries(label));
+    }
+
+    /** Termine le suivi de la requête HTTP courante ; uri : motif du contrôleur (cardinalité bornée). */
+    void endRequest(String method, String uri) {
+        RequestQueries request = currentRequest.get();
+        currentRequest.remove();
+        if (request == null) {
+            return;
+        }
+        DistributionSummary.builder("db.request.statements")
+                .description("Instructions SQL exécutées par requête HTTP")
+                .tags("method", method, "uri", uri)
+                .serviceLevelObjectives(1, 5, 10, 25, 50, 100, 500)
+                .register(meterRegistry)
+                .record(request.statements);
+        request.byShape.entrySet().stream()
+                .filter(e -> e.getValue() >= repeatThreshold)
+                .max(Map.Entry.comparingByValue())
+                .ifPresent(worst -> {
+                    Counter.builder("db.request.repeated.statements")
+                            .description("Requêtes HTTP répétant une même forme SQL (N+1 probable)")
+                            .tags("method", method, "uri", uri)
+                            .register(meterRegistry)
+                            .increment();
+                    log.warn("N+1 probable : {} {} a exécuté {} fois la forme {} ({} instructions au total) : {}",
+                            method, uri, worst.getValue(), worst.getKey().id, request.statements, worst.getKey().sql);
+                });
+    }
+
+    /** Formes triées par temps cumulé décroissant. */
+    public List<QueryShapeStatsDto> topShapes(int limit) {
+        List<Shape> all = new ArrayList<>(shapes.values());
+        if (other.timer.count() > 0) {
+            all.add(other);
+        }
+        return all.stream()
+                .sorted(Comparator.comparingDouble((Shape s) -> s.timer.totalTime(TimeUnit.MILLISECONDS)).reversed())
+                .limit(limit)
+                .map(Shape::toDto)
+                .toList();
+    }
+
+    public List<SlowQueryDto> slowQueries() {
+        synchronized (slowQueries) {
+            return List.copyOf(slowQueries);
+        }
+    }
+
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?...)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    private Shape newShape(String normalized) {
+        String operation = normalized.isEmpty() ? "other" : normalized.split(" ", 2)[0].toLowerCase(Locale.ROOT);
+        if ("with".equals(operation)) {
+            operation = "select";
+        }
+        Matcher table = TABLE.matcher(normalized);
+        String id = Integer.toHexString(normalized.hashCode());
+        return new Shape(id, operation, table.find() ? table.group(1).toLowerCase(Locale.ROOT) : "none", normalized);
+    }
+
+    /** Forme SQL et ses métriques, résolues une fois puis réutilisées à chaque exécution. */
+    public final class Shape {
+        private final String id;
+        private final String operation;
+        private final String table;
+        private final String sql;
+        private final Timer timer;
+        private final DistributionSummary rows;
+
+        private Shape(String id, String operation, String table, String sql) {
+            this.id = id;
+            this.operation = operation;
+            this.table = table;
+            this.sql = sql;
+            this.timer = Timer.builder("db.query")
+                    .description("Durée d'exécution JDBC par forme de requête")
+                    .tags("operation", operation, "table", table, "shape", id)
+                    .serviceLevelObjectives(LATENCY_BUCKETS)
+                    .register(meterRegistry);
+            this.rows = DistributionSummary.builder("db.query.rows")
+                    .description("Lignes lues ou modifiées par exécution")
+                    .tags("operation", operation, "table", table, "shape", id)
+                    .serviceLevelObjectives(ROW_BUCKETS)
+                    .register(meterRegistry);
+        }
+
+        public String id() {
+            return id;
+        }
+
+        private QueryShapeStatsDto toDto() {
+            return new QueryShapeStatsDto(id, operation, table, sql, timer.count(),
+                    timer.totalTime(TimeUnit.MILLISECONDS), timer.max(TimeUnit.MILLISECONDS),
+                    (long) rows.totalAmount());
+        }
+    }
+
+    private static final class RequestQueries {
+        private final String label;
+        private final Map<Shape, Integer> byShape = new HashMap<>();
+        private int statements;
+
+        private RequestQueries(String label) {
+            this.label = label;
+        }
+    }
+}
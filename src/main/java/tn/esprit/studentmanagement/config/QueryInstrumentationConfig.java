@@ -0,0 +1,77 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Instrumentation SQL (remplace spring.jpa.show-sql) : latence et lignes par forme de requête,
+ * instructions par requête HTTP (N+1), requêtes lentes, statistiques Hibernate. Tout est exporté
+ * par /actuator/prometheus ; le détail des formes est sur /actuator/queries.
+ * Désactivable avec app.db.instrumentation.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.db.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(QueryInstrumentationConfig.InstrumentationProperties.class)
+public class QueryInstrumentationConfig {
+
+    @Bean
+    public QueryInstrumentation queryInstrumentation(MeterRegistry meterRegistry, InstrumentationProperties properties) {
+        return new QueryInstrumentation(meterRegistry, properties.slowThreshold(), properties.slowSamples(),
+                properties.maxShapes(), properties.repeatThreshold());
+    }
+
+    /** Enveloppe le DataSource principal (bean dataSource) : pool simple ou routage vers les réplicas. */
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(ObjectProvider<QueryInstrumentation> instrumentation) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, instrumentation.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(QueryInstrumentation instrumentation) {
+        FilterRegistrationBean<QueryStatsFilter> registration = new FilterRegistrationBean<>(new QueryStatsFilter(instrumentation));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    @Bean
+    public QueriesEndpoint queriesEndpoint(QueryInstrumentation instrumentation) {
+        return new QueriesEndpoint(instrumentation);
+    }
+
+    @Bean
+    public HibernateStatisticsMetrics hibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateStatisticsMetrics(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+
+    @ConfigurationProperties("app.db.instrumentation")
+    public record InstrumentationProperties(Boolean enabled, Duration slowThreshold, Integer slowSamples,
+                                            Integer maxShapes, Integer repeatThreshold) {
+        public InstrumentationProperties {
+            slowThreshold = slowThreshold == null ? Duration.ofMillis(200) : slowThreshold;
+            slowSamples = slowSamples == null ? 50 : slowSamples;
+            maxShapes = maxShapes == null ? 300 : maxShapes;
+            repeatThreshold = repeatThreshold == null ? 20 : repeatThreshold;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package tn.esprit.studentmanagement.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Compte les instructions SQL de chaque requête HTTP (thread de la requête uniquement : les
+ * exports asynchrones ne sont pas comptés) et signale les N+1 via QueryInstrumentation.
+ * L'étiquette uri est le motif du contrôleur (/students/getStudent/{id}), pas l'URI brute.
+ */
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private final QueryInstrumentation instrumentation;
+
+    public QueryStatsFilter(QueryInstrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        instrumentation.beginRequest(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            instrumentation.endRequest(request.getMethod(), pattern == null ? "UNKNOWN" : pattern.toString());
+        }
+    }
+}
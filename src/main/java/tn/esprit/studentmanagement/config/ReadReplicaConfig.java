@@ -0,0 +1,78 @@
+package tn.esprit.studentmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Séparation lecture/écriture, active dès qu'un réplica est déclaré (app.datasource.replicas[0].url).
+ * Le primaire reste configuré par spring.datasource.* (pool : spring.datasource.hikari.*, comme sans réplica) ;
+ * les transactions readOnly partent sur les réplicas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReadReplicaConfig.ReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    // ✅ même liaison que DataSourceConfiguration.Hikari de Boot : spring.datasource.hikari.* s'applique au pool
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties primaryProperties) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReplicaProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.replicas().size(); i++) {
+            ReplicaProperties.Replica replica = properties.replicas().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.url())
+                    .username(replica.username())
+                    .password(replica.password())
+                    .build();
+            dataSource.setPoolName("replica-" + i);
+            // ✅ un réplica injoignable doit échouer vite pour retomber sur le primaire
+            dataSource.setConnectionTimeout(properties.replicaConnectionTimeout().toMillis());
+            replicas.put(dataSource.getPoolName(), dataSource);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.maxReplicaLag(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @ConfigurationProperties("app.datasource")
+    public record ReplicaProperties(List<Replica> replicas, Duration maxReplicaLag, Duration replicaConnectionTimeout) {
+        public ReplicaProperties {
+            replicas = replicas == null ? List.of() : replicas;
+            maxReplicaLag = maxReplicaLag == null ? Duration.ofSeconds(5) : maxReplicaLag;
+            replicaConnectionTimeout = replicaConnectionTimeout == null ? Duration.ofSeconds(2) : replicaConnectionTimeout;
+        }
+
+        public record Replica(String url, String username, String password) {
+        }
+    }
+}
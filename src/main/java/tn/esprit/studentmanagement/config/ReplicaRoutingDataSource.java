@@ -0,0 +1,217 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routage lecture/écriture : une transaction readOnly est servie par un réplica sain,
+ * tout le reste (écritures, lectures hors transaction) par le primaire.
+ * Doit être enveloppé dans un LazyConnectionDataSourceProxy : la connexion réelle n'est
+ * demandée qu'à la première requête, une fois le drapeau readOnly de la transaction positionné.
+ * <p>
+ * Santé des réplicas : à chaque passage, le retard est mesuré par battement de cœur (table
+ * replica_heartbeat écrite sur le primaire et répliquée) : retard = battement du primaire -
+ * battement lu sur le réplica. Un réplica injoignable ou en retard de plus de maxLag est écarté
+ * jusqu'au passage suivant ; sans réplica sain, les lectures retombent sur le primaire.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    /**
+     * Nom de transaction qui force le primaire même en readOnly : états dérivés en mémoire
+     * (reconstructions au démarrage) qui doivent voir toutes les écritures déjà commitées.
+     */
+    public static final String PRIMARY_READ = "primary-read";
+
+    private static final String HEARTBEAT_DDL =
+            "CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)";
+    private static final String HEARTBEAT_READ = "SELECT beat_millis FROM replica_heartbeat WHERE id = 1";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final JdbcTemplate primaryJdbc;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter fallbacks;
+    private volatile boolean heartbeatReady;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream().map(e -> new Replica(e.getKey(), e.getValue())).toList();
+        this.maxLag = maxLag;
+        this.primaryJdbc = new JdbcTemplate(primary);
+        this.primaryConnections = Counter.builder("datasource.routing.connections").tag("target", "primary")
+                .description("Connexions servies par le primaire").register(meterRegistry);
+        this.replicaConnections = Counter.builder("datasource.routing.connections").tag("target", "replica")
+                .description("Connexions servies par un réplica").register(meterRegistry);
+        this.fallbacks = Counter.builder("datasource.routing.fallbacks")
+                .description("Lectures readOnly renvoyées au primaire (réplica injoignable)").register(meterRegistry);
+        Gauge.builder("datasource.replicas.healthy", this, ds -> ds.healthyReplicas().size())
+                .description("Réplicas sains et dans la tolérance de retard").register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(username, password);
+    }
+
+    private Connection route(String username, String password) throws SQLException {
+        if (readsFromReplica()) {
+            List<Replica> healthy = healthyReplicas();
+            // ✅ tourniquet entre réplicas sains ; un échec écarte le réplica et passe au suivant
+            for (int i = 0; i < healthy.size(); i++) {
+                Replica replica = healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+                try {
+                    Connection connection = open(replica.dataSource, username, password);
+                    replicaConnections.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.markDown(e.getMessage());
+                }
+            }
+            if (!replicas.isEmpty()) {
+                fallbacks.increment();
+            }
+        }
+        primaryConnections.increment();
+        return open(primary, username, password);
+    }
+
+    // ✅ unwrap() atteint le pool du primaire : métriques Hikari ; la saturation passe par targets()
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? (T) this : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    private static boolean readsFromReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !PRIMARY_READ.equals(TransactionSynchronizationManager.getCurrentTransactionName());
+    }
+
+    private static Connection open(DataSource target, String username, String password) throws SQLException {
+        return username == null ? target.getConnection() : target.getConnection(username, password);
+    }
+
+    /** Pools servant les connexions, primaire puis réplicas : la mesure de saturation les surveille tous. */
+    public List<DataSource> targets() {
+        List<DataSource> targets = new ArrayList<>(replicas.size() + 1);
+        targets.add(primary);
+        replicas.forEach(replica -> targets.add(replica.dataSource));
+        return targets;
+    }
+
+    List<Replica> healthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).toList();
+    }
+
+    /** Mesure le retard de chaque réplica, puis écrit le battement suivant sur le primaire. */
+    @Scheduled(fixedDelayString = "${app.datasource.replica-check-interval-ms:1000}")
+    public synchronized void checkReplicas() {
+        Long primaryBeat;
+        try {
+            if (!heartbeatReady) {
+                primaryJdbc.execute(HEARTBEAT_DDL);
+                heartbeatReady = true;
+            }
+            primaryBeat = primaryJdbc.query(HEARTBEAT_READ, rs -> rs.next() ? rs.getLong(1) : null);
+        } catch (RuntimeException e) {
+            log.warn("Battement de cœur illisible sur le primaire : {}", e.getMessage());
+            return;
+        }
+        for (Replica replica : replicas) {
+            replica.check(primaryBeat);
+        }
+        long beat = System.currentTimeMillis();
+        if (primaryJdbc.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1", beat) == 0) {
+            primaryJdbc.update("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, ?)", beat);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closePool(primary);
+        for (Replica replica : replicas) {
+            closePool(replica.dataSource);
+        }
+    }
+
+    private static void closePool(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbc;
+        // ✅ écarté tant que le premier contrôle n'a pas prouvé qu'il est à jour
+        private volatile boolean healthy;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbc = new JdbcTemplate(dataSource);
+        }
+
+        void check(Long primaryBeat) {
+            Long replicaBeat;
+            try {
+                replicaBeat = jdbc.query(HEARTBEAT_READ, rs -> rs.next() ? rs.getLong(1) : null);
+            } catch (RuntimeException e) {
+                markDown(e.getMessage());
+                return;
+            }
+            if (primaryBeat == null) {
+                // Premier passage : aucun battement n'a encore été écrit, le retard n'est pas mesurable
+                markDown("aucun battement de cœur sur le primaire");
+                return;
+            }
+            long lagMillis = replicaBeat == null ? Long.MAX_VALUE : Math.max(0, primaryBeat - replicaBeat);
+            if (lagMillis > maxLag.toMillis()) {
+                markDown(replicaBeat == null ? "battement de cœur absent" : "retard de " + lagMillis + " ms");
+            } else if (!healthy) {
+                healthy = true;
+                log.info("Réplica {} rétabli (retard {} ms)", name, lagMillis);
+            }
+        }
+
+        void markDown(String reason) {
+            if (healthy) {
+                log.warn("Réplica {} écarté : {}", name, reason);
+            }
+            healthy = false;
+        }
+    }
+}
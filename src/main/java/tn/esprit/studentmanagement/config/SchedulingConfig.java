@@ -0,0 +1,13 @@
+package tn.esprit.studentmanagement.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Tâches périodiques (@Scheduled) : promotion des listes d'attente, purge des clés d'idempotence, contrôle des réplicas,
+ * archivage nocturne des inscriptions clôturées.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
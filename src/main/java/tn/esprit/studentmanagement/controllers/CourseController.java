@@ -0,0 +1,59 @@
+package tn.esprit.studentmanagement.controllers;
+
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import tn.esprit.studentmanagement.dto.CourseDto;
+import tn.esprit.studentmanagement.dto.CourseGradeStatsDto;
+import tn.esprit.studentmanagement.dto.CourseSeatsDto;
+import tn.esprit.studentmanagement.dto.GradeDistributionDto;
+import tn.esprit.studentmanagement.dto.LeaderboardEntryDto;
+import tn.esprit.studentmanagement.dto.StudentRankDto;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.services.ICourseService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/Course")
+@CrossOrigin(origins = "http://localhost:4200")
+@AllArgsConstructor
+public class CourseController {
+    private final ICourseService courseService;
+
+    @GetMapping("/getAllCourse")
+    public List<CourseDto> getAllCourse() { return courseService.getAllCourseDtos(); }
+
+    @GetMapping("/getCourse/{id}")
+    public CourseDto getCourse(@PathVariable Long id) { return courseService.getCourseDtoById(id); }
+
+    @GetMapping("/getCourseStats/{id}")
+    public CourseGradeStatsDto getCourseStats(@PathVariable Long id) { return courseService.getCourseStats(id); }
+
+    @GetMapping("/getCourseSeats/{id}")
+    public CourseSeatsDto getCourseSeats(@PathVariable Long id) { return courseService.getCourseSeats(id); }
+
+    @GetMapping("/getGradeDistribution/{id}")
+    public GradeDistributionDto getGradeDistribution(@PathVariable Long id) { return courseService.getGradeDistribution(id); }
+
+    @GetMapping("/getLeaderboard/{id}")
+    public List<LeaderboardEntryDto> getLeaderboard(@PathVariable Long id,
+                                                    @RequestParam(defaultValue = "10") int limit) {
+        return courseService.getLeaderboard(id, limit);
+    }
+
+    @GetMapping("/getStudentRank/{courseId}/{studentId}")
+    public StudentRankDto getStudentRank(@PathVariable Long courseId, @PathVariable Long studentId) {
+        return courseService.getStudentRank(courseId, studentId);
+    }
+
+    @PostMapping("/createCourse")
+    public CourseDto createCourse(@RequestBody Course course) { return CourseDto.from(courseService.saveCourse(course)); }
+
+    @PutMapping("/updateCourse")
+    public CourseDto updateCourse(@RequestBody Course course) {
+        return CourseDto.from(courseService.saveCourse(course));
+    }
+
+    @DeleteMapping("/deleteCourse/{id}")
+    public void deleteCourse(@PathVariable Long id) { courseService.deleteCourse(id); }
+}
@@ -2,6 +2,11 @@ package tn.esprit.studentmanagement.controllers;
 
 import lombok.AllArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.DepartmentDto;
+import tn.esprit.studentmanagement.dto.DepartmentRollupDto;
+import tn.esprit.studentmanagement.dto.GradeDistributionDto;
 import tn.esprit.studentmanagement.entities.Department;
 import tn.esprit.studentmanagement.services.IDepartmentService;
 
@@ -15,17 +20,34 @@ public class DepartmentController {
     private final IDepartmentService departmentService;
 
     @GetMapping("/getAllDepartment")
-    public List<Department> getAllDepartment() { return departmentService.getAllDepartments(); }
+    public List<DepartmentDto> getAllDepartment() { return departmentService.getAllDepartmentDtos(); }
+
+    @GetMapping("/getDepartmentsPage")
+    public CursorPage<DepartmentDto> getDepartmentsPage(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return departmentService.getDepartmentsPage(cursor, size);
+    }
 
     @GetMapping("/getDepartment/{id}")
-    public Department getDepartment(@PathVariable Long id) { return departmentService.getDepartmentById(id); }
+    public DepartmentDto getDepartment(@PathVariable Long id) { return departmentService.getDepartmentDtoById(id); }
+
+    @GetMapping("/getDepartmentRollup")
+    public List<DepartmentRollupDto> getDepartmentRollup() { return departmentService.getDepartmentRollup(); }
+
+    @GetMapping("/getGradeDistribution/{id}")
+    public GradeDistributionDto getGradeDistribution(@PathVariable Long id) { return departmentService.getGradeDistribution(id); }
+
+    @PostMapping("/getDepartmentsByIds")
+    public List<BatchGetItem<DepartmentDto>> getDepartmentsByIds(@RequestBody List<Long> ids) {
+        return departmentService.getDepartmentsByIds(ids);
+    }
 
     @PostMapping("/createDepartment")
-    public Department createDepartment(@RequestBody Department department) { return departmentService.saveDepartment(department); }
+    public DepartmentDto createDepartment(@RequestBody Department department) { return DepartmentDto.from(departmentService.saveDepartment(department)); }
 
     @PutMapping("/updateDepartment")
-    public Department updateDepartment(@RequestBody Department department) {
-        return departmentService.saveDepartment(department);
+    public DepartmentDto updateDepartment(@RequestBody Department department) {
+        return DepartmentDto.from(departmentService.saveDepartment(department));
     }
 
     @DeleteMapping("/deleteDepartment/{id}")
@@ -1,9 +1,19 @@
 package tn.esprit.studentmanagement.controllers;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.BulkItemResult;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.GradeUpdate;
+import tn.esprit.studentmanagement.dto.WaitlistEntryDto;
+import tn.esprit.studentmanagement.dto.WriteTicketDto;
 import tn.esprit.studentmanagement.entities.Enrollment;
 import tn.esprit.studentmanagement.services.IEnrollment;
+import tn.esprit.studentmanagement.services.IEnrollmentWriteQueue;
+import tn.esprit.studentmanagement.services.IWaitlistService;
 
 import java.util.List;
 
@@ -13,21 +23,67 @@ import java.util.List;
 @AllArgsConstructor
 public class EnrollmentController {
     private final IEnrollment enrollmentService;
+    private final IWaitlistService waitlistService;
+    private final IEnrollmentWriteQueue writeQueue;
     @GetMapping("/getAllEnrollment")
-    public List<Enrollment> getAllEnrollment() { return enrollmentService.getAllEnrollments(); }
+    public List<EnrollmentDto> getAllEnrollment() { return enrollmentService.getAllEnrollmentDtos(); }
+
+    @GetMapping("/getEnrollmentsPage")
+    public CursorPage<EnrollmentDto> getEnrollmentsPage(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return enrollmentService.getEnrollmentsPage(cursor, size);
+    }
 
     @GetMapping("/getEnrollment/{id}")
-    public Enrollment getEnrollment(@PathVariable Long id) { return enrollmentService.getEnrollmentById(id); }
+    public EnrollmentDto getEnrollment(@PathVariable Long id) { return enrollmentService.getEnrollmentDtoById(id); }
+
+    @PostMapping("/getEnrollmentsByIds")
+    public List<BatchGetItem<EnrollmentDto>> getEnrollmentsByIds(@RequestBody List<Long> ids) {
+        return enrollmentService.getEnrollmentsByIds(ids);
+    }
 
     @PostMapping("/createEnrollment")
-    public Enrollment createEnrollment(@RequestBody Enrollment enrollment) { return enrollmentService.saveEnrollment(enrollment); }
+    public EnrollmentDto createEnrollment(@RequestBody Enrollment enrollment) { return EnrollmentDto.from(enrollmentService.saveEnrollment(enrollment)); }
+
+    // ⏱️ Écriture différée : 202 + ID de suivi, 503 si la file est pleine
+    @PostMapping("/submitEnrollment")
+    public ResponseEntity<WriteTicketDto> submitEnrollment(@RequestBody Enrollment enrollment) {
+        return ResponseEntity.accepted().body(writeQueue.submitEnrollment(enrollment));
+    }
+
+    @GetMapping("/getWriteTicket/{trackingId}")
+    public WriteTicketDto getWriteTicket(@PathVariable String trackingId) {
+        return writeQueue.getWriteTicket(trackingId);
+    }
 
     @PutMapping("/updateEnrollment")
-    public Enrollment updateEnrollment(@RequestBody Enrollment enrollment) {
-        return enrollmentService.saveEnrollment(enrollment);
+    public EnrollmentDto updateEnrollment(@RequestBody Enrollment enrollment) {
+        return EnrollmentDto.from(enrollmentService.saveEnrollment(enrollment));
+    }
+
+    // 📝 Saisie des notes d'un cours en masse : résultat par ligne
+    @PutMapping("/postGrades/{courseId}")
+    public List<BulkItemResult> postGrades(@PathVariable Long courseId, @RequestBody List<GradeUpdate> updates) {
+        return enrollmentService.postGrades(courseId, updates);
     }
 
     @DeleteMapping("/deleteEnrollment/{id}")
     public void deleteEnrollment(@PathVariable Long id) {
         enrollmentService.deleteEnrollment(id); }
+
+    // ⏳ Liste d'attente : promotion automatique quand une place se libère
+    @PostMapping("/joinWaitlist/{courseId}/{studentId}")
+    public WaitlistEntryDto joinWaitlist(@PathVariable Long courseId, @PathVariable Long studentId) {
+        return waitlistService.joinWaitlist(courseId, studentId);
+    }
+
+    @GetMapping("/getWaitlist/{courseId}")
+    public List<WaitlistEntryDto> getWaitlist(@PathVariable Long courseId) {
+        return waitlistService.getWaitlist(courseId);
+    }
+
+    @DeleteMapping("/leaveWaitlist/{id}")
+    public void leaveWaitlist(@PathVariable Long id) {
+        waitlistService.leaveWaitlist(id);
+    }
 }
@@ -1,11 +1,24 @@
 package tn.esprit.studentmanagement.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.BulkItemResult;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.StudentDto;
+import tn.esprit.studentmanagement.dto.StudentGpaDto;
+import tn.esprit.studentmanagement.dto.StudentSearchHit;
+import tn.esprit.studentmanagement.dto.TranscriptDto;
 import tn.esprit.studentmanagement.entities.Student;
 import tn.esprit.studentmanagement.services.IStudentService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -14,19 +27,67 @@ import java.util.List;
 @AllArgsConstructor
 public class StudentController {
 private final IStudentService studentService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/getAllStudents")
-    public List<Student> getAllStudents() { return studentService.getAllStudents(); }
+    public List<StudentDto> getAllStudents() { return studentService.getAllStudentDtos(); }
+
+    @GetMapping("/getStudentsPage")
+    public CursorPage<StudentDto> getStudentsPage(@RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return studentService.getStudentsPage(cursor, size);
+    }
+
+    @GetMapping(value = "/exportStudents", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportStudents() {
+        StreamingResponseBody body = out -> studentService.exportStudents(student -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(student));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/search")
+    public List<StudentSearchHit> searchStudents(@RequestParam("q") String query,
+                                                 @RequestParam(defaultValue = "10") int limit) {
+        return studentService.searchStudents(query, limit);
+    }
 
     @GetMapping("/getStudent/{id}")
-    public Student getStudent(@PathVariable Long id) { return studentService.getStudentById(id); }
+    public StudentDto getStudent(@PathVariable Long id) { return studentService.getStudentDtoById(id); }
+
+    @GetMapping("/getTranscript/{id}")
+    public TranscriptDto getTranscript(@PathVariable Long id) { return studentService.getTranscript(id); }
+
+    @GetMapping("/getGpa/{id}")
+    public StudentGpaDto getGpa(@PathVariable Long id) { return studentService.getStudentGpa(id); }
+
+    // ✅ recalcul complet en arrière-plan : 202, ou 409 si un recalcul tourne déjà
+    @PostMapping("/recomputeGpa")
+    public ResponseEntity<Void> recomputeGpa() {
+        return ResponseEntity.status(studentService.recomputeGpas() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+
+    @PostMapping("/getStudentsByIds")
+    public List<BatchGetItem<StudentDto>> getStudentsByIds(@RequestBody List<Long> ids) {
+        return studentService.getStudentsByIds(ids);
+    }
 
     @PostMapping("/createStudent")
-    public Student createStudent(@RequestBody Student student) { return studentService.saveStudent(student); }
+    public StudentDto createStudent(@RequestBody Student student) { return StudentDto.from(studentService.saveStudent(student)); }
+
+    @PostMapping("/createStudents")
+    public List<BulkItemResult> createStudents(@RequestBody List<Student> students) {
+        return studentService.saveAllStudents(students);
+    }
 
     @PutMapping("/updateStudent")
-    public Student updateStudent(@RequestBody Student student) {
-        return studentService.saveStudent(student);
+    public StudentDto updateStudent(@RequestBody Student student) {
+        return StudentDto.from(studentService.saveStudent(student));
     }
 
     @DeleteMapping("/deleteStudent/{id}")
@@ -0,0 +1,39 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.exceptions.BulkLimitExceededException;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Élément d'une lecture multiple : une entrée par ID demandé, dans l'ordre de la requête,
+ * avec found = false (et value = null) pour les ID introuvables.
+ */
+public record BatchGetItem<T>(Long id, boolean found, T value) {
+
+    public static final int MAX_IDS = 10_000;
+    // ✅ borne la taille des IN (...) envoyés à la base
+    public static final int CHUNK_SIZE = 500;
+
+    public static <T> List<BatchGetItem<T>> resolve(List<Long> ids,
+                                                    Function<Collection<Long>, List<T>> loader,
+                                                    Function<T, Long> idOf) {
+        if (ids.size() > MAX_IDS) {
+            throw new BulkLimitExceededException(ids.size(), MAX_IDS);
+        }
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, T> found = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + CHUNK_SIZE, distinct.size()));
+            for (T value : loader.apply(chunk)) {
+                found.put(idOf.apply(value), value);
+            }
+        }
+        List<BatchGetItem<T>> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T value = id == null ? null : found.get(id);
+            items.add(new BatchGetItem<>(id, value != null, value));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,18 @@
+package tn.esprit.studentmanagement.dto;
+
+/**
+ * Résultat d'un élément d'une requête en masse, à la même position que dans la requête.
+ */
+public record BulkItemResult(int index, Long id, Outcome outcome, String message) {
+
+    public enum Outcome {
+        CREATED,
+        UPDATED,
+        UNCHANGED,
+        REJECTED
+    }
+
+    public static BulkItemResult rejected(int index, Long id, String message) {
+        return new BulkItemResult(index, id, Outcome.REJECTED, message);
+    }
+}
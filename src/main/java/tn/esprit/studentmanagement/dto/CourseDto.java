@@ -0,0 +1,16 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Course;
+
+public record CourseDto(Long idCourse, String name, String code, int credit, String description, Integer capacity) {
+
+    public static CourseDto from(Course course) {
+        return new CourseDto(
+                course.getIdCourse(),
+                course.getName(),
+                course.getCode(),
+                course.getCredit(),
+                course.getDescription(),
+                course.getCapacity());
+    }
+}
@@ -0,0 +1,16 @@
+package tn.esprit.studentmanagement.dto;
+
+/**
+ * Statistiques de notes d'un cours. Les valeurs sont null tant qu'aucune note n'est comptée.
+ */
+public record CourseGradeStatsDto(Long courseId,
+                                  long gradedCount,
+                                  Double average,
+                                  Double min,
+                                  Double max,
+                                  Double passRate) {
+
+    public static CourseGradeStatsDto empty(Long courseId) {
+        return new CourseGradeStatsDto(courseId, 0, null, null, null, null);
+    }
+}
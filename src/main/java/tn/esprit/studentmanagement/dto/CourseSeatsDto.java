@@ -0,0 +1,11 @@
+package tn.esprit.studentmanagement.dto;
+
+/**
+ * Occupation d'un cours, lue sans cache. capacity et available sont null si la capacité est illimitée.
+ */
+public record CourseSeatsDto(Long courseId, Integer capacity, int seatsTaken, Integer available) {
+
+    public CourseSeatsDto(Long courseId, Integer capacity, int seatsTaken) {
+        this(courseId, capacity, seatsTaken, capacity == null ? null : Math.max(0, capacity - seatsTaken));
+    }
+}
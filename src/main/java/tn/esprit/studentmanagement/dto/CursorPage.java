@@ -0,0 +1,60 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page obtenue par pagination keyset (curseur) sur la clé primaire.
+ * nextCursor est opaque pour le client et vaut null sur la dernière page.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private static final String PREFIX = "id:";
+
+    public static int clampSize(int size) {
+        if (size < 1) {
+            return 1;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /** Dernier ID déjà vu (0 pour la première page). */
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new InvalidCursorException(cursor);
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Construit la page à partir d'une requête qui a lu size + 1 lignes :
+     * la ligne supplémentaire indique seulement qu'une page suivante existe.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, Long> idOf) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, size);
+        return new CursorPage<>(List.copyOf(items), encodeCursor(idOf.apply(items.get(size - 1))));
+    }
+}
@@ -0,0 +1,15 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Department;
+
+public record DepartmentDto(Long idDepartment, String name, String location, String phone, String head) {
+
+    public static DepartmentDto from(Department department) {
+        return new DepartmentDto(
+                department.getIdDepartment(),
+                department.getName(),
+                department.getLocation(),
+                department.getPhone(),
+                department.getHead());
+    }
+}
@@ -0,0 +1,43 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Status;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthèse d'un département : effectif, inscriptions par statut et moyenne des notes.
+ * averageGrade est null si aucune inscription n'est notée.
+ */
+public record DepartmentRollupDto(Long idDepartment,
+                                  String name,
+                                  long studentCount,
+                                  long activeEnrollments,
+                                  long totalEnrollments,
+                                  Double averageGrade,
+                                  Map<Status, Long> enrollmentsByStatus) {
+
+    public static DepartmentRollupDto of(DepartmentStudentCount students, List<DepartmentStatusTotals> totals) {
+        Map<Status, Long> byStatus = new EnumMap<>(Status.class);
+        long total = 0;
+        long graded = 0;
+        double gradeSum = 0;
+        for (DepartmentStatusTotals row : totals) {
+            if (row.status() != null) {
+                byStatus.merge(row.status(), row.enrollments(), Long::sum);
+            }
+            total += row.enrollments();
+            graded += row.graded();
+            gradeSum += row.gradeSum() != null ? row.gradeSum() : 0;
+        }
+        return new DepartmentRollupDto(
+                students.departmentId(),
+                students.name(),
+                students.studentCount(),
+                byStatus.getOrDefault(Status.ACTIVE, 0L),
+                total,
+                graded > 0 ? gradeSum / graded : null,
+                byStatus);
+    }
+}
@@ -0,0 +1,10 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Status;
+
+/**
+ * Ligne agrégée : inscriptions d'un département pour un statut (GROUP BY département, statut).
+ * graded et gradeSum ne portent que sur les inscriptions notées.
+ */
+public record DepartmentStatusTotals(Long departmentId, Status status, Long enrollments, Long graded, Double gradeSum) {
+}
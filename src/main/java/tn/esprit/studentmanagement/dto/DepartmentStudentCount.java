@@ -0,0 +1,7 @@
+package tn.esprit.studentmanagement.dto;
+
+/**
+ * Ligne agrégée : nombre d'étudiants d'un département (GROUP BY département).
+ */
+public record DepartmentStudentCount(Long departmentId, String name, Long studentCount) {
+}
@@ -0,0 +1,27 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+
+import java.time.LocalDate;
+
+/**
+ * Vue plate d'une inscription : l'étudiant et le cours sont réduits à leur ID.
+ */
+public record EnrollmentDto(Long idEnrollment,
+                            LocalDate enrollmentDate,
+                            Double grade,
+                            Status status,
+                            Long studentId,
+                            Long courseId) {
+
+    public static EnrollmentDto from(Enrollment enrollment) {
+        return new EnrollmentDto(
+                enrollment.getIdEnrollment(),
+                enrollment.getEnrollmentDate(),
+                enrollment.getGrade(),
+                enrollment.getStatus(),
+                enrollment.getStudent() != null ? enrollment.getStudent().getIdStudent() : null,
+                enrollment.getCourse() != null ? enrollment.getCourse().getIdCourse() : null);
+    }
+}
@@ -0,0 +1,19 @@
+package tn.esprit.studentmanagement.dto;
+
+/**
+ * Totaux agrégés en base pour un étudiant : somme des notes pondérées par les crédits
+ * et somme des crédits, sur les inscriptions retenues pour la moyenne.
+ */
+public record GpaTotals(Long studentId, Double weightedGradeSum, Long credits) {
+
+    /** Cumul des totaux d'un même étudiant (table vivante + archive). */
+    public GpaTotals plus(GpaTotals other) {
+        if (other == null) {
+            return this;
+        }
+        Double sum = weightedGradeSum == null ? other.weightedGradeSum
+                : other.weightedGradeSum == null ? weightedGradeSum : weightedGradeSum + other.weightedGradeSum;
+        long total = (credits == null ? 0 : credits) + (other.credits == null ? 0 : other.credits);
+        return new GpaTotals(studentId, sum, total);
+    }
+}
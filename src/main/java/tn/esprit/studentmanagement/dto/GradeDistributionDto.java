@@ -0,0 +1,19 @@
+package tn.esprit.studentmanagement.dto;
+
+import java.util.List;
+
+/**
+ * Distribution des notes d'un cours ou d'un département.
+ * median et p90 sont estimés à maxError près (voir GradeHistogram) ; null si aucune note.
+ * histogram : une classe par point de note, [from, to[ (la dernière inclut 20).
+ */
+public record GradeDistributionDto(Long id,
+                                   long count,
+                                   Double median,
+                                   Double p90,
+                                   double maxError,
+                                   List<Bin> histogram) {
+
+    public record Bin(double from, double to, long count) {
+    }
+}
@@ -0,0 +1,7 @@
+package tn.esprit.studentmanagement.dto;
+
+/**
+ * Note d'une inscription avec son cours et le département de l'étudiant (reconstruction des histogrammes).
+ */
+public record GradeSample(Long courseId, Long departmentId, Double grade) {
+}
@@ -0,0 +1,16 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Status;
+
+/**
+ * Une ligne d'une saisie de notes en masse. grade ou status à null : valeur actuelle conservée.
+ */
+public record GradeUpdate(Long idEnrollment, Double grade, Status status) {
+
+    public static final double MIN_GRADE = 0.0;
+    public static final double MAX_GRADE = 20.0;
+
+    public boolean hasValidGrade() {
+        return grade == null || (grade >= MIN_GRADE && grade <= MAX_GRADE);
+    }
+}
@@ -0,0 +1,7 @@
+package tn.esprit.studentmanagement.dto;
+
+/**
+ * Ligne du classement d'un cours. Rang "sportif" : deux notes égales partagent le même rang.
+ */
+public record LeaderboardEntryDto(int rank, Long enrollmentId, Long studentId, Double grade) {
+}
@@ -0,0 +1,9 @@
+package tn.esprit.studentmanagement.dto;
+
+/**
+ * Statistiques cumulées d'une forme de requête SQL (endpoint actuator queries).
+ * maxMs est le maximum de la fenêtre glissante Micrometer, pas depuis le démarrage.
+ */
+public record QueryShapeStatsDto(String shape, String operation, String table, String sql,
+                                 long count, double totalMs, double maxMs, long rows) {
+}
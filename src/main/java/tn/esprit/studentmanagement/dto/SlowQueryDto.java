@@ -0,0 +1,9 @@
+package tn.esprit.studentmanagement.dto;
+
+import java.time.Instant;
+
+/**
+ * Échantillon de requête lente ; request est la requête HTTP en cours ("GET /students/..."), null hors requête.
+ */
+public record SlowQueryDto(Instant at, String shape, String sql, long durationMs, String request) {
+}
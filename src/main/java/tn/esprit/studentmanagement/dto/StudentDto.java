@@ -0,0 +1,31 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.Student;
+
+import java.time.LocalDate;
+
+/**
+ * Vue plate d'un étudiant : le département est réduit à son ID
+ * et les inscriptions ne sont pas sérialisées.
+ */
+public record StudentDto(Long idStudent,
+                         String firstName,
+                         String lastName,
+                         String email,
+                         String phone,
+                         LocalDate dateOfBirth,
+                         String address,
+                         Long departmentId) {
+
+    public static StudentDto from(Student student) {
+        return new StudentDto(
+                student.getIdStudent(),
+                student.getFirstName(),
+                student.getLastName(),
+                student.getEmail(),
+                student.getPhone(),
+                student.getDateOfBirth(),
+                student.getAddress(),
+                student.getDepartment() != null ? student.getDepartment().getIdDepartment() : null);
+    }
+}
@@ -0,0 +1,17 @@
+package tn.esprit.studentmanagement.dto;
+
+/**
+ * Moyenne pondérée par les crédits d'un étudiant ; gpa est null sans crédit validé ou échoué.
+ */
+public record StudentGpaDto(Long studentId, Double gpa, long credits) {
+
+    public static StudentGpaDto from(GpaTotals totals) {
+        long credits = totals.credits() == null ? 0 : totals.credits();
+        Double gpa = credits > 0 && totals.weightedGradeSum() != null ? totals.weightedGradeSum() / credits : null;
+        return new StudentGpaDto(totals.studentId(), gpa, credits);
+    }
+
+    public static StudentGpaDto empty(Long studentId) {
+        return new StudentGpaDto(studentId, null, 0);
+    }
+}
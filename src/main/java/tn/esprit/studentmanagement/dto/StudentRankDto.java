@@ -0,0 +1,7 @@
+package tn.esprit.studentmanagement.dto;
+
+/**
+ * Rang d'un étudiant dans un cours (meilleure de ses notes) ; rank et grade sont null s'il n'est pas classé.
+ */
+public record StudentRankDto(Long courseId, Long studentId, Long rank, Double grade) {
+}
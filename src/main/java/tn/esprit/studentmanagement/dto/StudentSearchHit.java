@@ -0,0 +1,8 @@
+package tn.esprit.studentmanagement.dto;
+
+public record StudentSearchHit(Long idStudent, String firstName, String lastName, String email) {
+
+    public static StudentSearchHit from(StudentDto student) {
+        return new StudentSearchHit(student.idStudent(), student.firstName(), student.lastName(), student.email());
+    }
+}
@@ -0,0 +1,75 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.ArchivedEnrollment;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.Student;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Relevé d'un étudiant : une ligne par inscription avec le nom et les crédits du cours.
+ * Construit à partir d'un Student chargé avec son graphe complet (voir StudentRepository#findTranscriptById)
+ * et de ses inscriptions archivées (ArchivedEnrollmentRepository#findWithCourseByStudent), fusionnées par ID.
+ */
+public record TranscriptDto(Long idStudent,
+                            String firstName,
+                            String lastName,
+                            Long departmentId,
+                            String departmentName,
+                            List<Line> lines) {
+
+    public record Line(Long idEnrollment,
+                       Long courseId,
+                       String courseCode,
+                       String courseName,
+                       int credit,
+                       LocalDate enrollmentDate,
+                       Double grade,
+                       Status status) {
+
+        static Line from(Enrollment enrollment) {
+            return of(enrollment.getIdEnrollment(), enrollment.getCourse(), enrollment.getEnrollmentDate(),
+                    enrollment.getGrade(), enrollment.getStatus());
+        }
+
+        static Line from(ArchivedEnrollment enrollment) {
+            return of(enrollment.getIdEnrollment(), enrollment.getCourse(), enrollment.getEnrollmentDate(),
+                    enrollment.getGrade(), enrollment.getStatus());
+        }
+
+        private static Line of(Long idEnrollment, Course course, LocalDate enrollmentDate, Double grade, Status status) {
+            return new Line(
+                    idEnrollment,
+                    course != null ? course.getIdCourse() : null,
+                    course != null ? course.getCode() : null,
+                    course != null ? course.getName() : null,
+                    course != null ? course.getCredit() : 0,
+                    enrollmentDate,
+                    grade,
+                    status);
+        }
+    }
+
+    public static TranscriptDto from(Student student) {
+        return from(student, List.of());
+    }
+
+    public static TranscriptDto from(Student student, List<ArchivedEnrollment> archived) {
+        Stream<Line> live = student.getEnrollments() == null ? Stream.empty() : student.getEnrollments().stream().map(Line::from);
+        List<Line> lines = Stream.concat(live, archived.stream().map(Line::from))
+                .sorted(Comparator.comparing(Line::idEnrollment))
+                .toList();
+        return new TranscriptDto(
+                student.getIdStudent(),
+                student.getFirstName(),
+                student.getLastName(),
+                student.getDepartment() != null ? student.getDepartment().getIdDepartment() : null,
+                student.getDepartment() != null ? student.getDepartment().getName() : null,
+                lines);
+    }
+}
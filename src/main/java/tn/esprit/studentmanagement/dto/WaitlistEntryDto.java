@@ -0,0 +1,22 @@
+package tn.esprit.studentmanagement.dto;
+
+import tn.esprit.studentmanagement.entities.WaitlistEntry;
+
+import java.time.LocalDateTime;
+
+/**
+ * Vue plate d'une place en liste d'attente : l'étudiant et le cours sont réduits à leur ID.
+ */
+public record WaitlistEntryDto(Long idWaitlistEntry,
+                               Long studentId,
+                               Long courseId,
+                               LocalDateTime requestedAt) {
+
+    public static WaitlistEntryDto from(WaitlistEntry entry) {
+        return new WaitlistEntryDto(
+                entry.getIdWaitlistEntry(),
+                entry.getStudent().getIdStudent(),
+                entry.getCourse().getIdCourse(),
+                entry.getRequestedAt());
+    }
+}
@@ -0,0 +1,25 @@
+package tn.esprit.studentmanagement.dto;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Suivi d'une écriture différée : PENDING tant qu'elle est en file, puis DONE (inscription
+ * enregistrée) ou FAILED (message de l'erreur).
+ */
+public record WriteTicketDto(String trackingId, State state, EnrollmentDto enrollment, String error) {
+
+    public enum State { PENDING, DONE, FAILED }
+
+    public static WriteTicketDto of(String trackingId, CompletableFuture<EnrollmentDto> result) {
+        if (!result.isDone()) {
+            return new WriteTicketDto(trackingId, State.PENDING, null, null);
+        }
+        try {
+            return new WriteTicketDto(trackingId, State.DONE, result.join(), null);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return new WriteTicketDto(trackingId, State.FAILED, null, cause.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package tn.esprit.studentmanagement.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Inscription clôturée déplacée hors de la table vivante (voir EnrollmentArchiver).
+ * Mêmes colonnes qu'Enrollment, ID d'origine conservé : pas de génération.
+ */
+@Entity
+@Table(name = "enrollment_archive")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class ArchivedEnrollment {
+    @Id
+    private Long idEnrollment;
+    private LocalDate enrollmentDate;
+    private Double grade;
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    private LocalDateTime archivedAt;
+
+    @ToString.Exclude
+    @ManyToOne
+    private Student student;
+
+    @ToString.Exclude
+    @ManyToOne
+    private Course course;
+}
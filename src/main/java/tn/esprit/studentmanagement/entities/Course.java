@@ -1,7 +1,10 @@
 package tn.esprit.studentmanagement.entities;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import tn.esprit.studentmanagement.config.IdSequenceAligner;
 
 import java.util.List;
 
@@ -13,13 +16,22 @@ import java.util.List;
 @ToString
 public class Course {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "course_seq")
+    @SequenceGenerator(name = "course_seq", sequenceName = "course_seq", allocationSize = IdSequenceAligner.ALLOCATION_SIZE)
     private Long idCourse;
     private String name;
     private String code;           // exemple : CS101
     private int credit;            // nombre de crédits
     private String description;
+    private Integer capacity;      // places offertes (null = illimité)
 
+    // ✅ compteur modifié uniquement par UPDATE conditionnel (CourseRepository), jamais par save()
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private int seatsTaken;
+
+    @ToString.Exclude
     @OneToMany(mappedBy = "course")
     private List<Enrollment> enrollments;
 
@@ -2,6 +2,7 @@ package tn.esprit.studentmanagement.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import tn.esprit.studentmanagement.config.IdSequenceAligner;
 
 import java.util.List;
 
@@ -13,13 +14,15 @@ import java.util.List;
 @ToString
 public class Department {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "department_seq")
+    @SequenceGenerator(name = "department_seq", sequenceName = "department_seq", allocationSize = IdSequenceAligner.ALLOCATION_SIZE)
     private Long idDepartment;
     private String name;
     private String location;
     private String phone;
     private String head; // chef de département
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "department")
     private List<Student> students;
 }
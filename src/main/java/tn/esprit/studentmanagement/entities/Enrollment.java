@@ -2,6 +2,7 @@ package tn.esprit.studentmanagement.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import tn.esprit.studentmanagement.config.IdSequenceAligner;
 
 import java.time.LocalDate;
 
@@ -13,16 +14,19 @@ import java.time.LocalDate;
 @ToString
 public class Enrollment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "enrollment_seq")
+    @SequenceGenerator(name = "enrollment_seq", sequenceName = "enrollment_seq", allocationSize = IdSequenceAligner.ALLOCATION_SIZE)
     private Long idEnrollment;
     private LocalDate enrollmentDate;
     private Double grade;
     @Enumerated(EnumType.STRING)
     private Status status;
 
+    @ToString.Exclude
     @ManyToOne
     private Student student;
 
+    @ToString.Exclude
     @ManyToOne
     private Course course;
 
@@ -2,7 +2,7 @@ package tn.esprit.studentmanagement.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.springframework.scheduling.annotation.EnableScheduling;
+import tn.esprit.studentmanagement.config.IdSequenceAligner;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -15,7 +15,9 @@ import java.util.List;
 @ToString
 public class Student {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ✅ séquence "pooled" : autorise le batching JDBC des INSERT (IDENTITY le désactive)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "student_seq", allocationSize = IdSequenceAligner.ALLOCATION_SIZE)
     private Long idStudent;
     private String firstName;
     private String lastName;
@@ -27,6 +29,7 @@ public class Student {
     @ManyToOne
     private Department department;
 
+    @ToString.Exclude
     @OneToMany(mappedBy = "student")
     private List<Enrollment> enrollments;
 }
@@ -0,0 +1,32 @@
+package tn.esprit.studentmanagement.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import tn.esprit.studentmanagement.config.IdSequenceAligner;
+
+import java.time.LocalDateTime;
+
+@Entity
+// ✅ une seule entrée par étudiant et par cours, même entre deux demandes simultanées
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_waitlist_entry_course_student",
+        columnNames = {"course_id_course", "student_id_student"}))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "waitlist_entry_seq")
+    @SequenceGenerator(name = "waitlist_entry_seq", sequenceName = "waitlist_entry_seq", allocationSize = IdSequenceAligner.ALLOCATION_SIZE)
+    private Long idWaitlistEntry;
+    private LocalDateTime requestedAt;   // ordre FIFO (à égalité : l'ID)
+
+    @ToString.Exclude
+    @ManyToOne(optional = false)
+    private Student student;
+
+    @ToString.Exclude
+    @ManyToOne(optional = false)
+    private Course course;
+}
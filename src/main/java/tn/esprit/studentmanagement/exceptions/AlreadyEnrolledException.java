@@ -0,0 +1,11 @@
+package tn.esprit.studentmanagement.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class AlreadyEnrolledException extends RuntimeException {
+    public AlreadyEnrolledException(Long idCourse, Long idStudent) {
+        super("L'étudiant " + idStudent + " occupe déjà une place dans le cours " + idCourse);
+    }
+}
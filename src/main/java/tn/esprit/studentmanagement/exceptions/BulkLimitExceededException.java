@@ -0,0 +1,11 @@
+package tn.esprit.studentmanagement.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class BulkLimitExceededException extends RuntimeException {
+    public BulkLimitExceededException(int size, int max) {
+        super("Trop d'éléments dans la requête : " + size + " (maximum " + max + ")");
+    }
+}
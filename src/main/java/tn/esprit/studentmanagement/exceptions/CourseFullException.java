@@ -0,0 +1,11 @@
+package tn.esprit.studentmanagement.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class CourseFullException extends RuntimeException {
+    public CourseFullException(Long idCourse) {
+        super("Plus de place disponible dans le cours " + idCourse);
+    }
+}
@@ -0,0 +1,98 @@
+package tn.esprit.studentmanagement.repositories;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tn.esprit.studentmanagement.dto.DepartmentStatusTotals;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.GpaTotals;
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.entities.ArchivedEnrollment;
+import tn.esprit.studentmanagement.entities.Status;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Table froide des inscriptions clôturées : uniquement lue par les vues historiques
+ * (relevé, moyennes, statistiques de notes, synthèse des départements), en complément
+ * des requêtes équivalentes d'EnrollmentRepository.
+ */
+@Repository
+public interface ArchivedEnrollmentRepository extends JpaRepository<ArchivedEnrollment, Long> {
+
+    String ARCHIVED_DTO = "select new tn.esprit.studentmanagement.dto.EnrollmentDto("
+            + "a.idEnrollment, a.enrollmentDate, a.grade, a.status, s.idStudent, c.idCourse) "
+            + "from ArchivedEnrollment a left join a.student s left join a.course c ";
+
+    String GPA_TOTALS = "select new tn.esprit.studentmanagement.dto.GpaTotals("
+            + "s.idStudent, sum(a.grade * c.credit), sum(c.credit)) "
+            + "from ArchivedEnrollment a join a.student s join a.course c "
+            + "where a.grade is not null and a.status in :statuses ";
+
+    // Déplacement : copie d'un bloc de lignes vivantes (voir EnrollmentRepository#ARCHIVABLE),
+    // dans la transaction qui les supprime ensuite
+    @Modifying
+    @Query("insert into ArchivedEnrollment (idEnrollment, enrollmentDate, grade, status, student, course, archivedAt) "
+            + "select e.idEnrollment, e.enrollmentDate, e.grade, e.status, e.student, e.course, local datetime "
+            + "from Enrollment e where " + EnrollmentRepository.ARCHIVABLE + "and e.idEnrollment <= :last")
+    int copyFromLive(@Param("after") Long after,
+                     @Param("last") Long last,
+                     @Param("statuses") Collection<Status> statuses,
+                     @Param("before") LocalDate before);
+
+    // Relevé : inscriptions archivées d'un étudiant avec leur cours, en une requête
+    @Query("select a from ArchivedEnrollment a left join fetch a.course where a.student.idStudent = :studentId")
+    List<ArchivedEnrollment> findWithCourseByStudent(@Param("studentId") Long studentId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(ARCHIVED_DTO + "order by a.idEnrollment")
+    Stream<EnrollmentDto> streamAllDtos();
+
+    @Query(ARCHIVED_DTO + "where c.idCourse = :courseId")
+    List<EnrollmentDto> findDtosByCourse(@Param("courseId") Long courseId);
+
+    @Query(GPA_TOTALS + "and s.idStudent = :studentId group by s.idStudent")
+    Optional<GpaTotals> findGpaTotals(@Param("studentId") Long studentId,
+                                      @Param("statuses") Collection<Status> statuses);
+
+    @Query(GPA_TOTALS + "and s.idStudent in :studentIds group by s.idStudent")
+    List<GpaTotals> findGpaTotalsIn(@Param("studentIds") Collection<Long> studentIds,
+                                    @Param("statuses") Collection<Status> statuses);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(GPA_TOTALS + "and s.idStudent between :fromId and :toId group by s.idStudent")
+    Stream<GpaTotals> streamGpaTotals(@Param("fromId") Long fromId,
+                                      @Param("toId") Long toId,
+                                      @Param("statuses") Collection<Status> statuses);
+
+    @Query("select new tn.esprit.studentmanagement.dto.DepartmentStatusTotals("
+            + "d.idDepartment, a.status, count(a), count(a.grade), sum(a.grade)) "
+            + "from ArchivedEnrollment a join a.student s join s.department d "
+            + "group by d.idDepartment, a.status")
+    List<DepartmentStatusTotals> totalsByDepartmentAndStatus();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new tn.esprit.studentmanagement.dto.GradeSample(c.idCourse, d.idDepartment, a.grade) "
+            + "from ArchivedEnrollment a join a.course c left join a.student s left join s.department d "
+            + "where a.grade is not null and (a.status is null or a.status not in :excluded)")
+    Stream<GradeSample> streamGradeSamples(@Param("excluded") Collection<Status> excluded);
+
+    @Query("select new tn.esprit.studentmanagement.dto.GradeSample(c.idCourse, d.idDepartment, a.grade) "
+            + "from ArchivedEnrollment a join a.course c left join a.student s left join s.department d "
+            + "where c.idCourse = :courseId and a.grade is not null "
+            + "and (a.status is null or a.status not in :excluded)")
+    List<GradeSample> findGradeSamplesByCourse(@Param("courseId") Long courseId,
+                                               @Param("excluded") Collection<Status> excluded);
+
+    @Query("select distinct a.course.idCourse from ArchivedEnrollment a where a.student.idStudent in :studentIds")
+    List<Long> findCourseIdsByStudentIn(@Param("studentIds") Collection<Long> studentIds);
+}
@@ -1,8 +1,58 @@
 package tn.esprit.studentmanagement.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.dto.CourseDto;
+import tn.esprit.studentmanagement.dto.CourseSeatsDto;
 import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Status;
+
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface CourseRepository extends JpaRepository<Course, Long> {}
+public interface CourseRepository extends JpaRepository<Course, Long> {
+
+    String COURSE_DTO = "select new tn.esprit.studentmanagement.dto.CourseDto("
+            + "c.idCourse, c.name, c.code, c.credit, c.description, c.capacity) from Course c ";
+
+    // ✅ liste et fiches en cache : lues sur le primaire
+    @Transactional
+    @Query(COURSE_DTO + "order by c.idCourse")
+    List<CourseDto> findAllDtos();
+
+    @Transactional
+    @Query(COURSE_DTO + "where c.idCourse = :id")
+    Optional<CourseDto> findDtoById(@Param("id") Long id);
+
+    // Réservation de place : UPDATE conditionnel atomique, 0 ligne modifiée = cours complet.
+    // Seule la ligne du cours est verrouillée, jusqu'au commit de la transaction appelante.
+    @Modifying
+    @Query("update Course c set c.seatsTaken = c.seatsTaken + 1 "
+            + "where c.idCourse = :id and (c.capacity is null or c.seatsTaken < c.capacity)")
+    int reserveSeat(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Course c set c.seatsTaken = c.seatsTaken - 1 where c.idCourse = :id and c.seatsTaken > 0")
+    int releaseSeat(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Course c set c.seatsTaken = case when c.seatsTaken > :count then c.seatsTaken - :count else 0 end "
+            + "where c.idCourse = :id")
+    int releaseSeats(@Param("id") Long id, @Param("count") int count);
+
+    @Query("select new tn.esprit.studentmanagement.dto.CourseSeatsDto(c.idCourse, c.capacity, c.seatsTaken) "
+            + "from Course c where c.idCourse = :id")
+    Optional<CourseSeatsDto> findSeatsById(@Param("id") Long id);
+
+    // Recalage des compteurs sur les inscriptions réellement occupantes (colonne ajoutée sur une base existante)
+    @Modifying
+    @Query("update Course c set c.seatsTaken = "
+            + "(select count(e) from Enrollment e where e.course = c and e.status = :holding) "
+            + "where c.seatsTaken <> (select count(e) from Enrollment e where e.course = c and e.status = :holding)")
+    int recountSeats(@Param("holding") Status holding);
+}
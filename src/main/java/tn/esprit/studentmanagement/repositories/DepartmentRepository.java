@@ -1,7 +1,43 @@
 package tn.esprit.studentmanagement.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.dto.DepartmentDto;
+import tn.esprit.studentmanagement.dto.DepartmentStudentCount;
 import tn.esprit.studentmanagement.entities.Department;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface DepartmentRepository extends JpaRepository<Department, Long> {}
+public interface DepartmentRepository extends JpaRepository<Department, Long> {
+
+    String DEPARTMENT_DTO = "select new tn.esprit.studentmanagement.dto.DepartmentDto("
+            + "d.idDepartment, d.name, d.location, d.phone, d.head) from Department d ";
+
+    // ✅ liste et fiches en cache : lues sur le primaire
+    @Transactional
+    @Query(DEPARTMENT_DTO + "order by d.idDepartment")
+    List<DepartmentDto> findAllDtos();
+
+    @Transactional
+    @Query(DEPARTMENT_DTO + "where d.idDepartment = :id")
+    Optional<DepartmentDto> findDtoById(@Param("id") Long id);
+
+    @Query(DEPARTMENT_DTO + "where d.idDepartment in :ids")
+    List<DepartmentDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(DEPARTMENT_DTO + "where d.idDepartment > :after order by d.idDepartment")
+    List<DepartmentDto> findDtosAfter(@Param("after") Long after, Limit limit);
+
+    // Synthèse : comptage fait par la base, aucun étudiant chargé
+    @Query("select new tn.esprit.studentmanagement.dto.DepartmentStudentCount(d.idDepartment, d.name, count(s)) "
+            + "from Department d left join d.students s "
+            + "group by d.idDepartment, d.name order by d.idDepartment")
+    List<DepartmentStudentCount> countStudentsByDepartment();
+}
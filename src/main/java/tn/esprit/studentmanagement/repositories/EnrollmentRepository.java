@@ -1,9 +1,164 @@
 package tn.esprit.studentmanagement.repositories;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.dto.DepartmentStatusTotals;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.GpaTotals;
+import tn.esprit.studentmanagement.dto.GradeSample;
 import tn.esprit.studentmanagement.entities.Enrollment;
-import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.entities.Status;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+
+    String ENROLLMENT_DTO = "select new tn.esprit.studentmanagement.dto.EnrollmentDto("
+            + "e.idEnrollment, e.enrollmentDate, e.grade, e.status, s.idStudent, c.idCourse) "
+            + "from Enrollment e left join e.student s left join e.course c ";
+
+    // Moyenne pondérée : l'agrégation est faite par la base, une ligne par étudiant
+    String GPA_TOTALS = "select new tn.esprit.studentmanagement.dto.GpaTotals("
+            + "s.idStudent, sum(e.grade * c.credit), sum(c.credit)) "
+            + "from Enrollment e join e.student s join e.course c "
+            + "where e.grade is not null and e.status in :statuses ";
+
+    @Query(ENROLLMENT_DTO + "order by e.idEnrollment")
+    List<EnrollmentDto> findAllDtos();
+
+    // ✅ alimente le cache enrollments : lu sur le primaire
+    @Transactional
+    @Query(ENROLLMENT_DTO + "where e.idEnrollment = :id")
+    Optional<EnrollmentDto> findDtoById(@Param("id") Long id);
+
+    @Query(ENROLLMENT_DTO + "where e.idEnrollment in :ids")
+    List<EnrollmentDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Écritures : état précédent lu sous verrou exclusif (SELECT ... FOR UPDATE) ; deux changements
+    // concurrents d'une même inscription ne libèrent ni ne réservent la place deux fois
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(ENROLLMENT_DTO + "where e.idEnrollment = :id")
+    Optional<EnrollmentDto> findDtoByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(ENROLLMENT_DTO + "where e.idEnrollment in :ids order by e.idEnrollment")
+    List<EnrollmentDto> findDtosByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query(ENROLLMENT_DTO + "where e.idEnrollment > :after order by e.idEnrollment")
+    List<EnrollmentDto> findDtosAfter(@Param("after") Long after, Limit limit);
+
+    // Lecture en flux (reconstruction des agrégats) : à consommer dans une transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(ENROLLMENT_DTO + "order by e.idEnrollment")
+    Stream<EnrollmentDto> streamAllDtos();
+
+    // Relecture d'un cours modifié pendant une reconstruction des agrégats
+    @Query(ENROLLMENT_DTO + "where c.idCourse = :courseId")
+    List<EnrollmentDto> findDtosByCourse(@Param("courseId") Long courseId);
+
+    @Query(GPA_TOTALS + "and s.idStudent = :studentId group by s.idStudent")
+    Optional<GpaTotals> findGpaTotals(@Param("studentId") Long studentId,
+                                      @Param("statuses") Collection<Status> statuses);
+
+    @Query(GPA_TOTALS + "and s.idStudent in :studentIds group by s.idStudent")
+    List<GpaTotals> findGpaTotalsIn(@Param("studentIds") Collection<Long> studentIds,
+                                    @Param("statuses") Collection<Status> statuses);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(GPA_TOTALS + "and s.idStudent between :fromId and :toId group by s.idStudent")
+    Stream<GpaTotals> streamGpaTotals(@Param("fromId") Long fromId,
+                                      @Param("toId") Long toId,
+                                      @Param("statuses") Collection<Status> statuses);
+
+    @Query("select new tn.esprit.studentmanagement.dto.DepartmentStatusTotals("
+            + "d.idDepartment, e.status, count(e), count(e.grade), sum(e.grade)) "
+            + "from Enrollment e join e.student s join s.department d "
+            + "group by d.idDepartment, e.status")
+    List<DepartmentStatusTotals> totalsByDepartmentAndStatus();
+
+    // Classement : inscriptions notées d'un cours, meilleures notes d'abord
+    String RANKED = "and e.grade is not null and (e.status is null or e.status not in :excluded) ";
+
+    @Query(ENROLLMENT_DTO + "where c.idCourse = :courseId " + RANKED + "order by e.grade desc, e.idEnrollment")
+    List<EnrollmentDto> findRankedByCourse(@Param("courseId") Long courseId,
+                                           @Param("excluded") Collection<Status> excluded,
+                                           Limit limit);
+
+    @Query("select count(e) from Enrollment e where e.course.idCourse = :courseId and e.grade > :grade "
+            + "and (e.status is null or e.status not in :excluded)")
+    long countRankedAbove(@Param("courseId") Long courseId,
+                          @Param("grade") Double grade,
+                          @Param("excluded") Collection<Status> excluded);
+
+    @Query("select max(e.grade) from Enrollment e where e.course.idCourse = :courseId "
+            + "and e.student.idStudent = :studentId " + RANKED)
+    Double findBestRankedGrade(@Param("courseId") Long courseId,
+                               @Param("studentId") Long studentId,
+                               @Param("excluded") Collection<Status> excluded);
+
+    // Liste d'attente : l'étudiant a-t-il déjà une inscription dans ce statut pour le cours ?
+    @Query("select count(e) > 0 from Enrollment e where e.course.idCourse = :courseId "
+            + "and e.student.idStudent = :studentId and e.status = :status")
+    boolean existsForStudentWithStatus(@Param("courseId") Long courseId,
+                                       @Param("studentId") Long studentId,
+                                       @Param("status") Status status);
+
+    // Reconstruction des histogrammes : note + cours + département de l'étudiant, en flux
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new tn.esprit.studentmanagement.dto.GradeSample(c.idCourse, d.idDepartment, e.grade) "
+            + "from Enrollment e join e.course c left join e.student s left join s.department d "
+            + "where e.grade is not null and (e.status is null or e.status not in :excluded)")
+    Stream<GradeSample> streamGradeSamples(@Param("excluded") Collection<Status> excluded);
+
+    // Relecture d'un cours modifié pendant une reconstruction des histogrammes
+    @Query("select new tn.esprit.studentmanagement.dto.GradeSample(c.idCourse, d.idDepartment, e.grade) "
+            + "from Enrollment e join e.course c left join e.student s left join s.department d "
+            + "where c.idCourse = :courseId and e.grade is not null "
+            + "and (e.status is null or e.status not in :excluded)")
+    List<GradeSample> findGradeSamplesByCourse(@Param("courseId") Long courseId,
+                                               @Param("excluded") Collection<Status> excluded);
+
+    // Histogrammes : cours à relire quand des étudiants changent de département
+    @Query("select distinct e.course.idCourse from Enrollment e where e.student.idStudent in :studentIds")
+    List<Long> findCourseIdsByStudentIn(@Param("studentIds") Collection<Long> studentIds);
+
+    // Archivage : un bloc est la plage d'ID ]after, last] restreinte aux inscriptions clôturées avant la date limite
+    // (prédicat sur plage plutôt qu'IN de milliers d'ID : copie et suppression restent des parcours de clé primaire)
+    String ARCHIVABLE = "e.idEnrollment > :after and e.status in :statuses and e.enrollmentDate < :before ";
+
+    // Prochain bloc, par ID croissant. Lignes verrouillées jusqu'au commit : une mise à jour concurrente
+    // ne peut pas se perdre entre copie et suppression.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e.idEnrollment from Enrollment e where " + ARCHIVABLE + "order by e.idEnrollment")
+    List<Long> findArchivableIds(@Param("after") Long after,
+                                 @Param("statuses") Collection<Status> statuses,
+                                 @Param("before") LocalDate before,
+                                 Limit limit);
+
+    @Query(ENROLLMENT_DTO + "where " + ARCHIVABLE + "and e.idEnrollment <= :last")
+    List<EnrollmentDto> findArchivableDtos(@Param("after") Long after,
+                                           @Param("last") Long last,
+                                           @Param("statuses") Collection<Status> statuses,
+                                           @Param("before") LocalDate before);
+
+    // ✅ seules les lignes déjà copiées sont supprimées
+    @Modifying
+    @Query("delete from Enrollment e where e.idEnrollment > :after and e.idEnrollment <= :last "
+            + "and exists (select 1 from ArchivedEnrollment a where a.idEnrollment = e.idEnrollment)")
+    int deleteArchived(@Param("after") Long after, @Param("last") Long last);
 }
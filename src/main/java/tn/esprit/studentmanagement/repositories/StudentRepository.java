@@ -1,9 +1,62 @@
 package tn.esprit.studentmanagement.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import tn.esprit.studentmanagement.entities.Course;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.dto.StudentDto;
 import tn.esprit.studentmanagement.entities.Student;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
+
+    // Projections DTO : un seul SELECT des colonnes utiles, aucune entité chargée
+    String STUDENT_DTO = "select new tn.esprit.studentmanagement.dto.StudentDto("
+            + "s.idStudent, s.firstName, s.lastName, s.email, s.phone, s.dateOfBirth, s.address, d.idDepartment) "
+            + "from Student s left join s.department d ";
+
+    @Query(STUDENT_DTO + "order by s.idStudent")
+    List<StudentDto> findAllDtos();
+
+    // ✅ résultat mis en cache par le service : lu sur le primaire (transaction d'écriture), jamais sur un réplica
+    @Transactional
+    @Query(STUDENT_DTO + "where s.idStudent = :id")
+    Optional<StudentDto> findDtoById(@Param("id") Long id);
+
+    @Query(STUDENT_DTO + "where s.idStudent in :ids")
+    List<StudentDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Pagination keyset : WHERE id > :dernierId ORDER BY id, sans OFFSET
+    @Query(STUDENT_DTO + "where s.idStudent > :after order by s.idStudent")
+    List<StudentDto> findDtosAfter(@Param("after") Long after, Limit limit);
+
+    // Relevé : étudiant, département, inscriptions et cours en une seule requête (jointures)
+    @EntityGraph(attributePaths = {"department", "enrollments", "enrollments.course"})
+    @Query("select s from Student s where s.idStudent = :id")
+    Optional<Student> findTranscriptById(@Param("id") Long id);
+
+    // Lecture en flux (export) : à consommer dans une transaction et à fermer après usage
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s from Student s left join fetch s.department order by s.idStudent")
+    Stream<Student> streamAllBy();
+
+    @Query("select min(s.idStudent) from Student s")
+    Long findMinId();
+
+    @Query("select max(s.idStudent) from Student s")
+    Long findMaxId();
 }
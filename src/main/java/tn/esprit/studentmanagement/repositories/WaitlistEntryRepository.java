@@ -0,0 +1,35 @@
+package tn.esprit.studentmanagement.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tn.esprit.studentmanagement.dto.WaitlistEntryDto;
+import tn.esprit.studentmanagement.entities.WaitlistEntry;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    String WAITLIST_DTO = "select new tn.esprit.studentmanagement.dto.WaitlistEntryDto("
+            + "w.idWaitlistEntry, w.student.idStudent, w.course.idCourse, w.requestedAt) from WaitlistEntry w ";
+
+    // Rechargement des files au démarrage, dans l'ordre d'arrivée
+    @Query(WAITLIST_DTO + "order by w.requestedAt, w.idWaitlistEntry")
+    List<WaitlistEntryDto> findAllDtosInOrder();
+
+    @Query(WAITLIST_DTO + "where w.idWaitlistEntry = :id")
+    Optional<WaitlistEntryDto> findDtoById(@Param("id") Long id);
+
+    @Query(WAITLIST_DTO + "where w.course.idCourse = :courseId and w.student.idStudent = :studentId")
+    Optional<WaitlistEntryDto> findDtoByCourseAndStudent(@Param("courseId") Long courseId,
+                                                         @Param("studentId") Long studentId);
+
+    // 0 ligne supprimée = l'entrée a déjà quitté la liste (annulation concurrente)
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.idWaitlistEntry = :id")
+    int deleteEntry(@Param("id") Long id);
+}
@@ -0,0 +1,246 @@
+package tn.esprit.studentmanagement.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.config.ReplicaRoutingDataSource;
+import tn.esprit.studentmanagement.dto.CourseGradeStatsDto;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Agrégats de notes par cours (moyenne, min, max, taux de réussite) tenus en mémoire.
+ * Construits au démarrage en un seul parcours des inscriptions (vivantes et archivées), puis mis à jour
+ * à chaque EnrollmentChangedEvent : la lecture ne fait qu'un get dans une map.
+ * La reconstruction remplit une nouvelle table puis la substitue : une écriture reçue pendant le
+ * parcours n'est pas appliquée (le parcours a pu la lire ou non), son cours est relu ensuite.
+ * Les écouteurs après commit peuvent s'exécuter dans le désordre : un retrait reçu avant l'ajout
+ * correspondant est compté en négatif, et l'ajout l'annule.
+ * <p>
+ * Une inscription compte si elle a une note et n'est ni DROPPED ni WITHDRAWN ;
+ * elle est réussie si la note atteint PASS_MARK et que le statut n'est pas FAILED.
+ */
+@Slf4j
+@Component
+public class CourseGradeStatistics {
+
+    public static final double PASS_MARK = 10.0;
+    public static final Set<Status> EXCLUDED_STATUSES = EnumSet.of(Status.DROPPED, Status.WITHDRAWN);
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final ArchivedEnrollmentRepository archivedEnrollmentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Set<Long> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile Map<Long, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    public CourseGradeStatistics(EnrollmentRepository enrollmentRepository,
+                                 ArchivedEnrollmentRepository archivedEnrollmentRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.archivedEnrollmentRepository = archivedEnrollmentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setName(ReplicaRoutingDataSource.PRIMARY_READ);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (!rebuilding.compareAndSet(false, true)) {
+                log.warn("Reconstruction des statistiques de notes déjà en cours");
+                return;
+            }
+            touchedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long start = System.currentTimeMillis();
+        Map<Long, Aggregate> fresh = new ConcurrentHashMap<>();
+        boolean complete = false;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<EnrollmentDto> live = enrollmentRepository.streamAllDtos();
+                     Stream<EnrollmentDto> archived = archivedEnrollmentRepository.streamAllDtos()) {
+                    Stream.concat(live, archived).forEach(e -> add(fresh, e));
+                }
+            });
+            complete = true;
+        } finally {
+            // ✅ substitution, relecture des cours modifiés pendant le parcours et reprise des mises à jour
+            // incrémentales sous le même verrou : aucun changement n'est appliqué entre les deux
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    aggregates = fresh;
+                }
+                drainTouched();
+                rebuilding.set(false);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Statistiques de notes construites : {} cours en {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    // ✅ après commit uniquement : un rollback ne fausse pas les agrégats
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            apply(event);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentsChanged(EnrollmentBatchChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            event.changes().forEach(this::apply);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public CourseGradeStatsDto getStats(Long courseId) {
+        Aggregate aggregate = aggregates.get(courseId);
+        return aggregate == null ? CourseGradeStatsDto.empty(courseId) : aggregate.snapshot;
+    }
+
+    // appelé sous verrou partagé : la reconstruction ne peut ni commencer ni substituer la table pendant l'application
+    private void apply(EnrollmentChangedEvent change) {
+        if (rebuilding.get()) {
+            touch(change.before());
+            touch(change.after());
+            return;
+        }
+        remove(change.before());
+        add(change.after());
+    }
+
+    void add(EnrollmentDto enrollment) {
+        add(aggregates, enrollment);
+    }
+
+    private static void add(Map<Long, Aggregate> target, EnrollmentDto enrollment) {
+        if (counts(enrollment)) {
+            target.computeIfAbsent(enrollment.courseId(), Aggregate::new).apply(enrollment, 1);
+        }
+    }
+
+    void remove(EnrollmentDto enrollment) {
+        if (counts(enrollment)) {
+            aggregates.computeIfAbsent(enrollment.courseId(), Aggregate::new).apply(enrollment, -1);
+        }
+    }
+
+    private void touch(EnrollmentDto enrollment) {
+        if (enrollment != null && enrollment.courseId() != null) {
+            touchedDuringRebuild.add(enrollment.courseId());
+        }
+    }
+
+    private void drainTouched() {
+        Iterator<Long> it = touchedDuringRebuild.iterator();
+        while (it.hasNext()) {
+            Long courseId = it.next();
+            it.remove();
+            refreshCourse(courseId);
+        }
+    }
+
+    /** Recalcule un cours à partir de la base (inscriptions vivantes et archivées). */
+    private void refreshCourse(Long courseId) {
+        Aggregate aggregate = new Aggregate(courseId);
+        readOnlyTransaction.executeWithoutResult(status -> Stream.concat(
+                        enrollmentRepository.findDtosByCourse(courseId).stream(),
+                        archivedEnrollmentRepository.findDtosByCourse(courseId).stream())
+                .filter(CourseGradeStatistics::counts)
+                .forEach(e -> aggregate.apply(e, 1)));
+        if (aggregate.count == 0) {
+            aggregates.remove(courseId);
+        } else {
+            aggregates.put(courseId, aggregate);
+        }
+    }
+
+    /** Règle partagée avec CourseLeaderboard : note présente, inscription ni abandonnée ni retirée. */
+    static boolean counts(EnrollmentDto enrollment) {
+        return enrollment != null
+                && enrollment.courseId() != null
+                && enrollment.grade() != null
+                && !EXCLUDED_STATUSES.contains(enrollment.status());
+    }
+
+    private static boolean passed(EnrollmentDto enrollment) {
+        return enrollment.grade() >= PASS_MARK && enrollment.status() != Status.FAILED;
+    }
+
+    /**
+     * Somme, effectif et réussites en O(1) ; les notes sont gardées en multiensemble trié
+     * pour que min/max restent exacts après la suppression ou la modification d'une note.
+     * Les multiplicités peuvent être négatives le temps qu'un ajout rattrape son retrait :
+     * les deltas commutent, min/max ne portent que sur les notes présentes.
+     */
+    private static final class Aggregate {
+        private final Long courseId;
+        private final TreeMap<Double, Integer> grades = new TreeMap<>();
+        private long count;
+        private double sum;
+        private long passed;
+        private volatile CourseGradeStatsDto snapshot;
+
+        Aggregate(Long courseId) {
+            this.courseId = courseId;
+            this.snapshot = CourseGradeStatsDto.empty(courseId);
+        }
+
+        synchronized void apply(EnrollmentDto enrollment, int delta) {
+            double grade = enrollment.grade();
+            grades.merge(grade, delta, (a, b) -> a + b == 0 ? null : a + b);
+            count += delta;
+            sum += delta * grade;
+            if (passed(enrollment)) {
+                passed += delta;
+            }
+            Double min = firstPresent(grades);
+            Double max = firstPresent(grades.descendingMap());
+            snapshot = count <= 0 || min == null
+                    ? CourseGradeStatsDto.empty(courseId)
+                    : new CourseGradeStatsDto(courseId, count, sum / count, min, max, (double) passed / count);
+        }
+
+        // première note de multiplicité positive : en pratique la première clé
+        private static Double firstPresent(NavigableMap<Double, Integer> grades) {
+            for (Map.Entry<Double, Integer> entry : grades.entrySet()) {
+                if (entry.getValue() > 0) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package tn.esprit.studentmanagement.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.config.ReplicaRoutingDataSource;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.LeaderboardEntryDto;
+import tn.esprit.studentmanagement.dto.StudentRankDto;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static tn.esprit.studentmanagement.services.CourseGradeStatistics.EXCLUDED_STATUSES;
+
+/**
+ * Classement des meilleures notes par cours : pour chaque cours, les app.leaderboard.capacity
+ * meilleures inscriptions (note décroissante, puis ID) dans un ensemble trié borné.
+ * Le top N et le rang d'un étudiant présent dans le top se lisent en mémoire ; au-delà,
+ * le rang est un COUNT(*) des notes supérieures, sans tri de la table.
+ * <p>
+ * Quand une inscription du top est retirée alors que des inscriptions ont été écartées
+ * (complete = false), le cours est rechargé depuis la base (une requête LIMIT capacity + 1).
+ * Seules les inscriptions de la table vivante sont classées : une inscription archivée quitte le classement.
+ * La reconstruction remplit une nouvelle table puis la substitue ; les cours modifiés pendant le
+ * parcours sont ensuite rechargés depuis la base.
+ */
+@Slf4j
+@Component
+public class CourseLeaderboard {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int capacity;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Set<Long> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile Map<Long, Board> boards = new ConcurrentHashMap<>();
+
+    public CourseLeaderboard(EnrollmentRepository enrollmentRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.leaderboard.capacity:100}") int capacity) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setName(ReplicaRoutingDataSource.PRIMARY_READ);
+        this.capacity = Math.max(1, capacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.warn("Reconstruction des classements déjà en cours");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            touchedDuringRebuild.clear();
+            Map<Long, Board> fresh = new ConcurrentHashMap<>();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<EnrollmentDto> all = enrollmentRepository.streamAllDtos()) {
+                    all.filter(CourseGradeStatistics::counts)
+                            .forEach(e -> fresh.computeIfAbsent(e.courseId(), id -> new Board()).offer(Entry.of(e)));
+                }
+            });
+            boards = fresh;
+            // ✅ cours modifiés pendant le parcours : rechargés sur la nouvelle table
+            drainTouched();
+            log.info("Classements construits : {} cours en {} ms", fresh.size(), System.currentTimeMillis() - start);
+        } finally {
+            rebuilding.set(false);
+            drainTouched();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        EnrollmentDto before = event.before();
+        EnrollmentDto after = event.after();
+        if (rebuilding.get()) {
+            touch(before);
+            touch(after);
+            return;
+        }
+        if (CourseGradeStatistics.counts(before)) {
+            Board board = board(before.courseId());
+            synchronized (board) {
+                if (board.remove(before.idEnrollment()) && !board.complete) {
+                    // ✅ la base contient déjà le nouvel état (après commit) : le rechargement le prend en compte
+                    refill(before.courseId(), board);
+                    if (CourseGradeStatistics.counts(after) && after.courseId().equals(before.courseId())) {
+                        return;
+                    }
+                }
+            }
+        }
+        if (CourseGradeStatistics.counts(after)) {
+            board(after.courseId()).offer(Entry.of(after));
+        }
+    }
+
+    // ✅ saisie en masse : retraits et ajouts appliqués d'abord, puis au plus un rechargement par cours
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentsChanged(EnrollmentBatchChangedEvent event) {
+        if (rebuilding.get()) {
+            event.changes().forEach(change -> {
+                touch(change.before());
+                touch(change.after());
+            });
+            return;
+        }
+        Set<Long> toRefill = new HashSet<>();
+        for (EnrollmentChangedEvent change : event.changes()) {
+            EnrollmentDto before = change.before();
+            EnrollmentDto after = change.after();
+            if (CourseGradeStatistics.counts(before)) {
+                Board board = board(before.courseId());
+                if (board.remove(before.idEnrollment()) && !board.complete) {
+                    toRefill.add(before.courseId());
+                }
+            }
+            if (CourseGradeStatistics.counts(after)) {
+                board(after.courseId()).offer(Entry.of(after));
+            }
+        }
+        for (Long courseId : toRefill) {
+            Board board = board(courseId);
+            synchronized (board) {
+                // la base contient déjà tout le lot (après commit) : les ajouts ci-dessus y sont inclus
+                refill(courseId, board);
+            }
+        }
+    }
+
+    // ✅ bloc archivé : un seul rechargement par cours, quel que soit le nombre d'inscriptions retirées
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentsArchived(EnrollmentsArchivedEvent event) {
+        if (rebuilding.get()) {
+            event.archived().forEach(this::touch);
+            return;
+        }
+        Map<Long, List<Long>> byCourse = new HashMap<>();
+        for (EnrollmentDto archived : event.archived()) {
+            if (CourseGradeStatistics.counts(archived)) {
+                byCourse.computeIfAbsent(archived.courseId(), id -> new ArrayList<>()).add(archived.idEnrollment());
+            }
+        }
+        byCourse.forEach((courseId, enrollmentIds) -> {
+            Board board = boards.get(courseId);
+            if (board == null) {
+                return;
+            }
+            synchronized (board) {
+                boolean removed = false;
+                for (Long enrollmentId : enrollmentIds) {
+                    removed |= board.remove(enrollmentId);
+                }
+                if (removed && !board.complete) {
+                    refill(courseId, board);
+                }
+            }
+        });
+    }
+
+    public List<LeaderboardEntryDto> top(Long courseId, int limit) {
+        Board board = boards.get(courseId);
+        if (board == null) {
+            return List.of();
+        }
+        List<Entry> entries = board.snapshot;
+        int max = Math.min(entries.size(), Math.max(1, Math.min(limit, capacity)));
+        List<LeaderboardEntryDto> result = new ArrayList<>(max);
+        int rank = 0;
+        for (int i = 0; i < max; i++) {
+            Entry entry = entries.get(i);
+            if (i == 0 || entry.grade() < entries.get(i - 1).grade()) {
+                rank = i + 1;
+            }
+            result.add(new LeaderboardEntryDto(rank, entry.enrollmentId(), entry.studentId(), entry.grade()));
+        }
+        return result;
+    }
+
+    public StudentRankDto rankOf(Long courseId, Long studentId) {
+        Board board = boards.get(courseId);
+        if (board == null) {
+            return new StudentRankDto(courseId, studentId, null, null);
+        }
+        List<Entry> entries = board.snapshot;
+        int rank = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (i == 0 || entry.grade() < entries.get(i - 1).grade()) {
+                rank = i + 1;
+            }
+            if (entry.studentId() != null && entry.studentId().equals(studentId)) {
+                return new StudentRankDto(courseId, studentId, (long) rank, entry.grade());
+            }
+        }
+        if (board.complete) {
+            return new StudentRankDto(courseId, studentId, null, null);
+        }
+        Double grade = enrollmentRepository.findBestRankedGrade(courseId, studentId, EXCLUDED_STATUSES);
+        if (grade == null) {
+            return new StudentRankDto(courseId, studentId, null, null);
+        }
+        long above = enrollmentRepository.countRankedAbove(courseId, grade, EXCLUDED_STATUSES);
+        return new StudentRankDto(courseId, studentId, above + 1, grade);
+    }
+
+    private Board board(Long courseId) {
+        return boards.computeIfAbsent(courseId, id -> new Board());
+    }
+
+    private void touch(EnrollmentDto enrollment) {
+        if (enrollment != null && enrollment.courseId() != null) {
+            touchedDuringRebuild.add(enrollment.courseId());
+        }
+    }
+
+    private void drainTouched() {
+        Iterator<Long> it = touchedDuringRebuild.iterator();
+        while (it.hasNext()) {
+            Long courseId = it.next();
+            it.remove();
+            Board board = new Board();
+            readOnlyTransaction.executeWithoutResult(status -> refill(courseId, board));
+            if (board.snapshot.isEmpty()) {
+                boards.remove(courseId);
+            } else {
+                boards.put(courseId, board);
+            }
+        }
+    }
+
+    private void refill(Long courseId, Board board) {
+        List<EnrollmentDto> best = enrollmentRepository.findRankedByCourse(courseId, EXCLUDED_STATUSES, Limit.of(capacity + 1));
+        board.reset(best.stream().limit(capacity).map(Entry::of).toList(), best.size() <= capacity);
+    }
+
+    record Entry(Long enrollmentId, Long studentId, double grade) {
+        static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::grade).reversed()
+                .thenComparing(Entry::enrollmentId);
+
+        static Entry of(EnrollmentDto enrollment) {
+            return new Entry(enrollment.idEnrollment(), enrollment.studentId(), enrollment.grade());
+        }
+    }
+
+    /** Top d'un cours ; snapshot est une copie immuable republiée à chaque modification. */
+    private final class Board {
+        private final TreeSet<Entry> entries = new TreeSet<>(Entry.ORDER);
+        private final Map<Long, Entry> byEnrollment = new HashMap<>();
+        // true tant qu'aucune inscription classable n'a été écartée faute de place
+        private volatile boolean complete = true;
+        private volatile List<Entry> snapshot = List.of();
+
+        synchronized void offer(Entry entry) {
+            remove(entry.enrollmentId());
+            if (entries.size() >= capacity && Entry.ORDER.compare(entry, entries.last()) > 0) {
+                complete = false;
+                publish();
+                return;
+            }
+            entries.add(entry);
+            byEnrollment.put(entry.enrollmentId(), entry);
+            if (entries.size() > capacity) {
+                byEnrollment.remove(entries.pollLast().enrollmentId());
+                complete = false;
+            }
+            publish();
+        }
+
+        synchronized boolean remove(Long enrollmentId) {
+            Entry previous = byEnrollment.remove(enrollmentId);
+            if (previous == null) {
+                return false;
+            }
+            entries.remove(previous);
+            publish();
+            return true;
+        }
+
+        synchronized void reset(List<Entry> best, boolean complete) {
+            entries.clear();
+            byEnrollment.clear();
+            for (Entry entry : best) {
+                entries.add(entry);
+                byEnrollment.put(entry.enrollmentId(), entry);
+            }
+            this.complete = complete;
+            publish();
+        }
+
+        private void publish() {
+            snapshot = List.copyOf(entries);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package tn.esprit.studentmanagement.services;
+
+import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.dto.CourseDto;
+import tn.esprit.studentmanagement.dto.CourseGradeStatsDto;
+import tn.esprit.studentmanagement.dto.CourseSeatsDto;
+import tn.esprit.studentmanagement.dto.GradeDistributionDto;
+import tn.esprit.studentmanagement.dto.LeaderboardEntryDto;
+import tn.esprit.studentmanagement.dto.StudentRankDto;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+public class CourseService implements ICourseService {
+
+    private final CourseRepository courseRepository;
+    private final CourseGradeStatistics courseGradeStatistics;
+    private final CourseLeaderboard courseLeaderboard;
+    private final GradeDistributions gradeDistributions;
+
+    @Override
+    public List<Course> getAllCourses() {
+        return courseRepository.findAll();
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.COURSE_LIST, key = "'all'")
+    public List<CourseDto> getAllCourseDtos() {
+        return courseRepository.findAllDtos();
+    }
+
+    @Override
+    public Course getCourseById(Long idCourse) {
+        return courseRepository.findById(idCourse).orElse(null);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.COURSES, key = "#idCourse", unless = "#result == null")
+    public CourseDto getCourseDtoById(Long idCourse) {
+        return courseRepository.findDtoById(idCourse).orElse(null);
+    }
+
+    @Override
+    public CourseGradeStatsDto getCourseStats(Long idCourse) {
+        return courseGradeStatistics.getStats(idCourse);
+    }
+
+    @Override
+    public CourseSeatsDto getCourseSeats(Long idCourse) {
+        return courseRepository.findSeatsById(idCourse).orElse(null);
+    }
+
+    @Override
+    public List<LeaderboardEntryDto> getLeaderboard(Long idCourse, int limit) {
+        return courseLeaderboard.top(idCourse, limit);
+    }
+
+    @Override
+    public StudentRankDto getStudentRank(Long idCourse, Long idStudent) {
+        return courseLeaderboard.rankOf(idCourse, idStudent);
+    }
+
+    @Override
+    public GradeDistributionDto getGradeDistribution(Long idCourse) {
+        return gradeDistributions.forCourse(idCourse);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSES, key = "#course.idCourse",
+                    condition = "#course.idCourse != null"),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LIST, allEntries = true)
+    })
+    public Course saveCourse(Course course) {
+        return courseRepository.save(course);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.COURSES, key = "#idCourse"),
+            @CacheEvict(cacheNames = CacheConfig.COURSE_LIST, allEntries = true)
+    })
+    public void deleteCourse(Long idCourse) {
+        courseRepository.deleteById(idCourse);
+    }
+}
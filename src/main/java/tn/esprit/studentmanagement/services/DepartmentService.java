@@ -1,35 +1,112 @@
 package tn.esprit.studentmanagement.services;
 
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.DepartmentDto;
+import tn.esprit.studentmanagement.dto.DepartmentRollupDto;
+import tn.esprit.studentmanagement.dto.DepartmentStatusTotals;
+import tn.esprit.studentmanagement.dto.GradeDistributionDto;
 import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
 import tn.esprit.studentmanagement.repositories.DepartmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor // ✅ Injection propre par constructeur
 public class DepartmentService implements IDepartmentService {
 
     private final DepartmentRepository departmentRepository; // ✅ plus d'@Autowired, champ final
+    private final EnrollmentRepository enrollmentRepository;
+    private final ArchivedEnrollmentRepository archivedEnrollmentRepository;
+    private final GradeDistributions gradeDistributions;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Department> getAllDepartments() {
         return departmentRepository.findAll();
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.DEPARTMENT_LIST, key = "'all'")
+    public List<DepartmentDto> getAllDepartmentDtos() {
+        return departmentRepository.findAllDtos();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<DepartmentDto> getDepartmentsPage(String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<DepartmentDto> fetched = departmentRepository.findDtosAfter(
+                CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(fetched, pageSize, DepartmentDto::idDepartment);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Department getDepartmentById(Long idDepartment) {
         // ✅ évite le crash si l’ID n’existe pas
         return departmentRepository.findById(idDepartment).orElse(null);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.DEPARTMENTS, key = "#idDepartment", unless = "#result == null")
+    public DepartmentDto getDepartmentDtoById(Long idDepartment) {
+        return departmentRepository.findDtoById(idDepartment).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BatchGetItem<DepartmentDto>> getDepartmentsByIds(List<Long> ids) {
+        return BatchGetItem.resolve(ids, departmentRepository::findDtosByIdIn, DepartmentDto::idDepartment);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DepartmentRollupDto> getDepartmentRollup() {
+        // ✅ requêtes GROUP BY (inscriptions vivantes, archivées, effectifs), fusionnées en mémoire par département
+        Map<Long, List<DepartmentStatusTotals>> totals = Stream.concat(
+                        enrollmentRepository.totalsByDepartmentAndStatus().stream(),
+                        archivedEnrollmentRepository.totalsByDepartmentAndStatus().stream())
+                .collect(Collectors.groupingBy(DepartmentStatusTotals::departmentId));
+        return departmentRepository.countStudentsByDepartment().stream()
+                .map(students -> DepartmentRollupDto.of(students,
+                        totals.getOrDefault(students.departmentId(), List.of())))
+                .toList();
+    }
+
+    @Override
+    public GradeDistributionDto getGradeDistribution(Long idDepartment) {
+        return gradeDistributions.forDepartment(idDepartment);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, key = "#department.idDepartment",
+                    condition = "#department.idDepartment != null"),
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENT_LIST, allEntries = true)
+    })
     public Department saveDepartment(Department department) {
         return departmentRepository.save(department);
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, key = "#idDepartment"),
+            @CacheEvict(cacheNames = CacheConfig.DEPARTMENT_LIST, allEntries = true)
+    })
     public void deleteDepartment(Long idDepartment) {
         departmentRepository.deleteById(idDepartment);
     }
@@ -0,0 +1,173 @@
+package tn.esprit.studentmanagement.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Archivage des inscriptions clôturées (COMPLETED, FAILED, WITHDRAWN) dont la date
+ * d'inscription précède la date limite (aujourd'hui - app.enrollment.archive.retention) :
+ * elles passent de la table vivante à enrollment_archive, ID conservé.
+ * <ul>
+ *   <li>Par blocs de app.enrollment.archive.batch-size, parcourus par ID croissant (keyset) :
+ *   sélection verrouillée, copie INSERT ... SELECT et suppression des lignes copiées dans une même
+ *   transaction, sur la plage d'ID du bloc.</li>
+ *   <li>Reprise sans état : un passage interrompu (arrêt, erreur) laisse des blocs entiers
+ *   déplacés ; les lignes restantes sont reprises au passage suivant.</li>
+ *   <li>Pause de app.enrollment.archive.pause entre deux blocs : verrous et réplication
+ *   restent courts pour le trafic vivant.</li>
+ * </ul>
+ * Les lectures courantes ne voient que la table vivante ; relevé, moyennes, statistiques de
+ * notes et synthèse des départements lisent les deux tables.
+ * Métriques : enrollment.archive.rows, enrollment.archive.batch.
+ */
+@Slf4j
+@Service
+public class EnrollmentArchiver {
+
+    public static final Set<Status> ARCHIVABLE_STATUSES = EnumSet.of(Status.COMPLETED, Status.FAILED, Status.WITHDRAWN);
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final ArchivedEnrollmentRepository archivedEnrollmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache enrollmentCache;
+    private final TransactionTemplate transaction;
+    private final Period retention;
+    private final int batchSize;
+    private final Duration pause;
+
+    private final Counter archivedRows;
+    private final Timer batchTimer;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopping;
+
+    public EnrollmentArchiver(EnrollmentRepository enrollmentRepository,
+                              ArchivedEnrollmentRepository archivedEnrollmentRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              CacheManager cacheManager,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.enrollment.archive.retention:P1Y}") Period retention,
+                              @Value("${app.enrollment.archive.batch-size:500}") int batchSize,
+                              @Value("${app.enrollment.archive.pause:100ms}") Duration pause) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.archivedEnrollmentRepository = archivedEnrollmentRepository;
+        this.eventPublisher = eventPublisher;
+        this.enrollmentCache = cacheManager.getCache(CacheConfig.ENROLLMENTS);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = Math.max(1, batchSize);
+        this.pause = pause;
+
+        this.archivedRows = Counter.builder("enrollment.archive.rows")
+                .description("Inscriptions déplacées vers la table d'archive").register(meterRegistry);
+        this.batchTimer = Timer.builder("enrollment.archive.batch")
+                .description("Durée de déplacement d'un bloc").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.enrollment.archive.cron:0 30 3 * * *}")
+    public void archiveExpired() {
+        archiveBefore(LocalDate.now().minus(retention));
+    }
+
+    /**
+     * Déplace toutes les inscriptions archivables antérieures à cutoff ;
+     * retourne le nombre de lignes déplacées (0 si un passage est déjà en cours).
+     */
+    public long archiveBefore(LocalDate cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Archivage déjà en cours : passage ignoré");
+            return 0;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long total = 0;
+            Long after = 0L;
+            while (!stopping) {
+                Long cursor = after;
+                List<Long> moved = batchTimer.record(() -> transaction.execute(status -> moveBatch(cursor, cutoff)));
+                if (moved == null || moved.isEmpty()) {
+                    break;
+                }
+                total += moved.size();
+                archivedRows.increment(moved.size());
+                after = moved.get(moved.size() - 1);
+                if (moved.size() < batchSize || !sleepBetweenBatches()) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.info("Archivage : {} inscriptions antérieures au {} déplacées en {} ms",
+                        total, cutoff, System.currentTimeMillis() - start);
+            }
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private List<Long> moveBatch(Long after, LocalDate cutoff) {
+        List<Long> ids = enrollmentRepository.findArchivableIds(after, ARCHIVABLE_STATUSES, cutoff, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        Long last = ids.get(ids.size() - 1);
+        List<EnrollmentDto> archived = enrollmentRepository.findArchivableDtos(after, last, ARCHIVABLE_STATUSES, cutoff);
+        int copied = archivedEnrollmentRepository.copyFromLive(after, last, ARCHIVABLE_STATUSES, cutoff);
+        int deleted = enrollmentRepository.deleteArchived(after, last);
+        if (copied != ids.size() || deleted != copied) {
+            // Ligne apparue dans la plage entre deux requêtes : seules les lignes copiées ont été supprimées
+            log.warn("Bloc ]{}, {}] : {} lignes verrouillées, {} copiées, {} supprimées", after, last, ids.size(), copied, deleted);
+        }
+        // ✅ cache transactionnel : les fiches ne sont retirées qu'au commit du bloc
+        if (enrollmentCache != null) {
+            ids.forEach(enrollmentCache::evict);
+        }
+        eventPublisher.publishEvent(new EnrollmentsArchivedEvent(archived));
+        return ids;
+    }
+
+    private boolean sleepBetweenBatches() {
+        if (pause.isZero() || pause.isNegative()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // ✅ le bloc en cours se termine (une transaction), les suivants attendront le prochain passage
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+    }
+}
@@ -0,0 +1,11 @@
+package tn.esprit.studentmanagement.services;
+
+import java.util.List;
+
+/**
+ * Publié une seule fois pour une écriture en masse (saisie de notes) : mêmes changements
+ * que des EnrollmentChangedEvent successifs, mais les écouteurs qui relisent la base
+ * peuvent regrouper leurs requêtes.
+ */
+public record EnrollmentBatchChangedEvent(List<EnrollmentChangedEvent> changes) {
+}
@@ -0,0 +1,11 @@
+package tn.esprit.studentmanagement.services;
+
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+
+/**
+ * Publié par EnrollmentService à chaque écriture : before est null pour une création,
+ * after est null pour une suppression. Les agrégats en mémoire retirent l'ancien état
+ * puis ajoutent le nouveau, ce qui couvre aussi un changement de note ou de cours.
+ */
+public record EnrollmentChangedEvent(EnrollmentDto before, EnrollmentDto after) {
+}
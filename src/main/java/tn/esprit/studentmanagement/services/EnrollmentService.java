@@ -1,36 +1,247 @@
 package tn.esprit.studentmanagement.services;
 
 import lombok.AllArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.BulkItemResult;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.GradeUpdate;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.exceptions.BulkLimitExceededException;
+import tn.esprit.studentmanagement.exceptions.CourseFullException;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
 import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
 import tn.esprit.studentmanagement.entities.Enrollment;
 
-import java.util.List;
+import java.util.*;
 
 @Service
 @AllArgsConstructor // ✅ Lombok crée un constructeur pour injection
 public class EnrollmentService implements IEnrollment {
 
+    public static final int MAX_GRADE_BATCH = 5000;
+
+    // Saisie de notes en masse : seules les colonnes modifiées sont écrites
+    private static final String UPDATE_GRADE = "UPDATE enrollment SET grade = ? WHERE id_enrollment = ?";
+    private static final String UPDATE_STATUS = "UPDATE enrollment SET status = ? WHERE id_enrollment = ?";
+    private static final String UPDATE_GRADE_AND_STATUS =
+            "UPDATE enrollment SET grade = ?, status = ? WHERE id_enrollment = ?";
+
     private final EnrollmentRepository enrollmentRepository; // ✅ final + sans @Autowired
+    private final ApplicationEventPublisher eventPublisher;
+    private final CourseRepository courseRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Enrollment> getAllEnrollments() {
         return enrollmentRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<EnrollmentDto> getAllEnrollmentDtos() {
+        return enrollmentRepository.findAllDtos();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<EnrollmentDto> getEnrollmentsPage(String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<EnrollmentDto> fetched = enrollmentRepository.findDtosAfter(
+                CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(fetched, pageSize, EnrollmentDto::idEnrollment);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Enrollment getEnrollmentById(Long idEnrollment) {
         // ✅ meilleure pratique : orElse(null) pour éviter NoSuchElementException
         return enrollmentRepository.findById(idEnrollment).orElse(null);
     }
 
     @Override
+    // ✅ lecture traversante synchronisée : les ID inconnus (null) ne sont pas mis en cache (voir CacheConfig)
+    @Cacheable(cacheNames = CacheConfig.ENROLLMENTS, key = "#idEnrollment", sync = true)
+    public EnrollmentDto getEnrollmentDtoById(Long idEnrollment) {
+        return enrollmentRepository.findDtoById(idEnrollment).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BatchGetItem<EnrollmentDto>> getEnrollmentsByIds(List<Long> ids) {
+        return BatchGetItem.resolve(ids, enrollmentRepository::findDtosByIdIn, EnrollmentDto::idEnrollment);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, key = "#enrollment.idEnrollment",
+            condition = "#enrollment.idEnrollment != null")
+    @Transactional
     public Enrollment saveEnrollment(Enrollment enrollment) {
-        return enrollmentRepository.save(enrollment);
+        // ✅ état précédent lu avant l'écriture, sous verrou : les agrégats retirent l'ancienne note et
+        // une écriture concurrente de la même inscription attend, puis voit le nouvel état
+        EnrollmentDto before = enrollment.getIdEnrollment() == null ? null
+                : enrollmentRepository.findDtoByIdForUpdate(enrollment.getIdEnrollment()).orElse(null);
+        // ✅ place réservée avant l'INSERT : le verrou exclusif sur la ligne du cours est pris en premier
+        // (l'INSERT prendrait sinon un verrou partagé de clé étrangère, source d'interblocages)
+        moveSeat(before, EnrollmentDto.from(enrollment));
+        Enrollment saved = enrollmentRepository.save(enrollment);
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(before, EnrollmentDto.from(saved)));
+        return saved;
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.ENROLLMENTS, key = "#idEnrollment")
+    @Transactional
     public void deleteEnrollment(Long idEnrollment) {
+        EnrollmentDto before = enrollmentRepository.findDtoByIdForUpdate(idEnrollment).orElse(null);
+        moveSeat(before, null);
         enrollmentRepository.deleteById(idEnrollment);
+        if (before != null) {
+            eventPublisher.publishEvent(new EnrollmentChangedEvent(before, null));
+        }
+    }
+
+    /**
+     * Saisie de notes d'un cours en une transaction : les inscriptions sont lues par blocs
+     * (SELECT ... IN), puis écrites par UPDATE JDBC groupés en batch, limités aux colonnes
+     * qui changent. Les places, les agrégats (un EnrollmentBatchChangedEvent pour tout le lot)
+     * et le cache sont tenus à jour comme pour saveEnrollment. Résultat par ligne, dans l'ordre
+     * de la requête.
+     */
+    @Override
+    @Transactional
+    public List<BulkItemResult> postGrades(Long courseId, List<GradeUpdate> updates) {
+        if (updates.size() > MAX_GRADE_BATCH) {
+            throw new BulkLimitExceededException(updates.size(), MAX_GRADE_BATCH);
+        }
+        Map<Long, EnrollmentDto> current = new HashMap<>();
+        List<Long> ids = updates.stream()
+                .filter(Objects::nonNull)
+                .map(GradeUpdate::idEnrollment)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted() // ✅ verrous pris dans l'ordre des ID : pas d'interblocage entre deux saisies
+                .toList();
+        // ✅ lignes verrouillées jusqu'au commit : les places sont déplacées d'après un état qui ne bouge plus
+        for (int from = 0; from < ids.size(); from += BatchGetItem.CHUNK_SIZE) {
+            enrollmentRepository.findDtosByIdInForUpdate(ids.subList(from, Math.min(from + BatchGetItem.CHUNK_SIZE, ids.size())))
+                    .forEach(dto -> current.put(dto.idEnrollment(), dto));
+        }
+
+        BulkItemResult[] results = new BulkItemResult[updates.size()];
+        List<GradeChange> changes = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < updates.size(); i++) {
+            GradeUpdate update = updates.get(i);
+            Long id = update == null ? null : update.idEnrollment();
+            EnrollmentDto before = id == null ? null : current.get(id);
+            if (before == null || !courseId.equals(before.courseId())) {
+                results[i] = BulkItemResult.rejected(i, id, "Inscription introuvable dans ce cours");
+            } else if (!seen.add(id)) {
+                results[i] = BulkItemResult.rejected(i, id, "Inscription en double dans la requête");
+            } else if (!update.hasValidGrade()) {
+                results[i] = BulkItemResult.rejected(i, id,
+                        "Note hors de [" + GradeUpdate.MIN_GRADE + ", " + GradeUpdate.MAX_GRADE + "]");
+            } else {
+                EnrollmentDto after = new EnrollmentDto(id, before.enrollmentDate(),
+                        update.grade() != null ? update.grade() : before.grade(),
+                        update.status() != null ? update.status() : before.status(),
+                        before.studentId(), before.courseId());
+                if (after.equals(before)) {
+                    results[i] = new BulkItemResult(i, id, BulkItemResult.Outcome.UNCHANGED, null);
+                } else {
+                    changes.add(new GradeChange(i, before, after));
+                }
+            }
+        }
+
+        // ✅ places : libérations en un seul UPDATE, puis réservations conditionnelles une à une
+        int released = (int) changes.stream().filter(c -> holdsSeat(c.before()) && !holdsSeat(c.after())).count();
+        if (released > 0) {
+            courseRepository.releaseSeats(courseId, released);
+        }
+        List<Object[]> gradeOnly = new ArrayList<>();
+        List<Object[]> statusOnly = new ArrayList<>();
+        List<Object[]> gradeAndStatus = new ArrayList<>();
+        List<GradeChange> applied = new ArrayList<>(changes.size());
+        for (GradeChange change : changes) {
+            EnrollmentDto before = change.before();
+            EnrollmentDto after = change.after();
+            if (!holdsSeat(before) && holdsSeat(after) && courseRepository.reserveSeat(courseId) == 0) {
+                results[change.index()] = BulkItemResult.rejected(change.index(), after.idEnrollment(),
+                        "Plus de place disponible dans le cours " + courseId);
+                continue;
+            }
+            boolean gradeChanged = !Objects.equals(before.grade(), after.grade());
+            boolean statusChanged = before.status() != after.status();
+            String status = after.status() == null ? null : after.status().name();
+            if (gradeChanged && statusChanged) {
+                gradeAndStatus.add(new Object[]{after.grade(), status, after.idEnrollment()});
+            } else if (gradeChanged) {
+                gradeOnly.add(new Object[]{after.grade(), after.idEnrollment()});
+            } else {
+                statusOnly.add(new Object[]{status, after.idEnrollment()});
+            }
+            applied.add(change);
+            results[change.index()] = new BulkItemResult(change.index(), after.idEnrollment(),
+                    BulkItemResult.Outcome.UPDATED, null);
+        }
+        batchUpdate(UPDATE_GRADE, gradeOnly);
+        batchUpdate(UPDATE_STATUS, statusOnly);
+        batchUpdate(UPDATE_GRADE_AND_STATUS, gradeAndStatus);
+
+        Cache cache = cacheManager.getCache(CacheConfig.ENROLLMENTS);
+        List<EnrollmentChangedEvent> events = new ArrayList<>(applied.size());
+        for (GradeChange change : applied) {
+            if (cache != null) {
+                cache.evict(change.after().idEnrollment());
+            }
+            events.add(new EnrollmentChangedEvent(change.before(), change.after()));
+        }
+        if (!events.isEmpty()) {
+            // ✅ un seul événement : les écouteurs regroupent leurs relectures en base
+            eventPublisher.publishEvent(new EnrollmentBatchChangedEvent(events));
+        }
+        return Arrays.asList(results);
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private record GradeChange(int index, EnrollmentDto before, EnrollmentDto after) {
+    }
+
+    /** Une inscription ACTIVE occupe une place dans son cours. */
+    static boolean holdsSeat(EnrollmentDto enrollment) {
+        return enrollment != null && enrollment.courseId() != null && enrollment.status() == Status.ACTIVE;
+    }
+
+    private void moveSeat(EnrollmentDto before, EnrollmentDto after) {
+        Long from = holdsSeat(before) ? before.courseId() : null;
+        Long to = holdsSeat(after) ? after.courseId() : null;
+        if (Objects.equals(from, to)) {
+            return;
+        }
+        if (to != null && courseRepository.reserveSeat(to) == 0) {
+            throw new CourseFullException(to);
+        }
+        if (from != null) {
+            courseRepository.releaseSeat(from);
+        }
     }
 }
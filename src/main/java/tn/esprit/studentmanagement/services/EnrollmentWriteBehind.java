@@ -0,0 +1,217 @@
+package tn.esprit.studentmanagement.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.WriteTicketDto;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.exceptions.WriteQueueFullException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Écriture différée (write-behind) des inscriptions, en option à côté de l'écriture synchrone :
+ * les demandes entrent dans une file bornée et un thread unique les enregistre par groupes,
+ * une transaction (donc un commit) par groupe au lieu d'une par demande.
+ * <ul>
+ *   <li>Chaque demande passe par EnrollmentService.saveEnrollment : réservation de place,
+ *   événements et invalidation du cache sont inchangés.</li>
+ *   <li>Si le groupe échoue (cours complet...), ses demandes sont rejouées une à une pour
+ *   que seule la demande fautive échoue.</li>
+ *   <li>File pleine : WriteQueueFullException (503), l'appelant réessaie plus tard.</li>
+ *   <li>À l'arrêt, les demandes déjà acceptées sont enregistrées avant la fermeture de la base.</li>
+ * </ul>
+ * Métriques : enrollment.writebehind.queue.depth, enrollment.writebehind.batch.size,
+ * enrollment.writebehind.flush, enrollment.writebehind.rejected.
+ */
+@Slf4j
+@Service
+public class EnrollmentWriteBehind implements IEnrollmentWriteQueue {
+
+    private final IEnrollment enrollmentService;
+    private final TransactionTemplate transaction;
+    private final BlockingQueue<PendingWrite> queue;
+    private final int batchSize;
+    private final Duration shutdownTimeout;
+    private final ExecutorService flusher;
+    private final Cache<String, CompletableFuture<EnrollmentDto>> tickets;
+
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+    private final Counter rejected;
+
+    private volatile boolean closed;
+
+    @Autowired
+    public EnrollmentWriteBehind(IEnrollment enrollmentService,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.enrollment.write-behind.capacity:10000}") int capacity,
+                                 @Value("${app.enrollment.write-behind.batch-size:100}") int batchSize,
+                                 @Value("${app.enrollment.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout,
+                                 @Value("${app.enrollment.write-behind.ticket-retention:10m}") Duration ticketRetention) {
+        this(enrollmentService, transactionManager, meterRegistry, new ArrayBlockingQueue<>(Math.max(1, capacity)),
+                batchSize, shutdownTimeout, ticketRetention);
+    }
+
+    // File fournie par les tests (entrelacements avec l'arrêt)
+    EnrollmentWriteBehind(IEnrollment enrollmentService,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          BlockingQueue<PendingWrite> queue,
+                          int batchSize,
+                          Duration shutdownTimeout,
+                          Duration ticketRetention) {
+        this.enrollmentService = enrollmentService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.queue = queue;
+        this.batchSize = Math.max(1, batchSize);
+        this.shutdownTimeout = shutdownTimeout;
+        this.tickets = Caffeine.newBuilder().expireAfterWrite(ticketRetention).build();
+
+        Gauge.builder("enrollment.writebehind.queue.depth", queue, BlockingQueue::size)
+                .description("Demandes d'inscription en attente d'écriture").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("enrollment.writebehind.batch.size")
+                .description("Demandes enregistrées par transaction").register(meterRegistry);
+        this.flushTimer = Timer.builder("enrollment.writebehind.flush")
+                .description("Durée d'écriture d'un groupe").register(meterRegistry);
+        this.rejected = Counter.builder("enrollment.writebehind.rejected")
+                .description("Demandes refusées, file pleine ou arrêt en cours").register(meterRegistry);
+
+        this.flusher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "enrollment-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.execute(this::runFlusher);
+    }
+
+    @Override
+    public WriteTicketDto submitEnrollment(Enrollment enrollment) {
+        String trackingId = UUID.randomUUID().toString();
+        CompletableFuture<EnrollmentDto> result = enqueue(enrollment);
+        tickets.put(trackingId, result);
+        return WriteTicketDto.of(trackingId, result);
+    }
+
+    @Override
+    public WriteTicketDto getWriteTicket(String trackingId) {
+        CompletableFuture<EnrollmentDto> result = tickets.getIfPresent(trackingId);
+        return result == null ? null : WriteTicketDto.of(trackingId, result);
+    }
+
+    /** Met la demande en file ; le futur est complété après le commit de son groupe. */
+    public CompletableFuture<EnrollmentDto> enqueue(Enrollment enrollment) {
+        PendingWrite write = new PendingWrite(enrollment, enrollment.getIdEnrollment(), new CompletableFuture<>());
+        if (closed || !queue.offer(write)) {
+            rejected.increment();
+            throw new WriteQueueFullException(closed ? "Arrêt en cours : écriture refusée"
+                    : "File d'écriture pleine (" + queue.size() + " demandes en attente)");
+        }
+        // ✅ arrêt commencé entre le test et l'offer : le flusher et la vidange finale ont pu passer avant.
+        // Si la demande est encore en file, on la reprend et on la refuse ; sinon l'un d'eux l'a prise
+        // et complétera son futur
+        if (closed && queue.remove(write)) {
+            rejected.increment();
+            throw new WriteQueueFullException("Arrêt en cours : écriture refusée");
+        }
+        return write.result();
+    }
+
+    int queueDepth() {
+        return queue.size();
+    }
+
+    private void runFlusher() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (true) {
+            PendingWrite first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            // ✅ mesuré avant le flush : les demandeurs réveillés voient déjà la métrique à jour
+            batchSizes.record(batch.size());
+            flushTimer.record(() -> flush(batch));
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<EnrollmentDto> saved;
+        try {
+            saved = transaction.execute(status -> {
+                List<EnrollmentDto> dtos = new ArrayList<>(batch.size());
+                for (PendingWrite write : batch) {
+                    dtos.add(EnrollmentDto.from(enrollmentService.saveEnrollment(write.enrollment())));
+                }
+                return dtos;
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            // ✅ groupe annulé : rejeu individuel, seule la demande fautive échoue
+            for (PendingWrite write : batch) {
+                write.restore();
+                flush(List.of(write));
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(saved.get(i));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        closed = true;
+        flusher.shutdown();
+        if (!flusher.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            flusher.shutdownNow();
+        }
+        List<PendingWrite> lost = new ArrayList<>();
+        queue.drainTo(lost);
+        for (PendingWrite write : lost) {
+            write.result().completeExceptionally(new WriteQueueFullException("Arrêt : écriture non effectuée"));
+        }
+        if (!lost.isEmpty()) {
+            log.error("{} inscriptions en file non écrites à l'arrêt", lost.size());
+        }
+    }
+
+    record PendingWrite(Enrollment enrollment, Long originalId, CompletableFuture<EnrollmentDto> result) {
+
+        /** Après rollback : l'ID éventuellement attribué par l'INSERT annulé n'existe pas en base. */
+        void restore() {
+            enrollment.setIdEnrollment(originalId);
+        }
+    }
+}
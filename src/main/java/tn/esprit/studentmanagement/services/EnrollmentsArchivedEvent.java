@@ -0,0 +1,13 @@
+package tn.esprit.studentmanagement.services;
+
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+
+import java.util.List;
+
+/**
+ * Publié par EnrollmentArchiver pour chaque bloc déplacé vers la table d'archive.
+ * Ce n'est pas une suppression : les vues historiques (moyennes, statistiques de notes)
+ * lisent les deux tables et ne changent pas ; seules les vues de la table vivante l'écoutent.
+ */
+public record EnrollmentsArchivedEvent(List<EnrollmentDto> archived) {
+}
@@ -0,0 +1,244 @@
+package tn.esprit.studentmanagement.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.config.ReplicaRoutingDataSource;
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.GpaTotals;
+import tn.esprit.studentmanagement.dto.StudentGpaDto;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Moyenne pondérée par les crédits (somme note × crédit / somme des crédits) de chaque
+ * étudiant, sur ses inscriptions COMPLETED ou FAILED notées, vivantes ou archivées
+ * (totaux lus dans les deux tables puis cumulés). Les valeurs sont en mémoire.
+ * <ul>
+ *   <li>Incrémental : chaque EnrollmentChangedEvent recalcule les étudiants concernés
+ *   avec une requête agrégée (une ligne par étudiant).</li>
+ *   <li>Recalcul complet : la plage d'ID étudiants est découpée récursivement dans un
+ *   ForkJoinPool ; chaque tranche lit ses totaux en flux, dans sa propre transaction.
+ *   À relancer après une modification des crédits d'un cours.</li>
+ * </ul>
+ * app.gpa.parallelism doit rester sous la taille du pool de connexions.
+ */
+@Slf4j
+@Component
+public class GpaEngine {
+
+    public static final Set<Status> GPA_STATUSES = EnumSet.of(Status.COMPLETED, Status.FAILED);
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final ArchivedEnrollmentRepository archivedEnrollmentRepository;
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ForkJoinPool pool;
+    private final int rangeSize;
+
+    private final AtomicBoolean recomputing = new AtomicBoolean();
+    private final Set<Long> touchedDuringRecompute = ConcurrentHashMap.newKeySet();
+    private volatile Map<Long, StudentGpaDto> gpas = new ConcurrentHashMap<>();
+
+    public GpaEngine(EnrollmentRepository enrollmentRepository,
+                     ArchivedEnrollmentRepository archivedEnrollmentRepository,
+                     StudentRepository studentRepository,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${app.gpa.parallelism:4}") int parallelism,
+                     @Value("${app.gpa.range-size:5000}") int rangeSize) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.archivedEnrollmentRepository = archivedEnrollmentRepository;
+        this.studentRepository = studentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // ✅ recalcul complet sur le primaire : un réplica en retard fausserait les moyennes
+        this.readOnlyTransaction.setName(ReplicaRoutingDataSource.PRIMARY_READ);
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+        this.rangeSize = Math.max(1, rangeSize);
+    }
+
+    public StudentGpaDto getGpa(Long studentId) {
+        return gpas.getOrDefault(studentId, StudentGpaDto.empty(studentId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        Set<Long> studentIds = new HashSet<>(2);
+        addStudent(studentIds, event.before());
+        addStudent(studentIds, event.after());
+        for (Long studentId : studentIds) {
+            refresh(studentId);
+        }
+    }
+
+    // ✅ écriture en masse : une requête agrégée par bloc d'étudiants au lieu d'une par étudiant
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentsChanged(EnrollmentBatchChangedEvent event) {
+        Set<Long> studentIds = new HashSet<>();
+        for (EnrollmentChangedEvent change : event.changes()) {
+            addStudent(studentIds, change.before());
+            addStudent(studentIds, change.after());
+        }
+        refreshAll(studentIds);
+    }
+
+    /** Recalcule plusieurs étudiants, par blocs de BatchGetItem.CHUNK_SIZE. */
+    public void refreshAll(Collection<Long> studentIds) {
+        if (recomputing.get()) {
+            touchedDuringRecompute.addAll(studentIds);
+        }
+        List<Long> ids = List.copyOf(studentIds);
+        for (int from = 0; from < ids.size(); from += BatchGetItem.CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BatchGetItem.CHUNK_SIZE, ids.size()));
+            Map<Long, GpaTotals> found = new HashMap<>();
+            for (GpaTotals totals : enrollmentRepository.findGpaTotalsIn(chunk, GPA_STATUSES)) {
+                found.merge(totals.studentId(), totals, GpaTotals::plus);
+            }
+            for (GpaTotals totals : archivedEnrollmentRepository.findGpaTotalsIn(chunk, GPA_STATUSES)) {
+                found.merge(totals.studentId(), totals, GpaTotals::plus);
+            }
+            for (Long studentId : chunk) {
+                GpaTotals totals = found.get(studentId);
+                if (totals != null) {
+                    gpas.put(studentId, StudentGpaDto.from(totals));
+                } else {
+                    gpas.remove(studentId);
+                }
+            }
+        }
+    }
+
+    /** Recalcule un étudiant à partir de la base. */
+    public void refresh(Long studentId) {
+        if (recomputing.get()) {
+            touchedDuringRecompute.add(studentId);
+        }
+        Optional<GpaTotals> live = enrollmentRepository.findGpaTotals(studentId, GPA_STATUSES);
+        Optional<GpaTotals> archived = archivedEnrollmentRepository.findGpaTotals(studentId, GPA_STATUSES);
+        Optional<GpaTotals> totals = live.map(t -> t.plus(archived.orElse(null))).or(() -> archived);
+        if (totals.isPresent()) {
+            gpas.put(studentId, StudentGpaDto.from(totals.get()));
+        } else {
+            gpas.remove(studentId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recomputeAtStartup() {
+        recomputeAll();
+    }
+
+    /** Lance le recalcul complet en arrière-plan ; false si un recalcul est déjà en cours. */
+    public boolean recomputeAllAsync() {
+        if (!recomputing.compareAndSet(false, true)) {
+            return false;
+        }
+        pool.execute(() -> {
+            try {
+                runRecompute();
+            } catch (RuntimeException e) {
+                log.error("Échec du recalcul des moyennes", e);
+            }
+        });
+        return true;
+    }
+
+    /** Recalcul complet synchrone ; retourne le nombre d'étudiants ayant une moyenne. */
+    public int recomputeAll() {
+        if (!recomputing.compareAndSet(false, true)) {
+            throw new IllegalStateException("Un recalcul des moyennes est déjà en cours");
+        }
+        return runRecompute();
+    }
+
+    private int runRecompute() {
+        try {
+            long start = System.currentTimeMillis();
+            touchedDuringRecompute.clear();
+            Map<Long, StudentGpaDto> fresh = new ConcurrentHashMap<>();
+            Long minId = studentRepository.findMinId();
+            Long maxId = studentRepository.findMaxId();
+            if (minId != null && maxId != null) {
+                pool.invoke(new RangeTask(minId, maxId, fresh));
+            }
+            gpas = fresh;
+            // ✅ écritures arrivées pendant le parcours : réappliquées sur la nouvelle table
+            drainTouched();
+            log.info("Moyennes recalculées : {} étudiants en {} ms", fresh.size(), System.currentTimeMillis() - start);
+            return fresh.size();
+        } finally {
+            recomputing.set(false);
+            drainTouched();
+        }
+    }
+
+    private void drainTouched() {
+        Iterator<Long> it = touchedDuringRecompute.iterator();
+        while (it.hasNext()) {
+            Long studentId = it.next();
+            it.remove();
+            refresh(studentId);
+        }
+    }
+
+    private void loadRange(long fromId, long toId, Map<Long, StudentGpaDto> target) {
+        Map<Long, GpaTotals> range = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<GpaTotals> live = enrollmentRepository.streamGpaTotals(fromId, toId, GPA_STATUSES);
+                 Stream<GpaTotals> archived = archivedEnrollmentRepository.streamGpaTotals(fromId, toId, GPA_STATUSES)) {
+                Stream.concat(live, archived).forEach(totals -> range.merge(totals.studentId(), totals, GpaTotals::plus));
+            }
+        });
+        range.forEach((studentId, totals) -> target.put(studentId, StudentGpaDto.from(totals)));
+    }
+
+    private static void addStudent(Set<Long> studentIds, EnrollmentDto enrollment) {
+        if (enrollment != null && enrollment.studentId() != null) {
+            studentIds.add(enrollment.studentId());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** Tranche [fromId, toId] : découpée en deux tant qu'elle dépasse rangeSize. */
+    private final class RangeTask extends RecursiveAction {
+        private final long fromId;
+        private final long toId;
+        private final Map<Long, StudentGpaDto> target;
+
+        RangeTask(long fromId, long toId, Map<Long, StudentGpaDto> target) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.target = target;
+        }
+
+        @Override
+        protected void compute() {
+            if (toId - fromId < rangeSize) {
+                loadRange(fromId, toId, target);
+                return;
+            }
+            long mid = fromId + (toId - fromId) / 2;
+            invokeAll(new RangeTask(fromId, mid, target), new RangeTask(mid + 1, toId, target));
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package tn.esprit.studentmanagement.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.config.ReplicaRoutingDataSource;
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.GradeDistributionDto;
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.dto.StudentDto;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static tn.esprit.studentmanagement.services.CourseGradeStatistics.EXCLUDED_STATUSES;
+
+/**
+ * Médiane, p90 et histogramme des notes par cours et par département, sans trier les notes.
+ * Un GradeHistogram est tenu par cellule (cours, département de l'étudiant) ; la vue d'un cours
+ * fusionne ses cellules, celle d'un département fusionne les cellules de tous ses cours.
+ * Reconstruit au démarrage (inscriptions vivantes et archivées), puis mis à jour après commit par EnrollmentChangedEvent.
+ * La reconstruction remplit de nouvelles tables puis les substitue ; les cours modifiés pendant le
+ * parcours sont ensuite relus depuis la base. Un retrait reçu avant son ajout (écouteurs dans le
+ * désordre) reste en attente dans la cellule et annule l'ajout (voir GradeHistogram.remove).
+ * Le département est celui de l'étudiant au moment de l'écriture ; quand un étudiant change de
+ * département (StudentDepartmentChangedEvent), les cours où il a des notes sont relus depuis la base.
+ */
+@Slf4j
+@Component
+public class GradeDistributions {
+
+    // Clé des étudiants sans département
+    private static final Long NO_DEPARTMENT = -1L;
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final ArchivedEnrollmentRepository archivedEnrollmentRepository;
+    private final IStudentService studentService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Set<Long> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile Cells cells = new Cells();
+
+    public GradeDistributions(EnrollmentRepository enrollmentRepository,
+                              ArchivedEnrollmentRepository archivedEnrollmentRepository,
+                              IStudentService studentService,
+                              PlatformTransactionManager transactionManager) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.archivedEnrollmentRepository = archivedEnrollmentRepository;
+        this.studentService = studentService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setName(ReplicaRoutingDataSource.PRIMARY_READ);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (!rebuilding.compareAndSet(false, true)) {
+                log.warn("Reconstruction des distributions de notes déjà en cours");
+                return;
+            }
+            touchedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long start = System.currentTimeMillis();
+        Cells fresh = new Cells();
+        boolean complete = false;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<GradeSample> live = enrollmentRepository.streamGradeSamples(EXCLUDED_STATUSES);
+                     Stream<GradeSample> archived = archivedEnrollmentRepository.streamGradeSamples(EXCLUDED_STATUSES)) {
+                    Stream.concat(live, archived)
+                            .forEach(sample -> fresh.update(sample.courseId(), sample.departmentId(), sample.grade(), true));
+                }
+            });
+            complete = true;
+        } finally {
+            // ✅ substitution, relecture des cours modifiés pendant le parcours et reprise des mises à jour
+            // sous le même verrou, comme CourseGradeStatistics
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    cells = fresh;
+                }
+                drainTouched();
+                rebuilding.set(false);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Distributions de notes construites : {} cours en {} ms",
+                fresh.byCourse.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            if (rebuilding.get()) {
+                touch(event.before());
+                touch(event.after());
+                return;
+            }
+            apply(event.before(), false, this::departmentOf);
+            apply(event.after(), true, this::departmentOf);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ✅ écriture en masse : les départements des étudiants sont lus en une requête par bloc
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentsChanged(EnrollmentBatchChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            if (rebuilding.get()) {
+                event.changes().forEach(change -> {
+                    touch(change.before());
+                    touch(change.after());
+                });
+                return;
+            }
+            List<Long> studentIds = event.changes().stream()
+                    .flatMap(change -> Stream.of(change.before(), change.after()))
+                    .filter(CourseGradeStatistics::counts)
+                    .map(EnrollmentDto::studentId)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+            Map<Long, Long> departments = new HashMap<>();
+            for (BatchGetItem<StudentDto> item : studentService.getStudentsByIds(studentIds)) {
+                if (item.found() && item.value().departmentId() != null) {
+                    departments.put(item.id(), item.value().departmentId());
+                }
+            }
+            for (EnrollmentChangedEvent change : event.changes()) {
+                apply(change.before(), false, departments::get);
+                apply(change.after(), true, departments::get);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ✅ changement de département : les cellules (cours, département) de ces étudiants sont relues,
+    // sous verrou exclusif pour qu'aucun delta ne s'intercale entre la lecture et le remplacement
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentDepartmentChanged(StudentDepartmentChangedEvent event) {
+        Set<Long> courseIds = new HashSet<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            courseIds.addAll(enrollmentRepository.findCourseIdsByStudentIn(event.studentIds()));
+            courseIds.addAll(archivedEnrollmentRepository.findCourseIdsByStudentIn(event.studentIds()));
+        });
+        lock.writeLock().lock();
+        try {
+            if (rebuilding.get()) {
+                touchedDuringRebuild.addAll(courseIds);
+                return;
+            }
+            courseIds.forEach(this::refreshCourse);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public GradeDistributionDto forCourse(Long courseId) {
+        return merge(courseId, cells.byCourse.get(courseId));
+    }
+
+    public GradeDistributionDto forDepartment(Long departmentId) {
+        return merge(departmentId, cells.byDepartment.get(departmentId));
+    }
+
+    private void apply(EnrollmentDto enrollment, boolean add, Function<Long, Long> departmentOf) {
+        if (!CourseGradeStatistics.counts(enrollment)) {
+            return;
+        }
+        Long departmentId = enrollment.studentId() == null ? null : departmentOf.apply(enrollment.studentId());
+        cells.update(enrollment.courseId(), departmentId, enrollment.grade(), add);
+    }
+
+    private void touch(EnrollmentDto enrollment) {
+        if (enrollment != null && enrollment.courseId() != null) {
+            touchedDuringRebuild.add(enrollment.courseId());
+        }
+    }
+
+    private void drainTouched() {
+        Iterator<Long> it = touchedDuringRebuild.iterator();
+        while (it.hasNext()) {
+            Long courseId = it.next();
+            it.remove();
+            refreshCourse(courseId);
+        }
+    }
+
+    /** Relit les notes d'un cours (vivantes et archivées) et remplace ses cellules. */
+    private void refreshCourse(Long courseId) {
+        Cells course = new Cells();
+        readOnlyTransaction.executeWithoutResult(status -> Stream.concat(
+                        enrollmentRepository.findGradeSamplesByCourse(courseId, EXCLUDED_STATUSES).stream(),
+                        archivedEnrollmentRepository.findGradeSamplesByCourse(courseId, EXCLUDED_STATUSES).stream())
+                .forEach(sample -> course.update(courseId, sample.departmentId(), sample.grade(), true)));
+        cells.replaceCourse(courseId, course.byCourse.getOrDefault(courseId, Map.of()));
+    }
+
+    private Long departmentOf(Long studentId) {
+        StudentDto student = studentService.getStudentDtoById(studentId);
+        return student == null ? null : student.departmentId();
+    }
+
+    private static GradeDistributionDto merge(Long id, Map<Long, GradeHistogram> cells) {
+        GradeHistogram merged = new GradeHistogram();
+        if (cells != null) {
+            for (GradeHistogram cell : cells.values()) {
+                synchronized (cell) {
+                    merged.merge(cell);
+                }
+            }
+        }
+        return merged.toDto(id);
+    }
+
+    /** Cellules indexées par cours puis département, et par département puis cours (mêmes instances). */
+    private static final class Cells {
+        private final Map<Long, Map<Long, GradeHistogram>> byCourse = new ConcurrentHashMap<>();
+        private final Map<Long, Map<Long, GradeHistogram>> byDepartment = new ConcurrentHashMap<>();
+
+        void update(Long courseId, Long departmentId, double grade, boolean add) {
+            Long department = departmentId == null ? NO_DEPARTMENT : departmentId;
+            GradeHistogram cell = byCourse.computeIfAbsent(courseId, id -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(department, id -> new GradeHistogram());
+            byDepartment.computeIfAbsent(department, id -> new ConcurrentHashMap<>()).putIfAbsent(courseId, cell);
+            synchronized (cell) {
+                if (add) {
+                    cell.add(grade);
+                } else {
+                    cell.remove(grade);
+                }
+            }
+        }
+
+        void replaceCourse(Long courseId, Map<Long, GradeHistogram> courseCells) {
+            Map<Long, GradeHistogram> previous = courseCells.isEmpty()
+                    ? byCourse.remove(courseId)
+                    : byCourse.put(courseId, courseCells);
+            courseCells.forEach((department, cell) ->
+                    byDepartment.computeIfAbsent(department, id -> new ConcurrentHashMap<>()).put(courseId, cell));
+            if (previous != null) {
+                previous.forEach((department, cell) -> {
+                    Map<Long, GradeHistogram> courses = byDepartment.get(department);
+                    if (courses != null) {
+                        courses.remove(courseId, cell);
+                    }
+                });
+            }
+        }
+    }
+}
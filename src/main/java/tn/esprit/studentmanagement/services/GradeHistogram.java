@@ -0,0 +1,105 @@
+package tn.esprit.studentmanagement.services;
+
+import tn.esprit.studentmanagement.dto.GradeDistributionDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résumé de distribution des notes sur l'échelle 0–20 : histogramme à classes fixes de BIN_WIDTH.
+ * <ul>
+ *   <li>Fusionnable exactement : fusionner deux résumés revient à additionner les compteurs.</li>
+ *   <li>Supporte le retrait d'une note (modification / suppression d'inscription),
+ *   ce que t-digest ou KLL ne permettent pas.</li>
+ *   <li>Quantile : milieu de la classe qui contient la valeur de rang ⌈q·n⌉ ;
+ *   erreur absolue ≤ MAX_ERROR = BIN_WIDTH / 2 pour les notes dans [0, 20].
+ *   Une note hors échelle est rangée dans la classe extrême la plus proche.</li>
+ *   <li>Mémoire constante : BINS compteurs long, quel que soit le nombre de notes.</li>
+ * </ul>
+ * Non thread-safe : synchronisé par l'appelant.
+ */
+public final class GradeHistogram {
+
+    public static final double MAX_GRADE = 20.0;
+    public static final double BIN_WIDTH = 0.25;
+    public static final int BINS = (int) (MAX_GRADE / BIN_WIDTH);
+    public static final double MAX_ERROR = BIN_WIDTH / 2;
+
+    private final long[] counts = new long[BINS];
+    private long total;
+    // retraits reçus avant l'ajout correspondant (écouteurs après commit dans le désordre) ; alloué au premier besoin
+    private long[] pending;
+
+    public void add(double grade) {
+        int bin = bin(grade);
+        if (pending != null && pending[bin] > 0) {
+            pending[bin]--;
+            return;
+        }
+        counts[bin]++;
+        total++;
+    }
+
+    /** Retire une note ; si la classe est vide, le retrait est mis en attente et annule le prochain ajout dans cette classe. */
+    public void remove(double grade) {
+        int bin = bin(grade);
+        if (counts[bin] > 0) {
+            counts[bin]--;
+            total--;
+            return;
+        }
+        if (pending == null) {
+            pending = new long[BINS];
+        }
+        pending[bin]++;
+    }
+
+    public void merge(GradeHistogram other) {
+        for (int i = 0; i < BINS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public Double quantile(double q) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return (i + 0.5) * BIN_WIDTH;
+            }
+        }
+        return MAX_GRADE - MAX_ERROR;
+    }
+
+    /** Regroupe les classes fines par point de note entier (20 classes). */
+    public List<GradeDistributionDto.Bin> toPointBins() {
+        int perPoint = (int) Math.round(1 / BIN_WIDTH);
+        List<GradeDistributionDto.Bin> bins = new ArrayList<>(BINS / perPoint);
+        for (int from = 0; from < BINS; from += perPoint) {
+            long count = 0;
+            for (int i = from; i < from + perPoint; i++) {
+                count += counts[i];
+            }
+            bins.add(new GradeDistributionDto.Bin(from * BIN_WIDTH, (from + perPoint) * BIN_WIDTH, count));
+        }
+        return bins;
+    }
+
+    public GradeDistributionDto toDto(Long id) {
+        return new GradeDistributionDto(id, total, quantile(0.5), quantile(0.9), MAX_ERROR, toPointBins());
+    }
+
+    private static int bin(double grade) {
+        int bin = (int) Math.floor(grade / BIN_WIDTH);
+        return Math.max(0, Math.min(BINS - 1, bin));
+    }
+}
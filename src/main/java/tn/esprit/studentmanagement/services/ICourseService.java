@@ -0,0 +1,25 @@
+package tn.esprit.studentmanagement.services;
+
+import tn.esprit.studentmanagement.dto.CourseDto;
+import tn.esprit.studentmanagement.dto.CourseGradeStatsDto;
+import tn.esprit.studentmanagement.dto.CourseSeatsDto;
+import tn.esprit.studentmanagement.dto.GradeDistributionDto;
+import tn.esprit.studentmanagement.dto.LeaderboardEntryDto;
+import tn.esprit.studentmanagement.dto.StudentRankDto;
+import tn.esprit.studentmanagement.entities.Course;
+
+import java.util.List;
+
+public interface ICourseService {
+    public List<Course> getAllCourses();
+    public List<CourseDto> getAllCourseDtos();
+    public Course getCourseById(Long idCourse);
+    public CourseDto getCourseDtoById(Long idCourse);
+    public CourseGradeStatsDto getCourseStats(Long idCourse);
+    public CourseSeatsDto getCourseSeats(Long idCourse);
+    public List<LeaderboardEntryDto> getLeaderboard(Long idCourse, int limit);
+    public StudentRankDto getStudentRank(Long idCourse, Long idStudent);
+    public GradeDistributionDto getGradeDistribution(Long idCourse);
+    public Course saveCourse(Course course);
+    public void deleteCourse(Long idCourse);
+}
@@ -1,5 +1,10 @@
 package tn.esprit.studentmanagement.services;
 
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.DepartmentDto;
+import tn.esprit.studentmanagement.dto.DepartmentRollupDto;
+import tn.esprit.studentmanagement.dto.GradeDistributionDto;
 import tn.esprit.studentmanagement.entities.Department;
 import tn.esprit.studentmanagement.entities.Student;
 
@@ -7,7 +12,13 @@ import java.util.List;
 
 public interface IDepartmentService {
     public List<Department> getAllDepartments();
+    public List<DepartmentDto> getAllDepartmentDtos();
+    public CursorPage<DepartmentDto> getDepartmentsPage(String cursor, int size);
     public Department getDepartmentById(Long idDepartment);
+    public DepartmentDto getDepartmentDtoById(Long idDepartment);
+    public List<BatchGetItem<DepartmentDto>> getDepartmentsByIds(List<Long> ids);
+    public List<DepartmentRollupDto> getDepartmentRollup();
+    public GradeDistributionDto getGradeDistribution(Long idDepartment);
     public Department saveDepartment(Department department);
     public void deleteDepartment(Long idDepartment);
 }
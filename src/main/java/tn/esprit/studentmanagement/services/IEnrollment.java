@@ -1,13 +1,23 @@
 package tn.esprit.studentmanagement.services;
 
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.BulkItemResult;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.GradeUpdate;
 import tn.esprit.studentmanagement.entities.Enrollment;
 
 import java.util.List;
 
 public interface IEnrollment {
     public List<Enrollment> getAllEnrollments();
+    public List<EnrollmentDto> getAllEnrollmentDtos();
+    public CursorPage<EnrollmentDto> getEnrollmentsPage(String cursor, int size);
     public Enrollment getEnrollmentById(Long idEnrollment);
+    public EnrollmentDto getEnrollmentDtoById(Long idEnrollment);
+    public List<BatchGetItem<EnrollmentDto>> getEnrollmentsByIds(List<Long> ids);
     public Enrollment saveEnrollment(Enrollment enrollment);
     public void deleteEnrollment(Long idEnrollment);
+    public List<BulkItemResult> postGrades(Long courseId, List<GradeUpdate> updates);
 
 }
@@ -0,0 +1,9 @@
+package tn.esprit.studentmanagement.services;
+
+import tn.esprit.studentmanagement.dto.WriteTicketDto;
+import tn.esprit.studentmanagement.entities.Enrollment;
+
+public interface IEnrollmentWriteQueue {
+    public WriteTicketDto submitEnrollment(Enrollment enrollment);
+    public WriteTicketDto getWriteTicket(String trackingId);
+}
@@ -1,12 +1,30 @@
 package tn.esprit.studentmanagement.services;
 
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.BulkItemResult;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.StudentDto;
+import tn.esprit.studentmanagement.dto.StudentGpaDto;
+import tn.esprit.studentmanagement.dto.StudentSearchHit;
+import tn.esprit.studentmanagement.dto.TranscriptDto;
 import tn.esprit.studentmanagement.entities.Student;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IStudentService {
     public List<Student> getAllStudents();
+    public List<StudentDto> getAllStudentDtos();
+    public CursorPage<StudentDto> getStudentsPage(String cursor, int size);
+    public void exportStudents(Consumer<StudentDto> sink);
     public Student getStudentById(Long id);
+    public StudentDto getStudentDtoById(Long id);
+    public List<BatchGetItem<StudentDto>> getStudentsByIds(List<Long> ids);
+    public TranscriptDto getTranscript(Long id);
+    public StudentGpaDto getStudentGpa(Long id);
+    public boolean recomputeGpas();
     public Student saveStudent(Student student);
+    public List<BulkItemResult> saveAllStudents(List<Student> students);
     public void deleteStudent(Long id);
+    public List<StudentSearchHit> searchStudents(String query, int limit);
 }
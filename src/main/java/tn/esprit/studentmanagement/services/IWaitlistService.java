@@ -0,0 +1,11 @@
+package tn.esprit.studentmanagement.services;
+
+import tn.esprit.studentmanagement.dto.WaitlistEntryDto;
+
+import java.util.List;
+
+public interface IWaitlistService {
+    public WaitlistEntryDto joinWaitlist(Long courseId, Long studentId);
+    public List<WaitlistEntryDto> getWaitlist(Long courseId);
+    public void leaveWaitlist(Long idWaitlistEntry);
+}
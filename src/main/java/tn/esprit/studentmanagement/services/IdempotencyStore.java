@@ -0,0 +1,46 @@
+package tn.esprit.studentmanagement.services;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Réponses enregistrées par clé d'idempotence (en-tête Idempotency-Key), rejouées telles
+ * quelles si la même requête est renvoyée. Les entrées expirent après app.idempotency.ttl.
+ * <p>
+ * La clé est réservée avant l'exécution ({@link #claim}) : un doublon, même reçu par une autre
+ * instance, trouve la réservation en cours au lieu de réexécuter la requête. Le gagnant la
+ * complète avec sa réponse ({@link #complete}) ou la libère en cas d'échec ({@link #release}).
+ */
+public interface IdempotencyStore {
+
+    /** Réponse enregistrée, ou réservation en cours ({@link StoredResponse#inProgress()}). */
+    Optional<StoredResponse> find(String key);
+
+    /** Réserve la clé : false si elle est déjà prise (réponse enregistrée ou exécution en cours). */
+    boolean claim(String key, String fingerprint);
+
+    /** Enregistre la réponse du gagnant sur sa réservation. */
+    void complete(String key, StoredResponse response);
+
+    /** Supprime la réservation (exécution en erreur) : un nouvel essai pourra s'exécuter. */
+    void release(String key);
+
+    /**
+     * @param fingerprint empreinte SHA-256 de la requête (méthode, URI, corps) : une même clé
+     *                    réutilisée pour une autre requête est refusée
+     * @param status      {@link #IN_PROGRESS} tant que la réservation n'est pas complétée
+     */
+    record StoredResponse(String fingerprint, int status, String contentType, byte[] body, Instant createdAt) {
+
+        /** Statut d'une réservation sans réponse (colonne status NOT NULL). */
+        public static final int IN_PROGRESS = 0;
+
+        public static StoredResponse claimed(String fingerprint) {
+            return new StoredResponse(fingerprint, IN_PROGRESS, null, null, Instant.now());
+        }
+
+        public boolean inProgress() {
+            return status == IN_PROGRESS;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package tn.esprit.studentmanagement.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Stockage en mémoire (Caffeine) : borné en nombre de clés, perdu au redémarrage.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, StoredResponse> responses;
+
+    public InMemoryIdempotencyStore(long maxKeys, Duration ttl) {
+        this.responses = Caffeine.newBuilder().maximumSize(maxKeys).expireAfterWrite(ttl).build();
+    }
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        return Optional.ofNullable(responses.getIfPresent(key));
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint) {
+        return responses.asMap().putIfAbsent(key, StoredResponse.claimed(fingerprint)) == null;
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        responses.asMap().computeIfPresent(key, (k, current) -> current.inProgress() ? response : current);
+    }
+
+    @Override
+    public void release(String key) {
+        responses.asMap().computeIfPresent(key, (k, current) -> current.inProgress() ? null : current);
+    }
+}
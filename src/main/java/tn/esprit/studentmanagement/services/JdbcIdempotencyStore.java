@@ -0,0 +1,98 @@
+package tn.esprit.studentmanagement.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Stockage en base (table idempotency_key, créée au démarrage si absente) : les clés
+ * survivent aux redémarrages et sont partagées entre instances. Les lignes expirées
+ * sont ignorées à la lecture et purgées périodiquement.
+ * <p>
+ * La réservation est un INSERT (status = 0, sans corps) : la clé primaire fait échouer celui
+ * du doublon, quelle que soit l'instance. Une réservation plus vieille que claimTimeout
+ * (instance arrêtée pendant l'exécution) est considérée comme abandonnée et peut être reprise.
+ */
+@Slf4j
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+
+    public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, Duration ttl, Duration claimTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS idempotency_key ("
+                + "idem_key VARCHAR(320) NOT NULL PRIMARY KEY, "
+                + "fingerprint CHAR(64) NOT NULL, "
+                + "status INT NOT NULL, "
+                + "content_type VARCHAR(100), "
+                + "body BLOB, "
+                + "created_at TIMESTAMP NOT NULL)");
+    }
+
+    @Override
+    public Optional<StoredResponse> find(String key) {
+        Instant now = Instant.now();
+        return jdbcTemplate.query(
+                "SELECT fingerprint, status, content_type, body, created_at FROM idempotency_key "
+                        + "WHERE idem_key = ? AND created_at > ? AND (status <> ? OR created_at > ?)",
+                (rs, rowNum) -> new StoredResponse(rs.getString(1), rs.getInt(2), rs.getString(3),
+                        rs.getBytes(4), rs.getTimestamp(5).toInstant()),
+                key, Timestamp.from(now.minus(ttl)), StoredResponse.IN_PROGRESS,
+                Timestamp.from(now.minus(claimTimeout))).stream().findFirst();
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint) {
+        Instant now = Instant.now();
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_key (idem_key, fingerprint, status, created_at) "
+                            + "VALUES (?, ?, ?, ?)",
+                    key, fingerprint, StoredResponse.IN_PROGRESS, Timestamp.from(now));
+            return true;
+        } catch (DuplicateKeyException e) {
+            // ✅ clé déjà prise : reprise seulement si la ligne a expiré ou si la réservation est abandonnée
+            return jdbcTemplate.update("UPDATE idempotency_key SET fingerprint = ?, status = ?, content_type = NULL, "
+                            + "body = NULL, created_at = ? WHERE idem_key = ? "
+                            + "AND (created_at <= ? OR (status = ? AND created_at <= ?))",
+                    fingerprint, StoredResponse.IN_PROGRESS, Timestamp.from(now), key,
+                    Timestamp.from(now.minus(ttl)), StoredResponse.IN_PROGRESS,
+                    Timestamp.from(now.minus(claimTimeout))) == 1;
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        int updated = jdbcTemplate.update("UPDATE idempotency_key SET status = ?, content_type = ?, body = ?, "
+                        + "created_at = ? WHERE idem_key = ? AND fingerprint = ? AND status = ?",
+                response.status(), response.contentType(), response.body(), Timestamp.from(response.createdAt()),
+                key, response.fingerprint(), StoredResponse.IN_PROGRESS);
+        if (updated == 0) {
+            log.warn("Réservation d'idempotence introuvable à l'enregistrement de la réponse : {}", key);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_key WHERE idem_key = ? AND status = ?",
+                key, StoredResponse.IN_PROGRESS);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_key WHERE created_at < ?",
+                Timestamp.from(Instant.now().minus(ttl)));
+        if (purged > 0) {
+            log.info("Clés d'idempotence expirées purgées : {}", purged);
+        }
+    }
+}
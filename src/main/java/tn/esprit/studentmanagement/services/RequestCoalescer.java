@@ -0,0 +1,88 @@
+package tn.esprit.studentmanagement.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Regroupement des lectures concurrentes identiques ("single flight") : pour une même clé,
+ * le premier appelant (leader) exécute le chargement et les appelants arrivés pendant ce
+ * temps (followers) attendent et reçoivent le même résultat, sans requête SQL supplémentaire.
+ * Aucun verrou global : seule l'insertion dans la ConcurrentHashMap est synchronisée, par segment.
+ * Métrique : coalescing.requests{name, role=leader|follower}.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T load(String name, Object key, Supplier<T> loader) {
+        Key inFlightKey = new Key(name, key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(inFlightKey, mine);
+        if (existing != null) {
+            counters(name)[1].increment();
+            return (T) await(existing);
+        }
+
+        counters(name)[0].increment();
+        try {
+            T value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(inFlightKey, mine);
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lecture interrompue", e);
+        } catch (ExecutionException e) {
+            // ✅ le follower reçoit la même exception que le leader
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private Counter[] counters(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter[]{
+                Counter.builder("coalescing.requests").tag("name", n).tag("role", "leader")
+                        .description("Lectures exécutées en base").register(meterRegistry),
+                Counter.builder("coalescing.requests").tag("name", n).tag("role", "follower")
+                        .description("Lectures servies par une lecture déjà en cours").register(meterRegistry)
+        });
+    }
+
+    private record Key(String name, Object key) {
+    }
+}
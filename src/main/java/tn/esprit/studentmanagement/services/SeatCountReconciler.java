@@ -0,0 +1,31 @@
+package tn.esprit.studentmanagement.services;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+
+/**
+ * Au démarrage, recale Course.seatsTaken sur le nombre d'inscriptions ACTIVE
+ * (première mise en service de la colonne, ou écriture faite hors de EnrollmentService).
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class SeatCountReconciler {
+
+    private final CourseRepository courseRepository;
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        int fixed = courseRepository.recountSeats(Status.ACTIVE);
+        if (fixed > 0) {
+            log.warn("Compteurs de places recalés pour {} cours", fixed);
+        }
+    }
+}
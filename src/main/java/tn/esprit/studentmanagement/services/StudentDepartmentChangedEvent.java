@@ -0,0 +1,11 @@
+package tn.esprit.studentmanagement.services;
+
+import java.util.List;
+
+/**
+ * Publié par StudentService quand des étudiants existants changent de département.
+ * Les vues qui rangent les notes par département de l'étudiant (GradeDistributions)
+ * relisent les cours de ces étudiants.
+ */
+public record StudentDepartmentChangedEvent(List<Long> studentIds) {
+}
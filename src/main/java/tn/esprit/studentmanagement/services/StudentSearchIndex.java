@@ -0,0 +1,202 @@
+package tn.esprit.studentmanagement.services;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.config.ReplicaRoutingDataSource;
+import tn.esprit.studentmanagement.dto.StudentDto;
+import tn.esprit.studentmanagement.dto.StudentSearchHit;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Index de recherche en mémoire sur le prénom, le nom et l'email des étudiants.
+ * Les jetons sont rangés dans un TreeMap : une recherche par préfixe est un
+ * parcours de sous-arbre (équivalent d'un trie), sans aller en base.
+ * Construit au démarrage puis mis à jour par StudentService.
+ */
+@Slf4j
+@Component
+public class StudentSearchIndex {
+
+    public static final int MAX_RESULTS = 50;
+
+    private final StudentRepository studentRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Set<Long>> tokens = new TreeMap<>();
+    private final Map<Long, IndexedStudent> students = new HashMap<>();
+
+    public StudentSearchIndex(StudentRepository studentRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager) {
+        this.studentRepository = studentRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setName(ReplicaRoutingDataSource.PRIMARY_READ);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Student> all = studentRepository.streamAllBy()) {
+                all.forEach(student -> {
+                    index(StudentDto.from(student));
+                    entityManager.detach(student);
+                });
+            }
+        });
+        log.info("Index de recherche étudiants construit : {} étudiants en {} ms", size(), System.currentTimeMillis() - start);
+    }
+
+    public void index(StudentDto student) {
+        if (student == null || student.idStudent() == null) {
+            return;
+        }
+        IndexedStudent indexed = new IndexedStudent(StudentSearchHit.from(student), tokenize(student));
+        lock.writeLock().lock();
+        try {
+            unlink(students.put(student.idStudent(), indexed));
+            for (String token : indexed.tokens()) {
+                tokens.computeIfAbsent(token, t -> new HashSet<>()).add(student.idStudent());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long idStudent) {
+        lock.writeLock().lock();
+        try {
+            unlink(students.remove(idStudent));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Applique la mise à jour après le commit s'il y a une transaction en cours, sinon tout de suite. */
+    public void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    /**
+     * Tous les termes de la requête doivent préfixer un jeton de l'étudiant.
+     * Le terme le plus long (le plus sélectif) pilote le parcours, les autres filtrent.
+     */
+    public List<StudentSearchHit> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(normalizeTerms(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        terms.sort(Comparator.comparingInt(String::length).reversed());
+        String driver = terms.get(0);
+        List<String> filters = terms.subList(1, terms.size());
+        int max = Math.max(1, Math.min(limit, MAX_RESULTS));
+
+        lock.readLock().lock();
+        try {
+            Set<Long> seen = new HashSet<>();
+            List<StudentSearchHit> hits = new ArrayList<>(max);
+            for (Set<Long> ids : tokens.subMap(driver, true, driver + Character.MAX_VALUE, false).values()) {
+                for (Long id : ids) {
+                    if (!seen.add(id)) {
+                        continue;
+                    }
+                    IndexedStudent candidate = students.get(id);
+                    if (candidate != null && candidate.matchesAll(filters)) {
+                        hits.add(candidate.hit());
+                        if (hits.size() == max) {
+                            return hits;
+                        }
+                    }
+                }
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return students.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unlink(IndexedStudent previous) {
+        if (previous == null) {
+            return;
+        }
+        Long id = previous.hit().idStudent();
+        for (String token : previous.tokens()) {
+            Set<Long> ids = tokens.get(token);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                tokens.remove(token);
+            }
+        }
+    }
+
+    private static Set<String> tokenize(StudentDto student) {
+        Set<String> result = new HashSet<>();
+        result.addAll(normalizeTerms(student.firstName()));
+        result.addAll(normalizeTerms(student.lastName()));
+        // ✅ l'email est découpé comme la requête : "iheb@exa" trouve "iheb.jdey@example.com"
+        result.addAll(normalizeTerms(student.email()));
+        return result;
+    }
+
+    static List<String> normalizeTerms(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(normalize(text).split("[^\\p{Alnum}]+"))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+
+    private static String normalize(String text) {
+        // ✅ insensible à la casse et aux accents : "Hélène" == "helene"
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private record IndexedStudent(StudentSearchHit hit, Set<String> tokens) {
+        boolean matchesAll(List<String> terms) {
+            for (String term : terms) {
+                if (tokens.stream().noneMatch(token -> token.startsWith(term))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
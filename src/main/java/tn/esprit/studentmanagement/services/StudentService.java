@@ -1,35 +1,205 @@
 package tn.esprit.studentmanagement.services;
 
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.BulkItemResult;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.StudentDto;
+import tn.esprit.studentmanagement.dto.StudentGpaDto;
+import tn.esprit.studentmanagement.dto.StudentSearchHit;
+import tn.esprit.studentmanagement.dto.TranscriptDto;
 import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.exceptions.BulkLimitExceededException;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
 import tn.esprit.studentmanagement.repositories.StudentRepository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor // ✅ Lombok génère le constructeur avec StudentRepository
 public class StudentService implements IStudentService {
 
+    public static final int MAX_BULK_SIZE = 5000;
+    // ✅ aligné sur hibernate.jdbc.batch_size : un flush = un batch JDBC
+    private static final int BULK_CHUNK_SIZE = 50;
+
     private final StudentRepository studentRepository; // ✅ final et sans @Autowired
+    private final EntityManager entityManager;
+    private final StudentSearchIndex studentSearchIndex;
+    private final GpaEngine gpaEngine;
+    private final ArchivedEnrollmentRepository archivedEnrollmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Student> getAllStudents() {
         return studentRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<StudentDto> getAllStudentDtos() {
+        return studentRepository.findAllDtos();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<StudentDto> getStudentsPage(String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<StudentDto> fetched = studentRepository.findDtosAfter(
+                CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(fetched, pageSize, StudentDto::idStudent);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportStudents(Consumer<StudentDto> sink) {
+        try (Stream<Student> students = studentRepository.streamAllBy()) {
+            students.forEach(student -> {
+                sink.accept(StudentDto.from(student));
+                // ✅ détache chaque ligne : le contexte de persistance reste vide
+                entityManager.detach(student);
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Student getStudentById(Long id) {
         return studentRepository.findById(id).orElse(null);
     }
 
     @Override
+    // ✅ lecture traversante synchronisée : les ID inconnus (null) ne sont pas mis en cache (voir CacheConfig)
+    @Cacheable(cacheNames = CacheConfig.STUDENTS, key = "#id", sync = true)
+    public StudentDto getStudentDtoById(Long id) {
+        return studentRepository.findDtoById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BatchGetItem<StudentDto>> getStudentsByIds(List<Long> ids) {
+        return BatchGetItem.resolve(ids, studentRepository::findDtosByIdIn, StudentDto::idStudent);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TranscriptDto getTranscript(Long id) {
+        // ✅ inscriptions vivantes (graphe complet) + archivées : une requête par table
+        return studentRepository.findTranscriptById(id)
+                .map(student -> TranscriptDto.from(student, archivedEnrollmentRepository.findWithCourseByStudent(id)))
+                .orElse(null);
+    }
+
+    @Override
+    public StudentGpaDto getStudentGpa(Long id) {
+        return gpaEngine.getGpa(id);
+    }
+
+    @Override
+    public boolean recomputeGpas() {
+        return gpaEngine.recomputeAllAsync();
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#student.idStudent", condition = "#student.idStudent != null")
     public Student saveStudent(Student student) {
-        return studentRepository.save(student);
+        // ✅ département précédent lu avant l'écriture : un changement est signalé aux distributions de notes
+        Long departmentBefore = student.getIdStudent() == null ? null
+                : studentRepository.findDtoById(student.getIdStudent()).map(StudentDto::departmentId).orElse(null);
+        Student saved = studentRepository.save(student);
+        StudentDto indexed = StudentDto.from(saved);
+        studentSearchIndex.afterCommit(() -> studentSearchIndex.index(indexed));
+        if (student.getIdStudent() != null && !Objects.equals(departmentBefore, indexed.departmentId())) {
+            eventPublisher.publishEvent(new StudentDepartmentChangedEvent(List.of(saved.getIdStudent())));
+        }
+        return saved;
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, allEntries = true)
+    public List<BulkItemResult> saveAllStudents(List<Student> students) {
+        if (students.size() > MAX_BULK_SIZE) {
+            throw new BulkLimitExceededException(students.size(), MAX_BULK_SIZE);
+        }
+        List<BulkItemResult> results = new ArrayList<>(students.size());
+        List<Long> movedStudents = new ArrayList<>();
+        for (int from = 0; from < students.size(); from += BULK_CHUNK_SIZE) {
+            List<Student> chunk = students.subList(from, Math.min(from + BULK_CHUNK_SIZE, students.size()));
+            saveChunk(chunk, from, results, movedStudents);
+            entityManager.flush();
+            entityManager.clear(); // ✅ mémoire constante quelle que soit la taille de la requête
+        }
+        if (!movedStudents.isEmpty()) {
+            eventPublisher.publishEvent(new StudentDepartmentChangedEvent(movedStudents));
+        }
+        return results;
+    }
+
+    private void saveChunk(List<Student> chunk, int offset, List<BulkItemResult> results, List<Long> movedStudents) {
+        Set<Long> ids = chunk.stream()
+                .filter(Objects::nonNull)
+                .map(Student::getIdStudent)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        // ✅ un seul SELECT ... IN par lot : les merge suivants trouvent les entités en contexte
+        // (département courant de chaque étudiant existant, null si aucun)
+        Map<Long, Long> existing = new HashMap<>();
+        if (!ids.isEmpty()) {
+            studentRepository.findAllById(ids).forEach(found ->
+                    existing.put(found.getIdStudent(), StudentDto.from(found).departmentId()));
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Student student = chunk.get(i);
+            int index = offset + i;
+            if (student == null) {
+                results.add(BulkItemResult.rejected(index, null, "Élément vide"));
+                continue;
+            }
+            Long id = student.getIdStudent();
+            if (id != null && !existing.containsKey(id)) {
+                results.add(BulkItemResult.rejected(index, id, "Étudiant introuvable"));
+                continue;
+            }
+            Long departmentBefore = id == null ? null : existing.get(id);
+            Student saved = studentRepository.save(student);
+            StudentDto indexed = StudentDto.from(saved);
+            studentSearchIndex.afterCommit(() -> studentSearchIndex.index(indexed));
+            if (id != null && !Objects.equals(departmentBefore, indexed.departmentId())) {
+                movedStudents.add(id);
+            }
+            results.add(new BulkItemResult(index, saved.getIdStudent(),
+                    id == null ? BulkItemResult.Outcome.CREATED : BulkItemResult.Outcome.UPDATED, null));
+        }
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.STUDENTS, key = "#id")
     public void deleteStudent(Long id) {
         studentRepository.deleteById(id);
+        studentSearchIndex.afterCommit(() -> studentSearchIndex.remove(id));
+    }
+
+    @Override
+    public List<StudentSearchHit> searchStudents(String query, int limit) {
+        return studentSearchIndex.search(query, limit);
     }
 }
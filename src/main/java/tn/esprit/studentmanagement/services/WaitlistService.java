@@ -0,0 +1,255 @@
+package tn.esprit.studentmanagement.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.dto.CourseSeatsDto;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.WaitlistEntryDto;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.WaitlistEntry;
+import tn.esprit.studentmanagement.exceptions.AlreadyEnrolledException;
+import tn.esprit.studentmanagement.exceptions.CourseFullException;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.repositories.WaitlistEntryRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Listes d'attente FIFO par cours. Les entrées sont persistées (WaitlistEntry) et
+ * recopiées dans une file en mémoire par cours, rechargée au démarrage.
+ * <ul>
+ *   <li>Une inscription ACTIVE qui passe à DROPPED / WITHDRAWN (ou est supprimée) marque
+ *   son cours « à promouvoir » après commit : l'appelant n'attend pas la promotion.</li>
+ *   <li>Une tâche périodique traite les cours marqués par lots de app.waitlist.batch-size :
+ *   chaque promotion retire l'entrée et crée l'inscription ACTIVE dans une même transaction,
+ *   via EnrollmentService (réservation de place conditionnelle, événements).</li>
+ *   <li>Un étudiant qui occupe déjà une place (inscription ACTIVE) dans le cours ne peut pas
+ *   rejoindre sa liste ; s'il l'obtient entre-temps, son entrée est retirée sans promotion.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class WaitlistService implements IWaitlistService {
+
+    public static final Set<Status> RELEASING_STATUSES = EnumSet.of(Status.DROPPED, Status.WITHDRAWN);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseRepository courseRepository;
+    private final StudentRepository studentRepository;
+    private final IEnrollment enrollmentService;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+
+    private final Map<Long, Queue<WaitlistEntryDto>> queues = new ConcurrentHashMap<>();
+    private final Set<Long> pendingCourses = ConcurrentHashMap.newKeySet();
+
+    public WaitlistService(WaitlistEntryRepository waitlistRepository,
+                           EnrollmentRepository enrollmentRepository,
+                           CourseRepository courseRepository,
+                           StudentRepository studentRepository,
+                           IEnrollment enrollmentService,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.waitlist.batch-size:50}") int batchSize) {
+        this.waitlistRepository = waitlistRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseRepository = courseRepository;
+        this.studentRepository = studentRepository;
+        this.enrollmentService = enrollmentService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public WaitlistEntryDto joinWaitlist(Long courseId, Long studentId) {
+        // ✅ déjà en attente : l'entrée existante est renvoyée (rang conservé)
+        Queue<WaitlistEntryDto> queue = queues.get(courseId);
+        if (queue != null) {
+            for (WaitlistEntryDto waiting : queue) {
+                if (waiting.studentId().equals(studentId)) {
+                    return waiting;
+                }
+            }
+        }
+        if (!courseRepository.existsById(courseId) || !studentRepository.existsById(studentId)) {
+            return null;
+        }
+        if (enrollmentRepository.existsForStudentWithStatus(courseId, studentId, Status.ACTIVE)) {
+            throw new AlreadyEnrolledException(courseId, studentId);
+        }
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setRequestedAt(LocalDateTime.now());
+        entry.setCourse(courseRepository.getReferenceById(courseId));
+        entry.setStudent(studentRepository.getReferenceById(studentId));
+        WaitlistEntryDto saved;
+        try {
+            saved = WaitlistEntryDto.from(waitlistRepository.saveAndFlush(entry));
+        } catch (DataIntegrityViolationException e) {
+            // ✅ demande simultanée déjà enregistrée (contrainte unique) : l'étudiant est déjà en attente
+            return waitlistRepository.findDtoByCourseAndStudent(courseId, studentId).orElseThrow(() -> e);
+        }
+        queues.computeIfAbsent(courseId, id -> new ConcurrentLinkedQueue<>()).offer(saved);
+        pendingCourses.add(courseId); // des places sont peut-être déjà libres
+        return saved;
+    }
+
+    @Override
+    public List<WaitlistEntryDto> getWaitlist(Long courseId) {
+        Queue<WaitlistEntryDto> queue = queues.get(courseId);
+        return queue == null ? List.of() : List.copyOf(queue);
+    }
+
+    @Override
+    @Transactional
+    public void leaveWaitlist(Long idWaitlistEntry) {
+        waitlistRepository.findDtoById(idWaitlistEntry).ifPresent(entry -> {
+            if (waitlistRepository.deleteEntry(idWaitlistEntry) == 0) {
+                return;
+            }
+            // ✅ retrait par ID après commit : le DTO relu (requestedAt tronqué par la base)
+            // n'est pas égal à celui mis en file, et un rollback doit laisser l'entrée en place
+            afterCommit(() -> {
+                Queue<WaitlistEntryDto> queue = queues.get(entry.courseId());
+                if (queue != null) {
+                    queue.removeIf(waiting -> waiting.idWaitlistEntry().equals(idWaitlistEntry));
+                }
+            });
+        });
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        if (freesSeat(event.before(), event.after())) {
+            pendingCourses.add(event.before().courseId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentsChanged(EnrollmentBatchChangedEvent event) {
+        event.changes().forEach(this::onEnrollmentChanged);
+    }
+
+    /** Une place est rendue : l'inscription occupait une place et est abandonnée, supprimée ou déplacée. */
+    static boolean freesSeat(EnrollmentDto before, EnrollmentDto after) {
+        if (!EnrollmentService.holdsSeat(before)) {
+            return false;
+        }
+        return after == null
+                || RELEASING_STATUSES.contains(after.status())
+                || !before.courseId().equals(after.courseId());
+    }
+
+    /** Traite les cours marqués ; retourne le nombre d'étudiants promus. */
+    @Scheduled(fixedDelayString = "${app.waitlist.promotion-interval-ms:500}")
+    public synchronized int promotePending() {
+        int promoted = 0;
+        Iterator<Long> it = pendingCourses.iterator();
+        while (it.hasNext()) {
+            Long courseId = it.next();
+            it.remove();
+            promoted += promoteCourse(courseId);
+        }
+        return promoted;
+    }
+
+    private int promoteCourse(Long courseId) {
+        Queue<WaitlistEntryDto> queue = queues.get(courseId);
+        if (queue == null || queue.isEmpty()) {
+            return 0;
+        }
+        Optional<CourseSeatsDto> seats = courseRepository.findSeatsById(courseId);
+        if (seats.isEmpty()) {
+            return 0;
+        }
+        Integer available = seats.get().available();
+        int budget = available == null ? batchSize : Math.min(available, batchSize);
+        int promoted = 0;
+        int remaining = queue.size(); // chaque entrée au plus une fois par passage
+        WaitlistEntryDto next;
+        while (promoted < budget && remaining-- > 0 && (next = queue.peek()) != null) {
+            try {
+                if (promote(next)) {
+                    promoted++;
+                }
+                // promue, ou déjà retirée de la base : l'entrée quitte la file
+                queue.remove(next);
+            } catch (CourseFullException e) {
+                // place reprise entre-temps : la prochaine libération relancera le cours
+                return promoted;
+            } catch (RuntimeException e) {
+                // ✅ transaction annulée : la ligne est toujours en base, l'entrée reste en file
+                // (replacée en fin de file pour ne pas bloquer les suivants)
+                log.error("Promotion impossible depuis la liste d'attente : {}", next, e);
+                queue.remove(next);
+                queue.offer(next);
+            }
+        }
+        if (promoted == batchSize && !queue.isEmpty()) {
+            pendingCourses.add(courseId); // lot plein : la suite au prochain passage
+        }
+        return promoted;
+    }
+
+    /** false si l'entrée a quitté la liste entre-temps ou si l'étudiant a déjà une place (rien n'est créé). */
+    private boolean promote(WaitlistEntryDto entry) {
+        return Boolean.TRUE.equals(transaction.execute(status -> {
+            if (waitlistRepository.deleteEntry(entry.idWaitlistEntry()) == 0) {
+                return false;
+            }
+            if (enrollmentRepository.existsForStudentWithStatus(entry.courseId(), entry.studentId(), Status.ACTIVE)) {
+                // ✅ place déjà obtenue par ailleurs : l'entrée est retirée, pas de seconde inscription
+                return false;
+            }
+            Enrollment enrollment = new Enrollment();
+            enrollment.setEnrollmentDate(LocalDate.now());
+            enrollment.setStatus(Status.ACTIVE);
+            enrollment.setStudent(studentRepository.getReferenceById(entry.studentId()));
+            enrollment.setCourse(courseRepository.getReferenceById(entry.courseId()));
+            enrollmentService.saveEnrollment(enrollment);
+            return true;
+        }));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAtStartup() {
+        // ✅ transaction d'écriture : lu sur le primaire, jamais sur un réplica en retard
+        List<WaitlistEntryDto> entries = transaction.execute(status -> waitlistRepository.findAllDtosInOrder());
+        for (WaitlistEntryDto entry : entries) {
+            queues.computeIfAbsent(entry.courseId(), id -> new ConcurrentLinkedQueue<>()).offer(entry);
+        }
+        // ✅ places libérées pendant l'arrêt : tous les cours avec une file sont réexaminés
+        pendingCourses.addAll(queues.keySet());
+        log.info("Listes d'attente chargées : {} entrées sur {} cours", entries.size(), queues.size());
+    }
+}
@@ -0,0 +1,130 @@
+package tn.esprit.studentmanagement.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import tn.esprit.studentmanagement.config.AdmissionControlFilter;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * ⏱️ Benchmark : des lectures unitaires (getStudent/{id}) pendant un déluge de listes complètes
+ * (getAllStudents), sans contrôle d'admission (avant) puis avec (après). Pool Hikari réduit à
+ * 4 connexions pour que la saturation apparaisse sur H2.
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admission-bench",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.jpa.show-sql=false"})
+@ActiveProfiles("test")
+@DirtiesContext
+class AdmissionControlBenchmarkTest {
+
+    private static final int STUDENTS = 20_000;
+    private static final int HEAVY_CLIENTS = 24;
+    private static final int LIGHT_CLIENTS = 4;
+    private static final long PHASE_MS = 8_000;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Test
+    @DisplayName("⏱️ Latence des lectures unitaires pendant un déluge de getAll* : sans vs avec délestage")
+    void benchmarkLoadShedding() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= STUDENTS; i++) {
+            rows.add(new Object[]{(long) i, "Prénom" + i, "Nom" + i, "etudiant" + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO student (id_student, first_name, last_name, email) VALUES (?, ?, ?, ?)", rows);
+        assertThat(studentRepository.count()).isEqualTo(STUDENTS);
+
+        MockMvc unprotected = MockMvcBuilders.webAppContextSetup(context).build();
+        MockMvc protectedMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilter(admissionControlFilter.getFilter(), "/students/getAllStudents").build();
+
+        run(unprotected, 2_000); // chauffe
+        Result before = run(unprotected, PHASE_MS);
+        Result after = run(protectedMvc, PHASE_MS);
+
+        System.out.printf("%n%-16s %10s %10s %10s %12s %10s%n", "scénario", "p50 (ms)", "p99 (ms)", "unitaires", "listes 200", "listes 503");
+        System.out.printf("%-16s %10.1f %10.1f %10d %12d %10d%n", "sans délestage", before.p50(), before.p99(), before.lightCount(), before.heavyOk(), before.heavyRejected());
+        System.out.printf("%-16s %10.1f %10.1f %10d %12d %10d%n", "avec délestage", after.p50(), after.p99(), after.lightCount(), after.heavyOk(), after.heavyRejected());
+
+        assertThat(after.heavyRejected()).isPositive();
+        assertThat(after.p99()).isLessThan(before.p99());
+    }
+
+    private Result run(MockMvc mockMvc, long durationMs) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(HEAVY_CLIENTS + LIGHT_CLIENTS);
+        long deadline = System.currentTimeMillis() + durationMs;
+        AtomicInteger heavyOk = new AtomicInteger();
+        AtomicInteger heavyRejected = new AtomicInteger();
+        List<Long> lightNanos = Collections.synchronizedList(new ArrayList<>());
+        for (int c = 0; c < HEAVY_CLIENTS; c++) {
+            pool.submit(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    int status = mockMvc.perform(get("/students/getAllStudents")).andReturn().getResponse().getStatus();
+                    if (status == 503) {
+                        heavyRejected.incrementAndGet();
+                        Thread.sleep(50); // le client respecte (grossièrement) Retry-After
+                    } else {
+                        heavyOk.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        for (int c = 0; c < LIGHT_CLIENTS; c++) {
+            int client = c;
+            pool.submit(() -> {
+                long id = 1 + client;
+                while (System.currentTimeMillis() < deadline) {
+                    long start = System.nanoTime();
+                    mockMvc.perform(get("/students/getStudent/" + id)).andReturn();
+                    lightNanos.add(System.nanoTime() - start);
+                    id = 1 + (id * 7919) % STUDENTS;
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(durationMs + 60_000, TimeUnit.MILLISECONDS)).isTrue();
+        List<Long> sorted = new ArrayList<>(lightNanos);
+        Collections.sort(sorted);
+        return new Result(percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.size(), heavyOk.get(), heavyRejected.get());
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        return sorted.isEmpty() ? 0 : sorted.get((int) Math.min(sorted.size() - 1, p * sorted.size())) / 1e6;
+    }
+
+    private record Result(double p50, double p99, int lightCount, int heavyOk, int heavyRejected) {
+    }
+}
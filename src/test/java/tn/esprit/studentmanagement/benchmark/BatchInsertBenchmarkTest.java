@@ -0,0 +1,112 @@
+package tn.esprit.studentmanagement.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.entities.*;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ⏱️ Benchmark : insertion de 100 000 entités mêlées (départements, cours, étudiants,
+ * inscriptions) par JPA, une requête INSERT par ligne (avant : comportement imposé par
+ * IDENTITY, reproduit ici avec une taille de batch JDBC de 1) vs ID par séquence pooled
+ * et batching JDBC (après : hibernate.jdbc.batch_size + order_inserts).
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@DirtiesContext
+class BatchInsertBenchmarkTest {
+
+    private static final int DEPARTMENTS = 100;
+    private static final int COURSES = 900;
+    private static final int STUDENTS = 49_500;   // une inscription par étudiant : 100 000 entités au total
+    private static final int CHUNK = 1_000;        // entités persistées par transaction
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Test
+    @DisplayName("⏱️ 100 000 entités : INSERT ligne à ligne vs séquence pooled + batching")
+    void benchmarkRowByRowVsBatched() {
+        insertAll(1, 2_000); // chauffe
+        insertAll(null, 2_000);
+
+        long rowByRow = insertAll(1, STUDENTS);
+        long batched = insertAll(null, STUDENTS);
+        int total = DEPARTMENTS + COURSES + 2 * STUDENTS;
+
+        System.out.printf("%n%-28s %10s %14s%n", "scénario", "ms", "entités/s");
+        System.out.printf("%-28s %10d %14d%n", "INSERT ligne à ligne", rowByRow, total * 1000L / Math.max(1, rowByRow));
+        System.out.printf("%-28s %10d %14d%n", "séquence pooled + batch", batched, total * 1000L / Math.max(1, batched));
+
+        assertThat(enrollmentRepository.count()).isEqualTo(2L * STUDENTS + 4_000);
+        assertThat(batched).isLessThan(rowByRow);
+    }
+
+    /** @param jdbcBatchSize taille de batch de la session (null : configuration de l'application) */
+    private long insertAll(Integer jdbcBatchSize, int students) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+        List<Department> departments = new ArrayList<>();
+        List<Course> courses = new ArrayList<>();
+        transaction.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            for (int i = 0; i < DEPARTMENTS; i++) {
+                Department d = new Department();
+                d.setName("Département " + i);
+                entityManager.persist(d);
+                departments.add(d);
+            }
+            for (int i = 0; i < COURSES; i++) {
+                Course c = new Course();
+                c.setName("Cours " + i);
+                c.setCredit(1 + i % 6);
+                entityManager.persist(c);
+                courses.add(c);
+            }
+        });
+        for (int from = 0; from < students; from += CHUNK / 2) {
+            int to = Math.min(from + CHUNK / 2, students);
+            int first = from;
+            transaction.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+                for (int i = first; i < to; i++) {
+                    Student s = new Student();
+                    s.setFirstName("Prénom" + i);
+                    s.setDepartment(entityManager.getReference(Department.class, departments.get(i % DEPARTMENTS).getIdDepartment()));
+                    entityManager.persist(s);
+                    Enrollment e = new Enrollment();
+                    e.setStudent(s);
+                    e.setCourse(entityManager.getReference(Course.class, courses.get(i % COURSES).getIdCourse()));
+                    e.setStatus(Status.COMPLETED);
+                    e.setGrade((double) (i % 21));
+                    entityManager.persist(e);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,136 @@
+package tn.esprit.studentmanagement.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import tn.esprit.studentmanagement.dto.BulkItemResult;
+import tn.esprit.studentmanagement.dto.GradeUpdate;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.services.IEnrollment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ⏱️ Benchmark : notes de fin de semestre d'un cours, une mise à jour complète par
+ * inscription (boucle de PUT updateEnrollment, avant) vs postGrades (UPDATE JDBC groupés, après).
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@DirtiesContext
+class BulkGradePostingBenchmarkTest {
+
+    private static final int STUDENTS = 800;
+
+    @Autowired
+    private IEnrollment enrollmentService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("⏱️ Saisie de 800 notes : boucle d'updateEnrollment vs postGrades")
+    void benchmarkLoopVsBulk() {
+        Course loopCourse = seed("Boucle");
+        Course bulkCourse = seed("Lot");
+        // chauffe : chargement des classes et plans de requêtes des deux chemins
+        postWithLoop(enrollmentRepository.findAll().stream()
+                .filter(e -> e.getCourse().getIdCourse().equals(loopCourse.getIdCourse())).limit(20).toList(), 1.0);
+        enrollmentService.postGrades(bulkCourse.getIdCourse(), updates(bulkCourse, 20, 1.0));
+
+        List<Enrollment> loopEnrollments = enrollmentRepository.findAll().stream()
+                .filter(e -> e.getCourse().getIdCourse().equals(loopCourse.getIdCourse())).toList();
+        List<GradeUpdate> bulkUpdates = updates(bulkCourse, STUDENTS, 2.0);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        postWithLoop(loopEnrollments, 2.0);
+        long loopMillis = (System.nanoTime() - start) / 1_000_000;
+        long loopStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        List<BulkItemResult> results = enrollmentService.postGrades(bulkCourse.getIdCourse(), bulkUpdates);
+        long bulkMillis = (System.nanoTime() - start) / 1_000_000;
+        long bulkStatements = statistics.getPrepareStatementCount();
+
+        System.out.printf("%n%-24s %12s %10s%n", "scénario", "requêtes JPA", "ms");
+        System.out.printf("%-24s %12d %10d%n", "boucle updateEnrollment", loopStatements, loopMillis);
+        System.out.printf("%-24s %12d %10d%n", "postGrades", bulkStatements, bulkMillis);
+        System.out.printf("accélération : x%.1f%n", (double) loopMillis / Math.max(1, bulkMillis));
+
+        assertThat(results).allMatch(r -> r.outcome() == BulkItemResult.Outcome.UPDATED);
+        assertThat(enrollmentRepository.findAll()).allMatch(e -> e.getStatus() == Status.COMPLETED);
+        assertThat(bulkMillis).isLessThan(loopMillis);
+    }
+
+    // "Avant" : chaque note est une entité complète renvoyée par PUT /updateEnrollment
+    private void postWithLoop(List<Enrollment> enrollments, double offset) {
+        for (Enrollment enrollment : enrollments) {
+            enrollment.setGrade(grade(enrollment.getIdEnrollment(), offset));
+            enrollment.setStatus(Status.COMPLETED);
+            enrollmentService.saveEnrollment(enrollment);
+        }
+    }
+
+    private List<GradeUpdate> updates(Course course, int count, double offset) {
+        return enrollmentRepository.findAll().stream()
+                .filter(e -> e.getCourse().getIdCourse().equals(course.getIdCourse()))
+                .limit(count)
+                .map(e -> new GradeUpdate(e.getIdEnrollment(), grade(e.getIdEnrollment(), offset), Status.COMPLETED))
+                .toList();
+    }
+
+    private static double grade(Long id, double offset) {
+        return (id + offset) % 21;
+    }
+
+    private Course seed(String name) {
+        Course course = new Course();
+        course.setName(name);
+        course.setCredit(4);
+        courseRepository.save(course);
+        List<Student> students = new ArrayList<>();
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student s = new Student();
+            s.setFirstName(name + i);
+            students.add(s);
+            Enrollment e = new Enrollment();
+            e.setStudent(s);
+            e.setCourse(course);
+            e.setStatus(Status.ACTIVE);
+            enrollments.add(e);
+        }
+        studentRepository.saveAll(students);
+        enrollmentRepository.saveAll(enrollments);
+        return course;
+    }
+}
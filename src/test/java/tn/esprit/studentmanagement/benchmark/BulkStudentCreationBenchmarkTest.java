@@ -0,0 +1,95 @@
+package tn.esprit.studentmanagement.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import tn.esprit.studentmanagement.dto.BulkItemResult;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.services.IStudentService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ⏱️ Benchmark : import de 2 000 étudiants, un appel createStudent par étudiant
+ * (une transaction et un INSERT chacun, avant) vs un seul appel createStudents
+ * (une transaction, INSERT groupés par batch JDBC de 50, après).
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"})
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@DirtiesContext
+class BulkStudentCreationBenchmarkTest {
+
+    private static final int STUDENTS = 2_000;
+
+    @Autowired
+    private IStudentService studentService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("⏱️ Import de 2 000 étudiants : N appels createStudent vs un appel createStudents")
+    void benchmarkSingleCallsVsBulk() {
+        // chauffe : chargement des classes et plans de requêtes des deux chemins
+        students("Chauffe", 100).forEach(studentService::saveStudent);
+        studentService.saveAllStudents(students("ChauffeLot", 100));
+
+        List<Student> single = students("Unitaire", STUDENTS);
+        List<Student> bulk = students("Lot", STUDENTS);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        single.forEach(studentService::saveStudent);
+        long singleMillis = (System.nanoTime() - start) / 1_000_000;
+        long singleStatements = statistics.getPrepareStatementCount();
+        long singleTransactions = statistics.getTransactionCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        List<BulkItemResult> results = studentService.saveAllStudents(bulk);
+        long bulkMillis = (System.nanoTime() - start) / 1_000_000;
+        long bulkStatements = statistics.getPrepareStatementCount();
+        long bulkTransactions = statistics.getTransactionCount();
+
+        System.out.printf("%n%-24s %12s %12s %10s%n", "scénario", "requêtes JPA", "transactions", "ms");
+        System.out.printf("%-24s %12d %12d %10d%n", "N x createStudent", singleStatements, singleTransactions, singleMillis);
+        System.out.printf("%-24s %12d %12d %10d%n", "createStudents", bulkStatements, bulkTransactions, bulkMillis);
+        System.out.printf("accélération : x%.1f%n", (double) singleMillis / Math.max(1, bulkMillis));
+
+        assertThat(results).allMatch(r -> r.outcome() == BulkItemResult.Outcome.CREATED);
+        assertThat(studentRepository.count()).isEqualTo(2L * STUDENTS + 200);
+        assertThat(bulkStatements).isLessThan(singleStatements);
+        assertThat(bulkMillis).isLessThan(singleMillis);
+    }
+
+    private static List<Student> students(String prefix, int count) {
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Student s = new Student();
+            s.setFirstName(prefix + i);
+            s.setLastName("Nom" + i);
+            s.setEmail(prefix.toLowerCase() + i + "@esprit.tn");
+            students.add(s);
+        }
+        return students;
+    }
+}
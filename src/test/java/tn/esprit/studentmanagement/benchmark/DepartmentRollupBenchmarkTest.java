@@ -0,0 +1,168 @@
+package tn.esprit.studentmanagement.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.dto.DepartmentRollupDto;
+import tn.esprit.studentmanagement.entities.*;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.DepartmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.services.IDepartmentService;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ⏱️ Benchmark : synthèse par département calculée en parcourant le graphe
+ * Department → students → enrollments (avant) vs requêtes GROUP BY (après).
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@DirtiesContext
+class DepartmentRollupBenchmarkTest {
+
+    private static final int DEPARTMENTS = 10;
+    private static final int STUDENTS = 2000;
+    private static final int COURSES = 20;
+    private static final int ENROLLMENTS_PER_STUDENT = 5;
+    private static final Status[] STATUSES = Status.values();
+
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private DepartmentRepository departmentRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+    @Autowired
+    private IDepartmentService departmentService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("⏱️ Synthèse par département : parcours du graphe vs GROUP BY")
+    void benchmarkGraphWalkVsGroupBy() {
+        seed();
+
+        Result before = measure(this::graphWalk);
+        Result after = measure(departmentService::getDepartmentRollup);
+
+        System.out.printf("%n%-24s %10s %10s %10s%n", "scénario", "requêtes", "entités", "ms");
+        print("parcours du graphe", before);
+        print("GROUP BY", after);
+
+        assertThat(after.rollup()).isEqualTo(before.rollup());
+        assertThat(after.queries()).isEqualTo(2);
+        assertThat(after.entities()).isZero();
+        assertThat(after.queries()).isLessThan(before.queries());
+    }
+
+    // "Avant" : tout est chargé puis compté en Java
+    private List<DepartmentRollupDto> graphWalk() {
+        List<DepartmentRollupDto> rollup = new ArrayList<>();
+        for (Department department : departmentRepository.findAll()) {
+            long active = 0;
+            long total = 0;
+            long graded = 0;
+            double gradeSum = 0;
+            Map<Status, Long> byStatus = new EnumMap<>(Status.class);
+            for (Student student : department.getStudents()) {
+                for (Enrollment enrollment : student.getEnrollments()) {
+                    total++;
+                    byStatus.merge(enrollment.getStatus(), 1L, Long::sum);
+                    if (enrollment.getStatus() == Status.ACTIVE) {
+                        active++;
+                    }
+                    if (enrollment.getGrade() != null) {
+                        graded++;
+                        gradeSum += enrollment.getGrade();
+                    }
+                }
+            }
+            rollup.add(new DepartmentRollupDto(department.getIdDepartment(), department.getName(),
+                    department.getStudents().size(), active, total,
+                    graded > 0 ? gradeSum / graded : null, byStatus));
+        }
+        return rollup;
+    }
+
+    private Result measure(Supplier<List<DepartmentRollupDto>> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        statistics.clear();
+        long start = System.nanoTime();
+        List<DepartmentRollupDto> rollup = transaction.execute(status -> call.get());
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Result(rollup, statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(), millis);
+    }
+
+    private void seed() {
+        List<Department> departments = new ArrayList<>();
+        for (int i = 0; i < DEPARTMENTS; i++) {
+            Department d = new Department();
+            d.setName("Département " + i);
+            departments.add(d);
+        }
+        departmentRepository.saveAll(departments);
+
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < COURSES; i++) {
+            Course c = new Course();
+            c.setName("Cours " + i);
+            c.setCredit(1 + i % 6);
+            courses.add(c);
+        }
+        courseRepository.saveAll(courses);
+
+        List<Student> students = new ArrayList<>();
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student s = new Student();
+            s.setFirstName("Prénom" + i);
+            s.setDepartment(departments.get(i % DEPARTMENTS));
+            students.add(s);
+            for (int j = 0; j < ENROLLMENTS_PER_STUDENT; j++) {
+                Enrollment e = new Enrollment();
+                e.setStudent(s);
+                e.setCourse(courses.get((i + j) % COURSES));
+                e.setStatus(STATUSES[(i + j) % STATUSES.length]);
+                // notes entières : les moyennes des deux calculs sont comparées à l'égalité
+                e.setGrade(j == 0 ? null : (double) ((i + j) % 21));
+                enrollments.add(e);
+            }
+        }
+        studentRepository.saveAll(students);
+        enrollmentRepository.saveAll(enrollments);
+    }
+
+    private static void print(String label, Result result) {
+        System.out.printf("%-24s %10d %10d %10d%n", label, result.queries(), result.entities(), result.millis());
+    }
+
+    private record Result(List<DepartmentRollupDto> rollup, long queries, long entities, long millis) {
+    }
+}
@@ -0,0 +1,176 @@
+package tn.esprit.studentmanagement.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.entities.*;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.DepartmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.services.IStudentService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ⏱️ Benchmark : entités sérialisées telles quelles (avant) vs projections DTO (après).
+ * Mesure les octets par réponse et le nombre de requêtes SQL par appel.
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@DirtiesContext
+class DtoProjectionBenchmarkTest {
+
+    private static final int DEPARTMENTS = 10;
+    private static final int STUDENTS = 500;
+    private static final int COURSES = 20;
+    private static final int ENROLLMENTS_PER_STUDENT = 4;
+
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private DepartmentRepository departmentRepository;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+    @Autowired
+    private IStudentService studentService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Meilleur cas de "l'avant" : sans couper les références arrière, la sérialisation boucle à l'infini
+    @JsonIgnoreProperties("students")
+    abstract static class DepartmentMixIn {
+    }
+
+    @JsonIgnoreProperties("student")
+    abstract static class EnrollmentMixIn {
+    }
+
+    @JsonIgnoreProperties("enrollments")
+    abstract static class CourseMixIn {
+    }
+
+    @Test
+    @DisplayName("⏱️ Octets et requêtes par réponse : entités vs DTO")
+    void benchmarkEntityVsDto() throws Exception {
+        seed();
+        ObjectMapper entityMapper = objectMapper.copy()
+                .addMixIn(Department.class, DepartmentMixIn.class)
+                .addMixIn(Enrollment.class, EnrollmentMixIn.class)
+                .addMixIn(Course.class, CourseMixIn.class);
+        Long someId = studentRepository.findAll().get(STUDENTS / 2).getIdStudent();
+
+        Result listBefore = measure(() -> entityMapper.writeValueAsBytes(studentRepository.findAll()));
+        Result listAfter = measure(() -> objectMapper.writeValueAsBytes(studentService.getAllStudentDtos()));
+        Result getBefore = measure(() -> entityMapper.writeValueAsBytes(studentRepository.findById(someId).orElseThrow()));
+        Result getAfter = measure(() -> objectMapper.writeValueAsBytes(studentService.getStudentDtoById(someId)));
+
+        System.out.printf("%n%-28s %12s %10s %10s%n", "scénario", "octets", "requêtes", "ms");
+        print("getAllStudents (entités)", listBefore);
+        print("getAllStudents (DTO)", listAfter);
+        print("getStudent/{id} (entité)", getBefore);
+        print("getStudent/{id} (DTO)", getAfter);
+
+        assertThat(listAfter.queries()).isEqualTo(1);
+        assertThat(getAfter.queries()).isEqualTo(1);
+        assertThat(listAfter.bytes()).isLessThan(listBefore.bytes());
+        assertThat(listAfter.queries()).isLessThan(listBefore.queries());
+    }
+
+    private Result measure(Callable<byte[]> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        statistics.clear();
+        long start = System.nanoTime();
+        // Une transaction par appel : équivalent d'une requête HTTP avec chargements paresseux autorisés
+        byte[] body = transaction.execute(status -> {
+            try {
+                return call.call();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Result(body.length, statistics.getPrepareStatementCount(), millis);
+    }
+
+    private void seed() {
+        List<Department> departments = new ArrayList<>();
+        for (int i = 0; i < DEPARTMENTS; i++) {
+            Department d = new Department();
+            d.setName("Département " + i);
+            d.setLocation("Bloc " + i);
+            departments.add(d);
+        }
+        departmentRepository.saveAll(departments);
+
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < COURSES; i++) {
+            Course c = new Course();
+            c.setName("Cours " + i);
+            c.setCode("C" + i);
+            c.setCredit(1 + i % 6);
+            c.setDescription("Description du cours " + i);
+            courses.add(c);
+        }
+        courseRepository.saveAll(courses);
+
+        List<Student> students = new ArrayList<>();
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student s = new Student();
+            s.setFirstName("Prénom" + i);
+            s.setLastName("Nom" + i);
+            s.setEmail("etudiant" + i + "@example.com");
+            s.setAddress("Tunis");
+            s.setDateOfBirth(LocalDate.of(2000, 1, 1).plusDays(i));
+            s.setDepartment(departments.get(i % DEPARTMENTS));
+            students.add(s);
+            for (int j = 0; j < ENROLLMENTS_PER_STUDENT; j++) {
+                Enrollment e = new Enrollment();
+                e.setStudent(s);
+                e.setCourse(courses.get((i + j) % COURSES));
+                e.setGrade(10.0 + (i + j) % 10);
+                e.setStatus(Status.COMPLETED);
+                e.setEnrollmentDate(LocalDate.of(2024, 9, 15));
+                enrollments.add(e);
+            }
+        }
+        studentRepository.saveAll(students);
+        enrollmentRepository.saveAll(enrollments);
+    }
+
+    private static void print(String label, Result result) {
+        System.out.printf("%-28s %12d %10d %10d%n", label, result.bytes(), result.queries(), result.millis());
+    }
+
+    private record Result(long bytes, long queries, long millis) {
+    }
+}
@@ -0,0 +1,151 @@
+package tn.esprit.studentmanagement.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.services.CourseGradeStatistics;
+import tn.esprit.studentmanagement.services.EnrollmentArchiver;
+import tn.esprit.studentmanagement.services.IStudentService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ⏱️ Benchmark : requêtes courantes sur la table des inscriptions avant archivage
+ * (85 % d'inscriptions clôturées des années passées) puis après déplacement vers enrollment_archive.
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "app.enrollment.archive.batch-size=5000",
+        "app.enrollment.archive.pause=0ms"})
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@DirtiesContext
+class EnrollmentArchiveBenchmarkTest {
+
+    private static final int COURSES = 20;
+    private static final int STUDENTS = 10_000;
+    private static final int ENROLLMENTS = 200_000;
+    private static final double CLOSED_RATIO = 0.85;
+    private static final Status[] CLOSED = {Status.COMPLETED, Status.FAILED, Status.WITHDRAWN};
+    private static final int RUNS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CourseRepository courseRepository;
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+    @Autowired
+    private ArchivedEnrollmentRepository archivedEnrollmentRepository;
+    @Autowired
+    private EnrollmentArchiver enrollmentArchiver;
+    @Autowired
+    private IStudentService studentService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("⏱️ 200 000 inscriptions : requêtes courantes avant / après archivage des inscriptions clôturées")
+    void benchmarkHotQueriesBeforeAndAfterArchive() {
+        Long[] courseIds = seed();
+        Long course = courseIds[0];
+        Long student = 1L;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        double[] before = {
+                median(() -> enrollmentRepository.findAllDtos().size()),
+                median(() -> enrollmentRepository.findRankedByCourse(course, CourseGradeStatistics.EXCLUDED_STATUSES, Limit.of(100)).size()),
+                median(() -> transaction.execute(status -> courseRepository.recountSeats(Status.ACTIVE))),
+                median(() -> studentService.getTranscript(student).lines().size())};
+        long liveBefore = enrollmentRepository.count();
+        int transcriptLines = studentService.getTranscript(student).lines().size();
+
+        long start = System.nanoTime();
+        long moved = enrollmentArchiver.archiveBefore(LocalDate.of(2024, 1, 1));
+        long archiveMs = (System.nanoTime() - start) / 1_000_000;
+
+        double[] after = {
+                median(() -> enrollmentRepository.findAllDtos().size()),
+                median(() -> enrollmentRepository.findRankedByCourse(course, CourseGradeStatistics.EXCLUDED_STATUSES, Limit.of(100)).size()),
+                median(() -> transaction.execute(status -> courseRepository.recountSeats(Status.ACTIVE))),
+                median(() -> studentService.getTranscript(student).lines().size())};
+
+        String[] labels = {"getAllEnrollment", "classement d'un cours", "recalage des places", "relevé (union)"};
+        System.out.printf("%nlignes vivantes : %d → %d ; archivées : %d en %d ms (%d lignes/s)%n",
+                liveBefore, enrollmentRepository.count(), moved, archiveMs, moved * 1000 / Math.max(1, archiveMs));
+        System.out.printf("%-24s %12s %12s%n", "requête (médiane)", "avant (ms)", "après (ms)");
+        for (int i = 0; i < labels.length; i++) {
+            System.out.printf("%-24s %12.1f %12.1f%n", labels[i], before[i], after[i]);
+        }
+
+        assertThat(moved).isEqualTo(archivedEnrollmentRepository.count()).isPositive();
+        assertThat(enrollmentRepository.count()).isEqualTo(liveBefore - moved);
+        assertThat(studentService.getTranscript(student).lines()).hasSize(transcriptLines);
+        assertThat(after[0]).isLessThan(before[0]);
+    }
+
+    private Long[] seed() {
+        Long[] courseIds = new Long[COURSES];
+        for (int i = 0; i < COURSES; i++) {
+            Course c = new Course();
+            c.setName("Cours " + i);
+            c.setCode("C" + i);
+            c.setCredit(1 + i % 6);
+            courseIds[i] = courseRepository.save(c).getIdCourse();
+        }
+        List<Object[]> students = new ArrayList<>(STUDENTS);
+        for (long id = 1; id <= STUDENTS; id++) {
+            students.add(new Object[]{id, "Prénom" + id, "Nom" + id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO student (id_student, first_name, last_name) VALUES (?, ?, ?)", students);
+
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(ENROLLMENTS);
+        for (long id = 1; id <= ENROLLMENTS; id++) {
+            boolean closed = random.nextDouble() < CLOSED_RATIO;
+            LocalDate date = closed ? LocalDate.of(2019 + random.nextInt(5), 1 + random.nextInt(12), 1) : LocalDate.now();
+            Status status = closed ? CLOSED[random.nextInt(CLOSED.length)] : Status.ACTIVE;
+            Double grade = status == Status.WITHDRAWN ? null : Math.round(random.nextDouble() * 200) / 10.0;
+            rows.add(new Object[]{id, Date.valueOf(date), grade, status.name(),
+                    1 + random.nextInt(STUDENTS), courseIds[random.nextInt(COURSES)]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO enrollment (id_enrollment, enrollment_date, grade, status, "
+                + "student_id_student, course_id_course) VALUES (?, ?, ?, ?, ?, ?)", rows);
+        return courseIds;
+    }
+
+    private static double median(Runnable query) {
+        query.run(); // chauffe
+        double[] millis = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+}
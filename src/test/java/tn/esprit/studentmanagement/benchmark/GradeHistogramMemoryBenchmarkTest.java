@@ -0,0 +1,69 @@
+package tn.esprit.studentmanagement.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tn.esprit.studentmanagement.services.GradeHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ⏱️ Benchmark mémoire : un GradeHistogram par cours vs la liste des notes brutes
+ * (ce qu'il faudrait garder pour trier et calculer des quantiles exacts).
+ * Lancement : mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class GradeHistogramMemoryBenchmarkTest {
+
+    private static final int COURSES = 10_000;
+    private static final int GRADES_PER_COURSE = 300;
+
+    @Test
+    @DisplayName("⏱️ Octets par cours : histogramme vs notes brutes")
+    void benchmarkMemoryPerCourse() {
+        Random random = new Random(7);
+
+        long before = usedMemory();
+        List<GradeHistogram> histograms = new ArrayList<>(COURSES);
+        for (int c = 0; c < COURSES; c++) {
+            GradeHistogram histogram = new GradeHistogram();
+            for (int i = 0; i < GRADES_PER_COURSE; i++) {
+                histogram.add(random.nextDouble() * 20);
+            }
+            histograms.add(histogram);
+        }
+        long histogramBytes = (usedMemory() - before) / COURSES;
+
+        before = usedMemory();
+        List<List<Double>> raw = new ArrayList<>(COURSES);
+        for (int c = 0; c < COURSES; c++) {
+            List<Double> grades = new ArrayList<>(GRADES_PER_COURSE);
+            for (int i = 0; i < GRADES_PER_COURSE; i++) {
+                grades.add(random.nextDouble() * 20);
+            }
+            raw.add(grades);
+        }
+        long rawBytes = (usedMemory() - before) / COURSES;
+
+        System.out.printf("%n%-32s %10s%n", "structure (" + GRADES_PER_COURSE + " notes/cours)", "octets");
+        System.out.printf("%-32s %10d%n", "GradeHistogram (" + GradeHistogram.BINS + " classes)", histogramBytes);
+        System.out.printf("%-32s %10d%n", "List<Double> (notes brutes)", rawBytes);
+        System.out.printf("erreur max des quantiles : ±%.3f point%n", GradeHistogram.MAX_ERROR);
+
+        assertThat(histograms).hasSize(COURSES);
+        assertThat(raw).hasSize(COURSES);
+        assertThat(histogramBytes).isLessThan(rawBytes);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
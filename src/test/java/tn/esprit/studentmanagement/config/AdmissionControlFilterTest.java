@@ -0,0 +1,127 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private static final String HEAVY = "/students/getAllStudents";
+    private static final long MS = 1_000_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicBoolean poolSaturated = new AtomicBoolean();
+
+    @Test
+    @DisplayName("🚦 Limite atteinte : 503 immédiat avec Retry-After, les autres chemins passent")
+    void testRejectsAboveLimit() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(List.of(HEAVY), path -> limit(1, 10), meterRegistry);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(get(HEAVY), new MockHttpServletResponse(), (req, res) -> {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(get(HEAVY), rejected, (req, res) -> {
+            throw new AssertionError("ne doit pas être exécutée");
+        });
+        MockHttpServletResponse cheap = new MockHttpServletResponse();
+        filter.doFilter(get("/students/getStudent/1"), cheap, (req, res) -> ((HttpServletResponse) res).setStatus(200));
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo(AdmissionControlFilter.RETRY_AFTER_SECONDS);
+        assertThat(cheap.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("http.admission.rejected").tag("endpoint", HEAVY).counter().count()).isEqualTo(1.0);
+        assertThat(filter.limitFor(HEAVY).inflight()).isZero();
+    }
+
+    @Test
+    @DisplayName("📈 Latence stable à pleine charge : la limite monte jusqu'au plafond")
+    void testLimitGrowsUnderStableLatency() {
+        GradientConcurrencyLimit limit = limit(4, 10);
+
+        for (int i = 0; i < 200; i++) {
+            fillAndComplete(limit, 10 * MS);
+        }
+
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("📉 Latence qui s'envole ou pool saturé : la limite baisse, sans descendre sous le minimum")
+    void testLimitShrinksUnderCongestion() {
+        GradientConcurrencyLimit limit = limit(10, 10);
+        for (int i = 0; i < 50; i++) {
+            fillAndComplete(limit, 10 * MS);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            fillAndComplete(limit, 100 * MS);
+        }
+        int afterLatency = limit.limit();
+        assertThat(afterLatency).isLessThan(10);
+
+        poolSaturated.set(true);
+        for (int i = 0; i < 50; i++) {
+            fillAndComplete(limit, 10 * MS);
+        }
+        assertThat(limit.limit()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("🧯 Erreur serveur : recul multiplicatif de la limite")
+    void testDroppedRequestBacksOff() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(List.of(HEAVY), path -> limit(10, 10), meterRegistry);
+
+        filter.doFilter(get(HEAVY), new MockHttpServletResponse(), (req, res) -> ((HttpServletResponse) res).setStatus(500));
+
+        assertThat(filter.limitFor(HEAVY).limit()).isEqualTo(9);
+        assertThat(meterRegistry.get("http.admission.limit").tag("endpoint", HEAVY).gauge().value()).isEqualTo(9.0);
+    }
+
+    /** Remplit la limite courante puis termine toutes les requêtes avec la même latence. */
+    private static void fillAndComplete(GradientConcurrencyLimit limit, long rttNanos) {
+        int admitted = 0;
+        while (limit.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limit.onSuccess(rttNanos);
+        }
+    }
+
+    private GradientConcurrencyLimit limit(int initial, int max) {
+        return new GradientConcurrencyLimit(initial, 1, max, 0.2, 1.5, 100, poolSaturated::get);
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
@@ -0,0 +1,80 @@
+package tn.esprit.studentmanagement.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigTest {
+
+    private final CacheManager cacheManager = new CacheConfig().cacheManager(new CacheConfig.CacheSpecs(Map.of()));
+    private final Cache cache = cacheManager.getCache(CacheConfig.STUDENTS);
+
+    @Test
+    @DisplayName("🚫 Chargement synchronisé : une absence est rendue sans être mise en cache")
+    void testAbsentNotCached() {
+        assertThat((Object) cache.get(1L, () -> null)).isNull();
+        assertThat(cache.get(1L)).isNull();
+
+        assertThat((Object) cache.get(1L, () -> "Lina")).isEqualTo("Lina");
+        assertThat((Object) cache.get(1L, () -> "autre")).isEqualTo("Lina");
+    }
+
+    @Test
+    @DisplayName("⏳ Éviction pendant un chargement : elle attend sa fin, la valeur lue avant l'écriture ne reste pas")
+    void testEvictDuringLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> load = CompletableFuture.supplyAsync(() -> cache.get(1L, () -> {
+            loading.countDown();
+            release.await();
+            return "ancienne valeur";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> evict = CompletableFuture.runAsync(() -> cache.evict(1L));
+        Thread.sleep(100);
+        assertThat(evict).isNotDone();
+        release.countDown();
+
+        assertThat(load.get(5, TimeUnit.SECONDS)).isEqualTo("ancienne valeur");
+        evict.get(5, TimeUnit.SECONDS);
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("🧵 Défauts de cache simultanés sur une même clé : un seul chargement")
+    void testConcurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<CompletableFuture<Object>> readers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            readers.add(CompletableFuture.supplyAsync(() -> cache.get(2L, () -> {
+                loads.incrementAndGet();
+                release.await();
+                return "Sami";
+            }), pool));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (CompletableFuture<Object> reader : readers) {
+            assertThat(reader.get(5, TimeUnit.SECONDS)).isEqualTo("Sami");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,64 @@
+package tn.esprit.studentmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class HikariPoolPressureTest {
+
+    private final HikariDataSource primary = mock(HikariDataSource.class);
+    private final HikariDataSource replica = mock(HikariDataSource.class);
+    private final HikariPoolMXBean primaryPool = mock(HikariPoolMXBean.class);
+    private final HikariPoolMXBean replicaPool = mock(HikariPoolMXBean.class);
+
+    @Test
+    @DisplayName("🪞 Réplica saturé : la pression est signalée même si le primaire est libre")
+    void testReplicaPoolSaturation() {
+        when(primary.getHikariPoolMXBean()).thenReturn(primaryPool);
+        HikariPoolPressure pressure = new HikariPoolPressure(routedDataSource());
+
+        // pool du réplica pas encore démarré : rien à signaler
+        assertThat(pressure.getAsBoolean()).isFalse();
+
+        when(replica.getHikariPoolMXBean()).thenReturn(replicaPool);
+        when(replicaPool.getThreadsAwaitingConnection()).thenReturn(3);
+        assertThat(pressure.getAsBoolean()).isTrue();
+
+        when(replicaPool.getThreadsAwaitingConnection()).thenReturn(0);
+        when(primaryPool.getThreadsAwaitingConnection()).thenReturn(1);
+        assertThat(pressure.getAsBoolean()).isTrue();
+
+        when(primaryPool.getThreadsAwaitingConnection()).thenReturn(0);
+        assertThat(pressure.getAsBoolean()).isFalse();
+    }
+
+    @Test
+    @DisplayName("🗄️ Sans réplica : seul le pool unique est surveillé")
+    void testSinglePool() {
+        when(primary.getHikariPoolMXBean()).thenReturn(primaryPool);
+        HikariPoolPressure pressure = new HikariPoolPressure(primary);
+
+        assertThat(pressure.getAsBoolean()).isFalse();
+        when(primaryPool.getThreadsAwaitingConnection()).thenReturn(2);
+        assertThat(pressure.getAsBoolean()).isTrue();
+    }
+
+    // même enveloppe que ReadReplicaConfig : LazyConnectionDataSourceProxy autour du routage
+    private LazyConnectionDataSourceProxy routedDataSource() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary,
+                new LinkedHashMap<>(Map.of("replica-0", replica)), Duration.ofSeconds(5), new SimpleMeterRegistry());
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(routing);
+        return proxy;
+    }
+}
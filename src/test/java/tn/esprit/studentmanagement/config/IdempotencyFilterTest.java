@@ -0,0 +1,271 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tn.esprit.studentmanagement.services.InMemoryIdempotencyStore;
+import tn.esprit.studentmanagement.services.RequestCoalescer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyFilterTest {
+
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100, Duration.ofMinutes(5));
+    private final IdempotencyFilter filter = instance(Duration.ofSeconds(2));
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    @DisplayName("🔁 Même clé : la réponse enregistrée est rejouée sans réexécution")
+    void testReplay() throws Exception {
+        FilterChain chain = created(201);
+
+        MockHttpServletResponse first = perform("k1", "{\"firstName\":\"Iheb\"}", chain);
+        MockHttpServletResponse second = perform("k1", "{\"firstName\":\"Iheb\"}", chain);
+
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(second.getStatus()).isEqualTo(201);
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(second.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    @DisplayName("🚫 Même clé, autre corps : 422")
+    void testKeyReuseWithOtherBody() throws Exception {
+        FilterChain chain = created(200);
+        perform("k2", "{\"firstName\":\"Iheb\"}", chain);
+
+        assertThat(perform("k2", "{\"firstName\":\"Sara\"}", chain).getStatus()).isEqualTo(422);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("♻️ Les erreurs ne sont pas enregistrées : un nouvel essai s'exécute")
+    void testErrorsAreNotStored() throws Exception {
+        FilterChain conflict = created(409);
+        perform("k3", "{}", conflict);
+        perform("k3", "{}", conflict);
+
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("🧵 Doublons simultanés : une seule exécution, même réponse pour tous")
+    void testConcurrentDuplicates() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            await(release);
+            executions.incrementAndGet();
+            response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(pool.submit(() -> perform("k4", "{}", slow)));
+        }
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<MockHttpServletResponse> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1}");
+        }
+        pool.shutdown();
+
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("🌐 Doublon sur une autre instance pendant l'exécution : 409, puis rejeu une fois terminé")
+    void testDuplicateOnOtherInstanceWhileInProgress() throws Exception {
+        IdempotencyFilter otherInstance = instance(Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            await(release);
+            executions.incrementAndGet();
+            response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<MockHttpServletResponse> original = pool.submit(() -> perform(filter, "k5", "{}", slow));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse duplicate = perform(otherInstance, "k5", "{}", slow);
+        assertThat(duplicate.getStatus()).isEqualTo(409);
+        assertThat(duplicate.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo(IdempotencyFilter.RETRY_AFTER_SECONDS);
+
+        release.countDown();
+        assertThat(original.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1}");
+        pool.shutdown();
+        MockHttpServletResponse retried = perform(otherInstance, "k5", "{}", slow);
+
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(retried.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(retried.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    @DisplayName("⏳ Doublon sur une autre instance : attend la réponse de l'original si elle arrive à temps")
+    void testDuplicateOnOtherInstanceWaitsForResponse() throws Exception {
+        IdempotencyFilter otherInstance = instance(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            sleep(300);
+            executions.incrementAndGet();
+            response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<MockHttpServletResponse> original = pool.submit(() -> perform(filter, "k6", "{}", slow));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse duplicate = perform(otherInstance, "k6", "{}", slow);
+        original.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(duplicate.getStatus()).isEqualTo(200);
+        assertThat(duplicate.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(duplicate.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    @DisplayName("💥 Exception du contrôleur : la réservation est libérée")
+    void testClaimReleasedOnException() throws Exception {
+        FilterChain failing = (request, response) -> {
+            executions.incrementAndGet();
+            throw new ServletException("boom");
+        };
+        assertThatThrownBy(() -> perform("k7", "{}", failing)).isInstanceOf(ServletException.class);
+
+        assertThat(store.find("/students/createStudent k7")).isEmpty();
+        assertThat(perform("k7", "{}", created(201)).getStatus()).isEqualTo(201);
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("📖 Lecture non bloquante du corps mis en cache : données disponibles puis fin de lecture")
+    void testReadListener() throws Exception {
+        List<String> callbacks = new ArrayList<>();
+        FilterChain chain = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    callbacks.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    callbacks.add("fin");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    callbacks.add("erreur");
+                }
+            });
+        };
+        perform("k8", "{\"a\":1}", chain);
+
+        assertThat(callbacks).containsExactly("{\"a\":1}", "fin");
+    }
+
+    @Test
+    @DisplayName("⚠️ IOException dans le ReadListener : transmise à onError")
+    void testReadListenerError() throws Exception {
+        List<Throwable> errors = new ArrayList<>();
+        FilterChain chain = (request, response) -> request.getInputStream().setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                throw new IOException("lecture");
+            }
+
+            @Override
+            public void onAllDataRead() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                errors.add(t);
+            }
+        });
+        perform("k9", "{}", chain);
+
+        assertThat(errors).singleElement().extracting(Throwable::getMessage).isEqualTo("lecture");
+    }
+
+    @Test
+    @DisplayName("🙈 Sans en-tête ou hors POST : aucun effet")
+    void testWithoutHeader() throws Exception {
+        FilterChain chain = created(200);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/students/createStudent");
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    /** Une « instance » : son propre RequestCoalescer, le stockage partagé. */
+    private IdempotencyFilter instance(Duration inProgressWait) {
+        return new IdempotencyFilter(store, new RequestCoalescer(new SimpleMeterRegistry()), inProgressWait);
+    }
+
+    private MockHttpServletResponse perform(String key, String body, FilterChain chain) throws Exception {
+        return perform(filter, key, body, chain);
+    }
+
+    private static MockHttpServletResponse perform(IdempotencyFilter filter, String key, String body,
+                                                   FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/students/createStudent");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private FilterChain created(int status) {
+        return (request, response) -> {
+            int n = executions.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(status);
+            http.setContentType("application/json");
+            http.getOutputStream().write(("{\"id\":" + n + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import tn.esprit.studentmanagement.dto.QueryShapeStatsDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryInstrumentationTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private QueryInstrumentation instrumentation;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:queries-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        instrumentation = new QueryInstrumentation(meterRegistry, Duration.ofHours(1), 10, 100, 5);
+        jdbc = new JdbcTemplate(new InstrumentedDataSource(h2, instrumentation));
+        jdbc.execute("CREATE TABLE student (id_student BIGINT PRIMARY KEY, first_name VARCHAR(50))");
+    }
+
+    @Test
+    @DisplayName("🧩 Normalisation : littéraux et listes IN réduits à une même forme")
+    void testNormalize() {
+        assertThat(QueryInstrumentation.normalize("select s1_0.id from student s1_0 where s1_0.id in (?, ?,?)  and name = 'O''Brien'"))
+                .isEqualTo("select s1_0.id from student s1_0 where s1_0.id in (?...) and name = ?");
+        assertThat(QueryInstrumentation.normalize("delete from student where id_student = 42"))
+                .isEqualTo(QueryInstrumentation.normalize("delete from student where id_student = 7"));
+        // listes IN et littéraux très longs : pas de débordement de pile
+        String inList = "?" + ", ?".repeat(9_999);
+        assertThat(QueryInstrumentation.normalize("delete from enrollment where id_enrollment in (" + inList + ")"))
+                .isEqualTo("delete from enrollment where id_enrollment in (?...)");
+        assertThat(QueryInstrumentation.normalize("update student set address = '" + "x".repeat(50_000) + "''" + "x".repeat(50_000) + "'"))
+                .isEqualTo("update student set address = ?");
+    }
+
+    @Test
+    @DisplayName("⏱️ Latence et lignes par forme : préparées, batch et lectures")
+    void testShapeMetrics() {
+        jdbc.batchUpdate("INSERT INTO student (id_student, first_name) VALUES (?, ?)",
+                List.of(new Object[]{1L, "Iheb"}, new Object[]{2L, "Sara"}, new Object[]{3L, "Ali"}));
+        for (long id = 1; id <= 3; id++) {
+            jdbc.queryForList("SELECT first_name FROM student WHERE id_student = ?", String.class, id);
+        }
+        jdbc.queryForList("SELECT first_name FROM student", String.class);
+
+        QueryShapeStatsDto insert = shape("insert");
+        assertThat(insert.table()).isEqualTo("student");
+        assertThat(insert.count()).isEqualTo(1);
+        assertThat(insert.rows()).isEqualTo(3);
+        assertThat(meterRegistry.get("db.query").tag("shape", insert.shape()).timer().count()).isEqualTo(1);
+
+        List<QueryShapeStatsDto> selects = instrumentation.topShapes(10).stream()
+                .filter(s -> s.operation().equals("select")).toList();
+        assertThat(selects).extracting(QueryShapeStatsDto::count).containsExactlyInAnyOrder(3L, 1L);
+        assertThat(selects).extracting(QueryShapeStatsDto::rows).containsExactlyInAnyOrder(3L, 3L);
+    }
+
+    @Test
+    @DisplayName("🐢 Requête au-delà du seuil : compteur et échantillon")
+    void testSlowQuery() {
+        instrumentation = new QueryInstrumentation(meterRegistry, Duration.ZERO, 2, 100, 5);
+        QueryInstrumentation.Shape shape = instrumentation.shapeOf("select * from student where id_student = 1");
+
+        for (int i = 0; i < 3; i++) {
+            instrumentation.recordExecution(shape, 1_000_000, -1);
+        }
+
+        assertThat(meterRegistry.get("db.query.slow").counter().count()).isEqualTo(3.0);
+        assertThat(instrumentation.slowQueries()).hasSize(2)
+                .allSatisfy(sample -> assertThat(sample.sql()).isEqualTo("select * from student where id_student = ?"));
+    }
+
+    @Test
+    @DisplayName("🔁 Même forme répétée dans une requête HTTP : N+1 signalé")
+    void testRepeatedStatementsPerRequest() throws Exception {
+        jdbc.update("INSERT INTO student (id_student, first_name) VALUES (1, 'Iheb')");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/students/getAllStudents");
+
+        new QueryStatsFilter(instrumentation).doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/students/getAllStudents");
+            for (int i = 0; i < 6; i++) {
+                jdbc.queryForList("SELECT first_name FROM student WHERE id_student = ?", String.class, 1L);
+            }
+        });
+
+        assertThat(meterRegistry.get("db.request.statements").tag("uri", "/students/getAllStudents")
+                .summary().totalAmount()).isEqualTo(6.0);
+        assertThat(meterRegistry.get("db.request.repeated.statements").counter().count()).isEqualTo(1.0);
+    }
+
+    private QueryShapeStatsDto shape(String operation) {
+        return instrumentation.topShapes(10).stream()
+                .filter(s -> s.operation().equals(operation))
+                .findFirst().orElseThrow();
+    }
+}
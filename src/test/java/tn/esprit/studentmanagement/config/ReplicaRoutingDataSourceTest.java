@@ -0,0 +1,127 @@
+package tn.esprit.studentmanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = h2("primary");
+    private final FlakyDataSource replica = new FlakyDataSource(h2("replica"));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+            primary, new LinkedHashMap<>(Map.of("replica-0", replica)), Duration.ofSeconds(5), meterRegistry);
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setCurrentTransactionName(null);
+    }
+
+    @Test
+    @DisplayName("🪞 readOnly → réplica ; écriture et primary-read → primaire")
+    void testRouting() throws Exception {
+        makeReplicaHealthy();
+
+        assertThat(target()).contains("primary");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(target()).contains("replica");
+        TransactionSynchronizationManager.setCurrentTransactionName(ReplicaRoutingDataSource.PRIMARY_READ);
+        assertThat(target()).contains("primary");
+        assertThat(meterRegistry.get("datasource.replicas.healthy").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("🚦 Réplica non vérifié ou en retard au-delà de la tolérance : lectures sur le primaire")
+    void testLaggingReplica() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(target()).contains("primary");
+
+        makeReplicaHealthy();
+        assertThat(target()).contains("replica");
+
+        // Le réplica garde un battement vieux d'une minute : 60 s de retard > 5 s tolérées
+        new JdbcTemplate(primary).update("UPDATE replica_heartbeat SET beat_millis = beat_millis + 60000");
+        routing.checkReplicas();
+        assertThat(target()).contains("primary");
+
+        replicateHeartbeat();
+        routing.checkReplicas();
+        assertThat(target()).contains("replica");
+    }
+
+    @Test
+    @DisplayName("🔌 Réplica injoignable : repli sur le primaire et réplica écarté")
+    void testUnreachableReplica() throws Exception {
+        makeReplicaHealthy();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        replica.down = true;
+        assertThat(target()).contains("primary");
+        assertThat(meterRegistry.get("datasource.routing.fallbacks").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("datasource.replicas.healthy").gauge().value()).isZero();
+
+        replica.down = false;
+        routing.checkReplicas();
+        assertThat(target()).contains("replica");
+    }
+
+    /** Deux passages : le premier écrit le battement, le second le mesure une fois « répliqué ». */
+    private void makeReplicaHealthy() {
+        routing.checkReplicas();
+        replicateHeartbeat();
+        routing.checkReplicas();
+    }
+
+    private void replicateHeartbeat() {
+        Long beat = new JdbcTemplate(primary).queryForObject("SELECT beat_millis FROM replica_heartbeat WHERE id = 1", Long.class);
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        replicaJdbc.update("DELETE FROM replica_heartbeat");
+        replicaJdbc.update("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, ?)", beat);
+    }
+
+    private String target() throws SQLException {
+        try (Connection connection = routing.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    private static DataSource h2(String role) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + role + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    /** Réplica qu'on peut rendre injoignable. */
+    private static final class FlakyDataSource extends DelegatingDataSource {
+        private volatile boolean down;
+
+        FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package tn.esprit.studentmanagement.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.studentmanagement.dto.CourseDto;
+import tn.esprit.studentmanagement.dto.CourseGradeStatsDto;
+import tn.esprit.studentmanagement.dto.CourseSeatsDto;
+import tn.esprit.studentmanagement.dto.LeaderboardEntryDto;
+import tn.esprit.studentmanagement.dto.StudentRankDto;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.services.ICourseService;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CourseController.class)
+class CourseControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ICourseService courseService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("📋 Récupérer tous les cours")
+    void testGetAllCourses() throws Exception {
+        when(courseService.getAllCourseDtos()).thenReturn(List.of(new CourseDto(1L, "DevOps", "DV101", 4, null, null)));
+
+        mockMvc.perform(get("/Course/getAllCourse"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].code").value("DV101"))
+                .andExpect(jsonPath("$[0].credit").value(4));
+    }
+
+    @Test
+    @DisplayName("➕ Ajouter un cours")
+    void testAddCourse() throws Exception {
+        Course course = new Course();
+        course.setIdCourse(1L);
+        course.setName("Microservices");
+        course.setCredit(6);
+
+        when(courseService.saveCourse(any(Course.class))).thenReturn(course);
+
+        mockMvc.perform(post("/Course/createCourse")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(course)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Microservices"));
+    }
+
+    @Test
+    @DisplayName("🔍 Trouver un cours par ID")
+    void testGetCourseById() throws Exception {
+        when(courseService.getCourseDtoById(2L)).thenReturn(new CourseDto(2L, "Spring Boot", "SB202", 3, null, null));
+
+        mockMvc.perform(get("/Course/getCourse/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Spring Boot"));
+    }
+
+    @Test
+    @DisplayName("❌ Supprimer un cours")
+    void testDeleteCourse() throws Exception {
+        doNothing().when(courseService).deleteCourse(1L);
+
+        mockMvc.perform(delete("/Course/deleteCourse/1"))
+                .andExpect(status().isOk());
+
+        verify(courseService, times(1)).deleteCourse(1L);
+    }
+
+    @Test
+    @DisplayName("📊 Statistiques de notes d'un cours")
+    void testGetCourseStats() throws Exception {
+        when(courseService.getCourseStats(1L)).thenReturn(new CourseGradeStatsDto(1L, 4, 12.5, 8.0, 17.0, 0.75));
+
+        mockMvc.perform(get("/Course/getCourseStats/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.gradedCount").value(4))
+                .andExpect(jsonPath("$.average").value(12.5))
+                .andExpect(jsonPath("$.passRate").value(0.75));
+    }
+
+    @Test
+    @DisplayName("🏆 Classement d'un cours et rang d'un étudiant")
+    void testLeaderboardAndRank() throws Exception {
+        when(courseService.getLeaderboard(1L, 2)).thenReturn(List.of(
+                new LeaderboardEntryDto(1, 10L, 100L, 18.0),
+                new LeaderboardEntryDto(2, 11L, 101L, 16.5)));
+        when(courseService.getStudentRank(1L, 101L)).thenReturn(new StudentRankDto(1L, 101L, 2L, 16.5));
+
+        mockMvc.perform(get("/Course/getLeaderboard/1").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].rank").value(2));
+
+        mockMvc.perform(get("/Course/getStudentRank/1/101"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").value(2))
+                .andExpect(jsonPath("$.grade").value(16.5));
+    }
+
+    @Test
+    @DisplayName("🎟️ Places restantes d'un cours")
+    void testGetCourseSeats() throws Exception {
+        when(courseService.getCourseSeats(1L)).thenReturn(new CourseSeatsDto(1L, 30, 28));
+
+        mockMvc.perform(get("/Course/getCourseSeats/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.seatsTaken").value(28))
+                .andExpect(jsonPath("$.available").value(2));
+    }
+}
@@ -8,10 +8,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.studentmanagement.dto.DepartmentDto;
+import tn.esprit.studentmanagement.dto.DepartmentRollupDto;
+import tn.esprit.studentmanagement.dto.GradeDistributionDto;
 import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Status;
 import tn.esprit.studentmanagement.services.IDepartmentService;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -38,7 +43,7 @@ class DepartmentControllerTest {
         d1.setName("Informatique");
         d1.setLocation("Bloc A");
 
-        when(departmentService.getAllDepartments()).thenReturn(List.of(d1));
+        when(departmentService.getAllDepartmentDtos()).thenReturn(List.of(DepartmentDto.from(d1)));
 
         mockMvc.perform(get("/Depatment/getAllDepartment"))
                 .andExpect(status().isOk())
@@ -72,7 +77,7 @@ class DepartmentControllerTest {
         d.setName("Génie Civil");
         d.setLocation("Bloc D");
 
-        when(departmentService.getDepartmentById(2L)).thenReturn(d);
+        when(departmentService.getDepartmentDtoById(2L)).thenReturn(DepartmentDto.from(d));
 
         mockMvc.perform(get("/Depatment/getDepartment/2"))
                 .andExpect(status().isOk())
@@ -80,6 +85,32 @@ class DepartmentControllerTest {
                 .andExpect(jsonPath("$.location").value("Bloc D"));
     }
 
+    @Test
+    @DisplayName("📊 Synthèse par département")
+    void testGetDepartmentRollup() throws Exception {
+        when(departmentService.getDepartmentRollup()).thenReturn(List.of(
+                new DepartmentRollupDto(1L, "Informatique", 120, 45, 300, 12.4, Map.of(Status.ACTIVE, 45L))));
+
+        mockMvc.perform(get("/Depatment/getDepartmentRollup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].studentCount").value(120))
+                .andExpect(jsonPath("$[0].activeEnrollments").value(45))
+                .andExpect(jsonPath("$[0].enrollmentsByStatus.ACTIVE").value(45));
+    }
+
+    @Test
+    @DisplayName("📈 Distribution des notes d'un département")
+    void testGetGradeDistribution() throws Exception {
+        when(departmentService.getGradeDistribution(1L)).thenReturn(new GradeDistributionDto(1L, 3, 12.125, 15.875, 0.125,
+                List.of(new GradeDistributionDto.Bin(12.0, 13.0, 2))));
+
+        mockMvc.perform(get("/Depatment/getGradeDistribution/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.median").value(12.125))
+                .andExpect(jsonPath("$.maxError").value(0.125))
+                .andExpect(jsonPath("$.histogram[0].count").value(2));
+    }
+
     @Test
     @DisplayName("❌ Supprimer un département")
     void testDeleteDepartment() throws Exception {
@@ -8,8 +8,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.studentmanagement.dto.BulkItemResult;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.GradeUpdate;
+import tn.esprit.studentmanagement.dto.WaitlistEntryDto;
+import tn.esprit.studentmanagement.dto.WriteTicketDto;
 import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.exceptions.CourseFullException;
 import tn.esprit.studentmanagement.services.IEnrollment;
+import tn.esprit.studentmanagement.services.IEnrollmentWriteQueue;
+import tn.esprit.studentmanagement.services.IWaitlistService;
 
 import java.util.List;
 
@@ -27,6 +35,12 @@ class EnrollmentControllerTest {
     @MockBean
     private IEnrollment enrollmentService; // ✅ corrige : interface, pas la classe concrète
 
+    @MockBean
+    private IWaitlistService waitlistService;
+
+    @MockBean
+    private IEnrollmentWriteQueue writeQueue;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -37,7 +51,7 @@ class EnrollmentControllerTest {
         e1.setIdEnrollment(1L);
         e1.setGrade(18.5);
 
-        when(enrollmentService.getAllEnrollments()).thenReturn(List.of(e1));
+        when(enrollmentService.getAllEnrollmentDtos()).thenReturn(List.of(EnrollmentDto.from(e1)));
 
         mockMvc.perform(get("/Enrollment/getAllEnrollment"))
                 .andExpect(status().isOk())
@@ -61,6 +75,17 @@ class EnrollmentControllerTest {
                 .andExpect(jsonPath("$.grade").value(15.0));
     }
 
+    @Test
+    @DisplayName("🚫 Cours complet : 409 Conflict")
+    void testAddEnrollmentCourseFull() throws Exception {
+        when(enrollmentService.saveEnrollment(any(Enrollment.class))).thenThrow(new CourseFullException(7L));
+
+        mockMvc.perform(post("/Enrollment/createEnrollment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Enrollment())))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @DisplayName("🔍 Trouver une inscription par ID")
     void testGetEnrollmentById() throws Exception {
@@ -68,7 +93,7 @@ class EnrollmentControllerTest {
         e.setIdEnrollment(2L);
         e.setGrade(17.0);
 
-        when(enrollmentService.getEnrollmentById(2L)).thenReturn(e);
+        when(enrollmentService.getEnrollmentDtoById(2L)).thenReturn(EnrollmentDto.from(e));
 
         mockMvc.perform(get("/Enrollment/getEnrollment/2"))
                 .andExpect(status().isOk())
@@ -86,4 +111,50 @@ class EnrollmentControllerTest {
 
         verify(enrollmentService, times(1)).deleteEnrollment(1L);
     }
+
+    @Test
+    @DisplayName("⏳ Rejoindre puis consulter la liste d'attente d'un cours")
+    void testWaitlist() throws Exception {
+        WaitlistEntryDto entry = new WaitlistEntryDto(4L, 9L, 2L, null);
+        when(waitlistService.joinWaitlist(2L, 9L)).thenReturn(entry);
+        when(waitlistService.getWaitlist(2L)).thenReturn(List.of(entry));
+
+        mockMvc.perform(post("/Enrollment/joinWaitlist/2/9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idWaitlistEntry").value(4L));
+
+        mockMvc.perform(get("/Enrollment/getWaitlist/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].studentId").value(9L));
+    }
+
+    @Test
+    @DisplayName("⏱️ Écriture différée : 202 avec un ID de suivi")
+    void testSubmitEnrollment() throws Exception {
+        when(writeQueue.submitEnrollment(any(Enrollment.class)))
+                .thenReturn(new WriteTicketDto("abc", WriteTicketDto.State.PENDING, null, null));
+
+        mockMvc.perform(post("/Enrollment/submitEnrollment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Enrollment())))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.trackingId").value("abc"))
+                .andExpect(jsonPath("$.state").value("PENDING"));
+    }
+
+    @Test
+    @DisplayName("📝 Saisie des notes d'un cours en masse")
+    void testPostGrades() throws Exception {
+        when(enrollmentService.postGrades(eq(2L), anyList())).thenReturn(List.of(
+                new BulkItemResult(0, 5L, BulkItemResult.Outcome.UPDATED, null),
+                BulkItemResult.rejected(1, 6L, "Inscription introuvable dans ce cours")));
+
+        mockMvc.perform(put("/Enrollment/postGrades/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new GradeUpdate(5L, 15.5, null), new GradeUpdate(6L, 9.0, null)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$[1].outcome").value("REJECTED"));
+    }
 }
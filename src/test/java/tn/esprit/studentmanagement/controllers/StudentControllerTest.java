@@ -8,11 +8,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.StudentDto;
+import tn.esprit.studentmanagement.dto.StudentSearchHit;
+import tn.esprit.studentmanagement.dto.TranscriptDto;
+import tn.esprit.studentmanagement.entities.Status;
 import tn.esprit.studentmanagement.entities.Student;
 import tn.esprit.studentmanagement.services.IStudentService;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,7 +45,7 @@ class StudentControllerTest {
         s1.setLastName("Jdey");
         s1.setEmail("iheb@example.com");
 
-        when(studentService.getAllStudents()).thenReturn(List.of(s1));
+        when(studentService.getAllStudentDtos()).thenReturn(List.of(StudentDto.from(s1)));
 
         mockMvc.perform(get("/students/getAllStudents"))
                 .andExpect(status().isOk())
@@ -72,13 +79,81 @@ class StudentControllerTest {
         s.setFirstName("Sara");
         s.setEmail("sara@example.com");
 
-        when(studentService.getStudentById(1L)).thenReturn(s);
+        when(studentService.getStudentDtoById(1L)).thenReturn(StudentDto.from(s));
 
         mockMvc.perform(get("/students/getStudent/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.email").value("sara@example.com"));
     }
 
+    @Test
+    @DisplayName("📤 Exporter les étudiants en NDJSON")
+    void testExportStudents() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<StudentDto> sink = invocation.getArgument(0);
+            sink.accept(new StudentDto(1L, "Iheb", "Jdey", "iheb@example.com", null, null, null, null));
+            sink.accept(new StudentDto(2L, "Sara", "Ben Ali", "sara@example.com", null, null, null, 3L));
+            return null;
+        }).when(studentService).exportStudents(any());
+
+        var result = mockMvc.perform(get("/students/exportStudents"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[1]).get("departmentId").asLong()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("🧺 Récupérer plusieurs étudiants par ID")
+    void testGetStudentsByIds() throws Exception {
+        StudentDto dto = new StudentDto(1L, "Iheb", "Jdey", "iheb@example.com", null, null, null, null);
+        when(studentService.getStudentsByIds(List.of(1L, 9L)))
+                .thenReturn(List.of(new BatchGetItem<>(1L, true, dto), new BatchGetItem<>(9L, false, null)));
+
+        mockMvc.perform(post("/students/getStudentsByIds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 9]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[0].value.firstName").value("Iheb"))
+                .andExpect(jsonPath("$[1].id").value(9L))
+                .andExpect(jsonPath("$[1].found").value(false));
+    }
+
+    @Test
+    @DisplayName("🎓 Récupérer le relevé d'un étudiant")
+    void testGetTranscript() throws Exception {
+        TranscriptDto transcript = new TranscriptDto(1L, "Iheb", "Jdey", 2L, "Informatique", List.of(
+                new TranscriptDto.Line(5L, 7L, "CS101", "Algorithmique", 4, null, 15.5, Status.COMPLETED)));
+        when(studentService.getTranscript(1L)).thenReturn(transcript);
+
+        mockMvc.perform(get("/students/getTranscript/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.departmentName").value("Informatique"))
+                .andExpect(jsonPath("$.lines[0].courseCode").value("CS101"))
+                .andExpect(jsonPath("$.lines[0].credit").value(4))
+                .andExpect(jsonPath("$.lines[0].status").value("COMPLETED"));
+    }
+
+    @Test
+    @DisplayName("🔎 Rechercher des étudiants")
+    void testSearchStudents() throws Exception {
+        when(studentService.searchStudents("ihe", 5))
+                .thenReturn(List.of(new StudentSearchHit(1L, "Iheb", "Jdey", "iheb@example.com")));
+
+        mockMvc.perform(get("/students/search").param("q", "ihe").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idStudent").value(1L))
+                .andExpect(jsonPath("$[0].lastName").value("Jdey"));
+    }
+
     @Test
     @DisplayName("❌ Supprimer un étudiant")
     void testDeleteStudent() throws Exception {
@@ -10,10 +10,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.test.web.servlet.MockMvc;
+import io.micrometer.core.instrument.MeterRegistry;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.entities.Course;
 import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
 import tn.esprit.studentmanagement.repositories.DepartmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.services.IDepartmentService;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -41,6 +52,21 @@ class DepartmentIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private IDepartmentService departmentService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
     // ============================
     // 🔹 Test 1 : Création
     // ============================
@@ -105,6 +131,76 @@ class DepartmentIntegrationTest {
                 .andExpect(jsonPath("$.head").value("Mr. Fakhfakh"));
     }
 
+    // ============================
+    // 🔹 Test 3 bis : Cache des départements
+    // ============================
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // le cache n'est alimenté qu'après commit
+    @DisplayName("🗃️ Lecture en cache puis invalidation à l'écriture")
+    void testDepartmentCacheHitAndEviction() {
+        Department dep = new Department();
+        dep.setName("Réseaux");
+        Department saved = departmentRepository.save(dep);
+        Long id = saved.getIdDepartment();
+
+        departmentService.getDepartmentDtoById(id);
+        departmentService.getDepartmentDtoById(id);
+        assertThat(cacheGets("hit")).isEqualTo(1.0);
+        assertThat(cacheGets("miss")).isEqualTo(1.0);
+
+        saved.setName("Télécom");
+        departmentService.saveDepartment(saved);
+
+        assertThat(departmentService.getDepartmentDtoById(id).name()).isEqualTo("Télécom");
+        assertThat(cacheGets("miss")).isEqualTo(2.0);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.DEPARTMENTS)
+                .tag("result", result)
+                .functionCounter().count();
+    }
+
+    // ============================
+    // 🔹 Test 3 ter : Synthèse par département
+    // ============================
+    @Test
+    @DisplayName("📊 Synthèse : effectifs, inscriptions actives et moyenne par département")
+    void testDepartmentRollup() throws Exception {
+        Department info = new Department();
+        info.setName("Informatique");
+        departmentRepository.save(info);
+        Department empty = new Department();
+        empty.setName("Finance");
+        departmentRepository.save(empty);
+        Course course = courseRepository.save(new Course());
+
+        Status[] statuses = {Status.ACTIVE, Status.ACTIVE, Status.COMPLETED};
+        double[] grades = {12.0, 14.0, 16.0};
+        for (int i = 0; i < statuses.length; i++) {
+            Student s = new Student();
+            s.setDepartment(info);
+            studentRepository.save(s);
+            Enrollment e = new Enrollment();
+            e.setStudent(s);
+            e.setCourse(course);
+            e.setStatus(statuses[i]);
+            e.setGrade(grades[i]);
+            enrollmentRepository.save(e);
+        }
+
+        mockMvc.perform(get("/Depatment/getDepartmentRollup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Informatique"))
+                .andExpect(jsonPath("$[0].studentCount").value(3))
+                .andExpect(jsonPath("$[0].activeEnrollments").value(2))
+                .andExpect(jsonPath("$[0].averageGrade").value(14.0))
+                .andExpect(jsonPath("$[1].studentCount").value(0))
+                .andExpect(jsonPath("$[1].averageGrade").doesNotExist());
+    }
+
     // ============================
     // 🔹 Test 4 : Suppression
     // ============================
@@ -5,20 +5,29 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.studentmanagement.dto.TranscriptDto;
 import tn.esprit.studentmanagement.entities.Course;
 import tn.esprit.studentmanagement.entities.Enrollment;
 import tn.esprit.studentmanagement.entities.Status;
 import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
 import tn.esprit.studentmanagement.repositories.CourseRepository;
 import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
 import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.services.CourseGradeStatistics;
+import tn.esprit.studentmanagement.services.CourseLeaderboard;
+import tn.esprit.studentmanagement.services.EnrollmentArchiver;
+import tn.esprit.studentmanagement.services.GpaEngine;
+import tn.esprit.studentmanagement.services.IStudentService;
 
 import java.time.LocalDate;
 
@@ -30,7 +39,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * ✅ Test d’intégration complet pour le module Enrollment :
  * Compatible avec @RequestMapping("/Enrollment") (avec majuscule)
  */
-@SpringBootTest
+@SpringBootTest(properties = {"app.enrollment.archive.batch-size=2", "app.enrollment.archive.pause=0ms"})
 @AutoConfigureMockMvc
 @AutoConfigureTestDatabase // force H2 en mémoire
 @ActiveProfiles("test")
@@ -53,6 +62,21 @@ class EnrollmentIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CourseLeaderboard courseLeaderboard;
+
+    @Autowired
+    private ArchivedEnrollmentRepository archivedEnrollmentRepository;
+
+    @Autowired
+    private EnrollmentArchiver enrollmentArchiver;
+
+    @Autowired
+    private GpaEngine gpaEngine;
+
+    @Autowired
+    private IStudentService studentService;
+
     // ============================
     // 🔹 Test 1 : Création
     // ============================
@@ -161,6 +185,206 @@ class EnrollmentIntegrationTest {
                 .andExpect(jsonPath("$.status").value("ACTIVE"));
     }
 
+    // ============================
+    // 🔹 Test 3 bis : Statistiques par cours
+    // ============================
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // les agrégats suivent les commits
+    @DisplayName("📊 Statistiques du cours mises à jour à la création, modification et suppression")
+    void testCourseStatsFollowWrites() throws Exception {
+        Student s = studentRepository.save(new Student());
+        Course c = new Course();
+        c.setName("Bases de données");
+        c.setCode("BD100");
+        c = courseRepository.save(c);
+
+        Enrollment e = new Enrollment();
+        e.setGrade(8.0);
+        e.setStatus(Status.ACTIVE);
+        e.setStudent(s);
+        e.setCourse(c);
+        String body = mockMvc.perform(post("/Enrollment/createEnrollment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(e)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        e.setIdEnrollment(objectMapper.readTree(body).get("idEnrollment").asLong());
+
+        mockMvc.perform(get("/Course/getCourseStats/" + c.getIdCourse()))
+                .andExpect(jsonPath("$.gradedCount").value(1))
+                .andExpect(jsonPath("$.passRate").value(0.0));
+
+        e.setGrade(14.0);
+        mockMvc.perform(put("/Enrollment/updateEnrollment")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(e)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/Course/getCourseStats/" + c.getIdCourse()))
+                .andExpect(jsonPath("$.gradedCount").value(1))
+                .andExpect(jsonPath("$.max").value(14.0))
+                .andExpect(jsonPath("$.passRate").value(1.0));
+
+        mockMvc.perform(delete("/Enrollment/deleteEnrollment/" + e.getIdEnrollment()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/Course/getCourseStats/" + c.getIdCourse()))
+                .andExpect(jsonPath("$.gradedCount").value(0));
+    }
+
+    // ============================
+    // 🔹 Test 3 quater : Saisie des notes en masse
+    // ============================
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // les agrégats suivent les commits
+    @DisplayName("📝 Notes en masse : colonnes modifiées, places libérées, statistiques à jour")
+    void testPostGrades() throws Exception {
+        Course c = new Course();
+        c.setName("Réseaux");
+        c.setCapacity(10);
+        c = courseRepository.save(c);
+        Long[] ids = new Long[3];
+        for (int i = 0; i < ids.length; i++) {
+            Enrollment e = new Enrollment();
+            e.setStatus(Status.ACTIVE);
+            e.setEnrollmentDate(LocalDate.of(2025, 9, 15));
+            e.setStudent(studentRepository.save(new Student()));
+            e.setCourse(c);
+            String body = mockMvc.perform(post("/Enrollment/createEnrollment")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(e)))
+                    .andReturn().getResponse().getContentAsString();
+            ids[i] = objectMapper.readTree(body).get("idEnrollment").asLong();
+        }
+
+        String grades = "[{\"idEnrollment\":" + ids[0] + ",\"grade\":12.5,\"status\":\"COMPLETED\"},"
+                + "{\"idEnrollment\":" + ids[1] + ",\"grade\":8.0},"
+                + "{\"idEnrollment\":999999,\"grade\":10.0}]";
+        mockMvc.perform(put("/Enrollment/postGrades/" + c.getIdCourse())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(grades))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$[1].outcome").value("UPDATED"))
+                .andExpect(jsonPath("$[2].outcome").value("REJECTED"));
+
+        Enrollment completed = enrollmentRepository.findById(ids[0]).orElseThrow();
+        assertThat(completed.getGrade()).isEqualTo(12.5);
+        assertThat(completed.getStatus()).isEqualTo(Status.COMPLETED);
+        assertThat(completed.getEnrollmentDate()).isEqualTo(LocalDate.of(2025, 9, 15));
+        assertThat(enrollmentRepository.findById(ids[1]).orElseThrow().getStatus()).isEqualTo(Status.ACTIVE);
+        assertThat(courseRepository.findSeatsById(c.getIdCourse()).orElseThrow().seatsTaken()).isEqualTo(2);
+
+        mockMvc.perform(get("/Course/getCourseStats/" + c.getIdCourse()))
+                .andExpect(jsonPath("$.gradedCount").value(2))
+                .andExpect(jsonPath("$.passRate").value(0.5));
+        mockMvc.perform(get("/Enrollment/getEnrollment/" + ids[1]))
+                .andExpect(jsonPath("$.grade").value(8.0));
+    }
+
+    // ============================
+    // 🔹 Test 3 ter : Classement par cours
+    // ============================
+    @Test
+    @DisplayName("🏆 Classement du cours et rang d'un étudiant hors du top")
+    void testCourseLeaderboard() throws Exception {
+        Course c = courseRepository.save(new Course());
+        Student last = null;
+        double[] grades = {11.0, 18.0, 15.0, 18.0};
+        for (double grade : grades) {
+            last = studentRepository.save(new Student());
+            Enrollment e = new Enrollment();
+            e.setGrade(grade);
+            e.setStatus(Status.COMPLETED);
+            e.setStudent(last);
+            e.setCourse(c);
+            enrollmentRepository.save(e);
+        }
+        Enrollment dropped = new Enrollment();
+        dropped.setGrade(20.0);
+        dropped.setStatus(Status.DROPPED);
+        dropped.setStudent(last);
+        dropped.setCourse(c);
+        enrollmentRepository.save(dropped);
+        courseLeaderboard.rebuild();
+
+        mockMvc.perform(get("/Course/getLeaderboard/" + c.getIdCourse()).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].grade").value(18.0))
+                .andExpect(jsonPath("$[1].rank").value(1))
+                .andExpect(jsonPath("$[2].rank").value(3));
+
+        // requêtes de repli utilisées quand l'étudiant n'est pas dans le top gardé en mémoire
+        Double best = enrollmentRepository.findBestRankedGrade(c.getIdCourse(), last.getIdStudent(),
+                CourseGradeStatistics.EXCLUDED_STATUSES);
+        assertThat(best).isEqualTo(18.0);
+        assertThat(enrollmentRepository.countRankedAbove(c.getIdCourse(), 15.0,
+                CourseGradeStatistics.EXCLUDED_STATUSES)).isEqualTo(2);
+        assertThat(enrollmentRepository.findRankedByCourse(c.getIdCourse(),
+                CourseGradeStatistics.EXCLUDED_STATUSES, Limit.of(10))).hasSize(4);
+    }
+
+    // ============================
+    // 🔹 Test 3 quinquies : Archivage des inscriptions clôturées
+    // ============================
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // une transaction par bloc déplacé
+    @DisplayName("🗄️ Archivage : inscriptions clôturées déplacées par blocs, relevé et moyenne inchangés")
+    void testArchiveClosedEnrollments() throws Exception {
+        Student s = studentRepository.save(new Student());
+        Course c = new Course();
+        c.setName("Compilation");
+        c.setCode("CP300");
+        c.setCredit(4);
+        c = courseRepository.save(c);
+        LocalDate old = LocalDate.of(2023, 6, 1);
+        Long completed = saveEnrollment(s, c, Status.COMPLETED, old, 12.0);
+        saveEnrollment(s, c, Status.FAILED, old, 6.0);
+        saveEnrollment(s, c, Status.WITHDRAWN, old, null);
+        Long active = saveEnrollment(s, c, Status.ACTIVE, old, null);
+        saveEnrollment(s, c, Status.COMPLETED, LocalDate.now(), 18.0);
+        gpaEngine.refresh(s.getIdStudent());
+        assertThat(gpaEngine.getGpa(s.getIdStudent()).gpa()).isEqualTo(12.0);
+
+        // fiche en cache avant l'archivage
+        mockMvc.perform(get("/Enrollment/getEnrollment/" + completed))
+                .andExpect(jsonPath("$.grade").value(12.0));
+
+        // ✅ 3 lignes, blocs de 2 : deux transactions
+        assertThat(enrollmentArchiver.archiveBefore(LocalDate.of(2024, 1, 1))).isEqualTo(3);
+
+        assertThat(enrollmentRepository.findAll()).extracting(Enrollment::getIdEnrollment).hasSize(2).contains(active);
+        assertThat(archivedEnrollmentRepository.count()).isEqualTo(3);
+        assertThat(archivedEnrollmentRepository.findById(completed)).get()
+                .satisfies(a -> assertThat(a.getArchivedAt()).isNotNull())
+                .satisfies(a -> assertThat(a.getGrade()).isEqualTo(12.0));
+        mockMvc.perform(get("/Enrollment/getEnrollment/" + completed))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+
+        // relevé et moyenne : union des deux tables
+        TranscriptDto transcript = studentService.getTranscript(s.getIdStudent());
+        assertThat(transcript.lines()).hasSize(5);
+        assertThat(transcript.lines()).extracting(TranscriptDto.Line::courseCode).containsOnly("CP300");
+        gpaEngine.refresh(s.getIdStudent());
+        assertThat(gpaEngine.getGpa(s.getIdStudent()).gpa()).isEqualTo(12.0);
+        assertThat(gpaEngine.getGpa(s.getIdStudent()).credits()).isEqualTo(12);
+
+        // passage suivant : rien à reprendre
+        assertThat(enrollmentArchiver.archiveBefore(LocalDate.of(2024, 1, 1))).isZero();
+    }
+
+    private Long saveEnrollment(Student s, Course c, Status status, LocalDate date, Double grade) {
+        Enrollment e = new Enrollment();
+        e.setStudent(s);
+        e.setCourse(c);
+        e.setStatus(status);
+        e.setEnrollmentDate(date);
+        e.setGrade(grade);
+        return enrollmentRepository.save(e).getIdEnrollment();
+    }
+
     // ============================
     // 🔹 Test 4 : Suppression
     // ============================
@@ -0,0 +1,139 @@
+package tn.esprit.studentmanagement.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import tn.esprit.studentmanagement.config.IdempotencyFilter;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.services.IdempotencyStore;
+import tn.esprit.studentmanagement.services.IdempotencyStore.StoredResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * ✅ Idempotency-Key de bout en bout avec le stockage JDBC (table idempotency_key sur H2).
+ */
+@SpringBootTest(properties = {"app.idempotency.store=jdbc", "app.idempotency.in-progress-wait=200ms"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class IdempotencyIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Test
+    @DisplayName("🔁 createStudent renvoyé avec la même clé : un seul étudiant, même réponse")
+    void testRetriedCreateStudent() throws Exception {
+        Student student = new Student();
+        student.setFirstName("Iheb");
+        student.setEmail("iheb@example.com");
+        String body = objectMapper.writeValueAsString(student);
+
+        String first = mockMvc.perform(post("/students/createStudent")
+                        .header(IdempotencyFilter.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post("/students/createStudent")
+                        .header(IdempotencyFilter.HEADER, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().json(first, true));
+
+        assertThat(studentRepository.count()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_key", Integer.class)).isEqualTo(1);
+
+        mockMvc.perform(post("/students/createStudent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+        assertThat(studentRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("🔒 Clé réservée par une autre instance : pas d'exécution, 409 avec Retry-After")
+    void testKeyClaimedByOtherInstance() throws Exception {
+        Student student = new Student();
+        student.setFirstName("Sara");
+        String body = objectMapper.writeValueAsString(student);
+        String storeKey = "/students/createStudent claimed-1";
+        assertThat(store.claim(storeKey, fingerprint("/students/createStudent", body))).isTrue();
+
+        mockMvc.perform(post("/students/createStudent")
+                        .header(IdempotencyFilter.HEADER, "claimed-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isConflict())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        assertThat(studentRepository.count()).isZero();
+
+        // ✅ l'original échoue : sa réservation est libérée, le nouvel essai s'exécute
+        store.release(storeKey);
+        mockMvc.perform(post("/students/createStudent")
+                        .header(IdempotencyFilter.HEADER, "claimed-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertThat(studentRepository.count()).isEqualTo(1);
+        assertThat(store.find(storeKey)).get().extracting(StoredResponse::status).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("🗄️ Stockage JDBC : une seule réservation gagne, complétée puis non libérable")
+    void testJdbcClaimLifecycle() {
+        assertThat(store.claim("k", "a".repeat(64))).isTrue();
+        assertThat(store.claim("k", "a".repeat(64))).isFalse();
+        assertThat(store.find("k")).get().extracting(StoredResponse::inProgress).isEqualTo(true);
+
+        store.complete("k", new StoredResponse("a".repeat(64), 201, "application/json",
+                "{}".getBytes(StandardCharsets.UTF_8), Instant.now()));
+        store.release("k");
+
+        assertThat(store.claim("k", "a".repeat(64))).isFalse();
+        assertThat(store.find("k")).get().extracting(StoredResponse::status).isEqualTo(201);
+    }
+
+    private static String fingerprint(String uri, String body) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(("POST " + uri + "\n").getBytes(StandardCharsets.UTF_8));
+        digest.update(body.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,107 @@
+package tn.esprit.studentmanagement.integration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import tn.esprit.studentmanagement.config.ReplicaRoutingDataSource;
+import tn.esprit.studentmanagement.dto.StudentDto;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.services.IStudentService;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ✅ Séparation lecture/écriture sur deux bases H2 : primaire et réplica. La réplication est
+ * simulée par copie complète (SCRIPT / RUNSCRIPT) : tant qu'elle n'a pas eu lieu, le réplica
+ * est en retard, ce qui permet de voir de quelle base vient chaque lecture.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rr-primary",
+        "spring.datasource.hikari.maximum-pool-size=7",
+        "app.datasource.replicas[0].url=jdbc:h2:mem:rr-replica",
+        "app.datasource.replicas[0].username=sa",
+        "app.datasource.max-replica-lag=5s",
+        "app.datasource.replica-check-interval-ms=3600000"})
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReadReplicaIntegrationTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:rr-primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:rr-replica";
+
+    @Autowired
+    private IStudentService studentService;
+
+    @Autowired
+    private ReplicaRoutingDataSource routing;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("⚙️ Pool primaire configuré par spring.datasource.hikari.*")
+    void testPrimaryPoolBindsHikariProperties() {
+        assertThat(primaryDataSource.getMaximumPoolSize()).isEqualTo(7);
+        assertThat(primaryDataSource.getPoolName()).isEqualTo("primary");
+        assertThat(primaryDataSource.getJdbcUrl()).isEqualTo(PRIMARY_URL);
+    }
+
+    @Test
+    @DisplayName("🪞 Lectures readOnly sur le réplica, écritures sur le primaire, repli si retard")
+    void testReadWriteSplitting() {
+        routing.checkReplicas();
+        studentService.saveStudent(student("Iheb"));
+        replicate();
+        routing.checkReplicas();
+
+        // Écrit sur le primaire après la dernière réplication : absent du réplica
+        Student sara = studentService.saveStudent(student("Sara"));
+
+        assertThat(studentService.getAllStudentDtos()).extracting(StudentDto::firstName).containsExactly("Iheb");
+        assertThat(studentService.getStudentById(sara.getIdStudent())).isNull();
+        // Lecture mise en cache : toujours sur le primaire
+        assertThat(studentService.getStudentDtoById(sara.getIdStudent())).isNotNull();
+
+        // Le primaire avance d'une minute, le réplica ne suit pas : écarté, lectures sur le primaire
+        jdbc(PRIMARY_URL).update("UPDATE replica_heartbeat SET beat_millis = beat_millis + 60000");
+        routing.checkReplicas();
+        assertThat(studentService.getAllStudentDtos()).extracting(StudentDto::firstName)
+                .containsExactly("Iheb", "Sara");
+
+        replicate();
+        routing.checkReplicas();
+        assertThat(studentService.getAllStudentDtos()).hasSize(2);
+        assertThat(jdbc(REPLICA_URL).queryForObject("SELECT COUNT(*) FROM student", Integer.class)).isEqualTo(2);
+    }
+
+    /** Copie intégrale primaire → réplica, battement de cœur compris. */
+    private void replicate() {
+        String script = tempDir.resolve("replication.sql").toString().replace('\\', '/');
+        jdbc(PRIMARY_URL).execute("SCRIPT TO '" + script + "'");
+        JdbcTemplate replica = jdbc(REPLICA_URL);
+        replica.execute("DROP ALL OBJECTS");
+        replica.execute("RUNSCRIPT FROM '" + script + "'");
+    }
+
+    private static JdbcTemplate jdbc(String url) {
+        return new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+    }
+
+    private static Student student(String firstName) {
+        Student student = new Student();
+        student.setFirstName(firstName);
+        return student;
+    }
+}
@@ -0,0 +1,223 @@
+package tn.esprit.studentmanagement.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import tn.esprit.studentmanagement.dto.GradeUpdate;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.exceptions.CourseFullException;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.services.IEnrollment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ✅ Rush d'inscriptions : de nombreux threads se disputent les places de deux cours.
+ * Sans transaction de test : chaque inscription est commitée comme en production.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SeatReservationStressTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 400;
+    private static final int CAPACITY = 25;
+
+    @Autowired
+    private IEnrollment enrollmentService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Test
+    @DisplayName("🏃 Rush concurrent : jamais de surréservation, compteur exact")
+    void testConcurrentRegistrationRush() throws Exception {
+        Course popular = course(CAPACITY);
+        Course other = course(CAPACITY * 2);
+        Student student = studentRepository.save(new Student());
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            Course target = i % 2 == 0 ? popular : other;
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    enrollmentService.saveEnrollment(enrollment(student, target, Status.ACTIVE));
+                    accepted.incrementAndGet();
+                } catch (CourseFullException e) {
+                    rejected.incrementAndGet();
+                } catch (RuntimeException e) {
+                    unexpected.add(e);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertThat(unexpected).isEmpty();
+        assertThat(accepted.get()).isEqualTo(CAPACITY * 3);
+        assertThat(rejected.get()).isEqualTo(ATTEMPTS - CAPACITY * 3);
+        assertThat(courseRepository.findSeatsById(popular.getIdCourse()).orElseThrow().seatsTaken()).isEqualTo(CAPACITY);
+        assertThat(courseRepository.findSeatsById(other.getIdCourse()).orElseThrow().available()).isZero();
+        assertThat(enrollmentRepository.count()).isEqualTo(CAPACITY * 3);
+    }
+
+    @Test
+    @DisplayName("🔀 Changements concurrents d'une même inscription : la place n'est libérée qu'une fois")
+    void testConcurrentStatusChangesOfOneEnrollment() throws Exception {
+        int seats = 10;
+        int raced = 5;
+        Course course = course(seats);
+        Student student = studentRepository.save(new Student());
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < seats; i++) {
+            enrollments.add(enrollmentService.saveEnrollment(enrollment(student, course, Status.ACTIVE)));
+        }
+
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < raced; i++) {
+            Long id = enrollments.get(i).getIdEnrollment();
+            for (int t = 0; t < 6; t++) {
+                boolean delete = t == 0;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        if (delete) {
+                            enrollmentService.deleteEnrollment(id);
+                        } else {
+                            Enrollment dropped = enrollment(student, course, Status.DROPPED);
+                            dropped.setIdEnrollment(id);
+                            enrollmentService.saveEnrollment(dropped);
+                        }
+                    } catch (ObjectOptimisticLockingFailureException e) {
+                        // abandon arrivé après la suppression : la ligne n'existe plus
+                    } catch (RuntimeException e) {
+                        unexpected.add(e);
+                    }
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertThat(unexpected).isEmpty();
+        long active = enrollmentRepository.findAllDtos().stream().filter(e -> e.status() == Status.ACTIVE).count();
+        assertThat(active).isEqualTo(seats - raced);
+        assertThat(courseRepository.findSeatsById(course.getIdCourse()).orElseThrow().seatsTaken())
+                .isEqualTo(seats - raced);
+    }
+
+    @Test
+    @DisplayName("📝 Saisies de notes concurrentes sur les mêmes lignes : chaque place n'est libérée qu'une fois")
+    void testConcurrentGradePostingsOnSameRows() throws Exception {
+        int seats = 10;
+        Course course = course(seats);
+        Student student = studentRepository.save(new Student());
+        List<GradeUpdate> drops = new ArrayList<>();
+        for (int i = 0; i < seats; i++) {
+            Enrollment saved = enrollmentService.saveEnrollment(enrollment(student, course, Status.ACTIVE));
+            if (i % 2 == 0) {
+                drops.add(new GradeUpdate(saved.getIdEnrollment(), null, Status.DROPPED));
+            }
+        }
+
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            // ordres de saisie différents : les verrous restent pris dans l'ordre des ID
+            List<GradeUpdate> batch = new ArrayList<>(drops);
+            Collections.rotate(batch, t);
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    enrollmentService.postGrades(course.getIdCourse(), batch);
+                } catch (RuntimeException e) {
+                    unexpected.add(e);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertThat(unexpected).isEmpty();
+        assertThat(courseRepository.findSeatsById(course.getIdCourse()).orElseThrow().seatsTaken())
+                .isEqualTo(seats - drops.size());
+    }
+
+    @Test
+    @DisplayName("↩️ Abandon puis suppression : les places libérées sont réattribuables")
+    void testReleaseThenReserve() {
+        Course course = course(1);
+        Student student = studentRepository.save(new Student());
+        Enrollment first = enrollmentService.saveEnrollment(enrollment(student, course, Status.ACTIVE));
+
+        first.setStatus(Status.DROPPED);
+        enrollmentService.saveEnrollment(first);
+        Enrollment second = enrollmentService.saveEnrollment(enrollment(student, course, Status.ACTIVE));
+        assertThat(courseRepository.findSeatsById(course.getIdCourse()).orElseThrow().seatsTaken()).isEqualTo(1);
+
+        enrollmentService.deleteEnrollment(second.getIdEnrollment());
+        assertThat(courseRepository.findSeatsById(course.getIdCourse()).orElseThrow().available()).isEqualTo(1);
+    }
+
+    private Course course(int capacity) {
+        Course course = new Course();
+        course.setName("Cours populaire");
+        course.setCapacity(capacity);
+        return courseRepository.save(course);
+    }
+
+    private static Enrollment enrollment(Student student, Course course, Status status) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudent(student);
+        enrollment.setCourse(course);
+        enrollment.setStatus(status);
+        return enrollment;
+    }
+}
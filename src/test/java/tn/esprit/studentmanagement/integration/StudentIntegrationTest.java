@@ -1,19 +1,44 @@
 package tn.esprit.studentmanagement.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.test.web.servlet.MockMvc;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.studentmanagement.config.CacheConfig;
+import tn.esprit.studentmanagement.config.IdSequenceAligner;
+import tn.esprit.studentmanagement.dto.TranscriptDto;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
 import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.DepartmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
 import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.services.GpaEngine;
+import tn.esprit.studentmanagement.services.IEnrollment;
+import tn.esprit.studentmanagement.services.IStudentService;
+
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -23,7 +48,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * ✅ Test d’intégration complet du module Student :
  * Controller + Service + Repository (base H2 en mémoire)
  */
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureMockMvc
 @AutoConfigureTestDatabase // force l'utilisation de la DB H2
 @ActiveProfiles("test") // ⚙️ Active le fichier application-test.properties
@@ -40,6 +65,36 @@ class StudentIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdSequenceAligner idSequenceAligner;
+
+    @Autowired
+    private IStudentService studentService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private GpaEngine gpaEngine;
+
+    @Autowired
+    private IEnrollment enrollmentService;
+
     // =============================
     // 🔹 Test 1 : Création & persistance
     // =============================
@@ -86,6 +141,40 @@ class StudentIntegrationTest {
         assertThat(studentRepository.count()).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("🔬 Instructions SQL mesurées par forme et par requête HTTP")
+    void testQueryInstrumentation() throws Exception {
+        Student s1 = new Student();
+        s1.setFirstName("Sara");
+        studentRepository.saveAndFlush(s1);
+
+        mockMvc.perform(get("/students/getAllStudents"))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("db.request.statements").tag("uri", "/students/getAllStudents")
+                .summary().totalAmount()).isGreaterThanOrEqualTo(1.0);
+        assertThat(meterRegistry.get("db.query").tag("operation", "select").tag("table", "student")
+                .timers()).isNotEmpty();
+        assertThat(meterRegistry.get("db.query").tag("operation", "insert").tag("table", "student")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @ExtendWith(OutputCaptureExtension.class)
+    @DisplayName("🔇 Statistiques Hibernate actives sans journal « Session Metrics » par session")
+    void testSessionMetricsNotLogged(CapturedOutput output) {
+        EntityManagerFactory factory = entityManager.getEntityManagerFactory();
+        EntityManager session = factory.createEntityManager();
+        try {
+            session.createQuery("select count(s) from Student s", Long.class).getSingleResult();
+        } finally {
+            session.close();
+        }
+
+        assertThat(factory.unwrap(SessionFactory.class).getStatistics().isStatisticsEnabled()).isTrue();
+        assertThat(output).doesNotContain("Session Metrics");
+    }
+
     // =============================
     // 🔹 Test 3 : Lecture par ID
     // =============================
@@ -104,6 +193,196 @@ class StudentIntegrationTest {
                 .andExpect(jsonPath("$.firstName").value("Youssef"));
     }
 
+    // =============================
+    // 🔹 Test 3 bis : Pagination keyset
+    // =============================
+    @Test
+    @DisplayName("📄 Parcourir les étudiants page par page avec le curseur")
+    void testGetStudentsPage() throws Exception {
+        for (String name : new String[]{"Ali", "Sana", "Omar"}) {
+            Student s = new Student();
+            s.setFirstName(name);
+            studentRepository.save(s);
+        }
+
+        String body = mockMvc.perform(get("/students/getStudentsPage").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].firstName").value("Ali"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(body).get("nextCursor").asText();
+
+        mockMvc.perform(get("/students/getStudentsPage").param("size", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].firstName").value("Omar"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/students/getStudentsPage").param("cursor", "pas-un-curseur"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // =============================
+    // 🔹 Test 3 ter : Création en masse
+    // =============================
+    @Test
+    @DisplayName("📦 Créer plusieurs étudiants en une requête")
+    void testCreateStudentsInBulk() throws Exception {
+        Student s1 = new Student();
+        s1.setFirstName("Rania");
+        Student s2 = new Student();
+        s2.setFirstName("Karim");
+
+        mockMvc.perform(post("/students/createStudents")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(s1, s2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].outcome").value("CREATED"))
+                .andExpect(jsonPath("$[1].id").isNumber());
+
+        assertThat(studentRepository.count()).isEqualTo(2);
+    }
+
+    // =============================
+    // 🔹 Test 3 quater : Séquence recalée au-dessus des ID existants
+    // =============================
+    @Test
+    @DisplayName("🔢 La séquence d'ID ne réutilise pas un ID existant")
+    void testSequenceAlignedAboveExistingIds() {
+        jdbcTemplate.update("INSERT INTO student (id_student, first_name) VALUES (1000, 'Ancien')");
+        jdbcTemplate.update("INSERT INTO course (id_course, name, credit) VALUES (2000, 'Ancien cours', 3)");
+
+        idSequenceAligner.afterSingletonsInstantiated();
+
+        Student s = new Student();
+        s.setFirstName("Nouveau");
+        assertThat(studentRepository.save(s).getIdStudent()).isGreaterThan(1000L);
+        assertThat(courseRepository.save(new Course()).getIdCourse()).isGreaterThan(2000L);
+    }
+
+    // =============================
+    // 🔹 Test 3 quinquies : Cache de lecture par ID
+    // =============================
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // le cache n'est alimenté qu'après commit
+    @DisplayName("🗃️ Fiche étudiant servie depuis le cache, absences non mises en cache")
+    void testStudentReadThroughCache() {
+        Student s = new Student();
+        s.setFirstName("Lina");
+        s.setEmail("lina@example.com");
+        Long id = studentRepository.save(s).getIdStudent();
+
+        studentService.getStudentDtoById(id);
+        studentService.getStudentDtoById(id);
+        assertThat(cacheGets("hit")).isEqualTo(1.0);
+
+        assertThat(studentService.getStudentDtoById(-1L)).isNull();
+        assertThat(studentService.getStudentDtoById(-1L)).isNull();
+        assertThat(cacheGets("miss")).isEqualTo(3.0);
+
+        Student update = studentRepository.findById(id).orElseThrow();
+        update.setEmail("lina.new@example.com");
+        studentService.saveStudent(update);
+        assertThat(studentService.getStudentDtoById(id).email()).isEqualTo("lina.new@example.com");
+    }
+
+    // =============================
+    // 🔹 Test 3 sexies : Relevé en une requête par table
+    // =============================
+    @Test
+    @DisplayName("🎓 Relevé complet (étudiant, inscriptions, cours) : une requête SQL vivante + une sur l'archive")
+    void testTranscriptLoadedInOneQueryPerTable() throws Exception {
+        Department department = new Department();
+        department.setName("Informatique");
+        departmentRepository.save(department);
+
+        Student s = new Student();
+        s.setFirstName("Amal");
+        s.setDepartment(department);
+        Long id = studentRepository.save(s).getIdStudent();
+
+        for (String code : new String[]{"CS101", "CS102", "CS103"}) {
+            Course course = new Course();
+            course.setCode(code);
+            course.setName("Cours " + code);
+            course.setCredit(4);
+            courseRepository.save(course);
+
+            Enrollment enrollment = new Enrollment();
+            enrollment.setStudent(s);
+            enrollment.setCourse(course);
+            enrollment.setGrade(14.0);
+            enrollment.setStatus(Status.ACTIVE);
+            enrollmentRepository.save(enrollment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        TranscriptDto transcript = studentService.getTranscript(id);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(transcript.departmentName()).isEqualTo("Informatique");
+        assertThat(transcript.lines()).extracting(TranscriptDto.Line::courseCode)
+                .containsExactly("CS101", "CS102", "CS103");
+        assertThat(transcript.lines()).allMatch(line -> line.credit() == 4 && line.status() == Status.ACTIVE);
+
+        entityManager.clear();
+        mockMvc.perform(get("/students/getTranscript/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lines.length()").value(3))
+                .andExpect(jsonPath("$.lines[0].courseName").value("Cours CS101"));
+    }
+
+    // =============================
+    // 🔹 Test 3 septies : Moyenne pondérée
+    // =============================
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // recalcul lu par d'autres threads/transactions
+    @DisplayName("🧮 Moyenne pondérée par les crédits : recalcul complet puis mise à jour incrémentale")
+    void testGpaRecomputeAndIncrementalUpdate() throws Exception {
+        Student s = studentRepository.save(new Student());
+        Enrollment completed = enroll(s, 4, 16.0, Status.COMPLETED);
+        enroll(s, 2, 7.0, Status.FAILED);
+        enroll(s, 6, 20.0, Status.ACTIVE); // en cours : ignorée
+
+        gpaEngine.recomputeAll();
+        mockMvc.perform(get("/students/getGpa/" + s.getIdStudent()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.gpa").value(13.0))
+                .andExpect(jsonPath("$.credits").value(6));
+
+        completed.setGrade(10.0);
+        enrollmentService.saveEnrollment(completed);
+        assertThat(gpaEngine.getGpa(s.getIdStudent()).gpa()).isEqualTo(9.0);
+
+        mockMvc.perform(post("/students/recomputeGpa"))
+                .andExpect(status().isAccepted());
+    }
+
+    private Enrollment enroll(Student student, int credit, double grade, Status status) {
+        Course course = new Course();
+        course.setCredit(credit);
+        courseRepository.save(course);
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudent(student);
+        enrollment.setCourse(course);
+        enrollment.setGrade(grade);
+        enrollment.setStatus(status);
+        return enrollmentRepository.save(enrollment);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.STUDENTS)
+                .tag("result", result)
+                .functionCounter().count();
+    }
+
     // =============================
     // 🔹 Test 4 : Suppression d’un étudiant
     // =============================
@@ -0,0 +1,157 @@
+package tn.esprit.studentmanagement.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.WaitlistEntryDto;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.entities.WaitlistEntry;
+import tn.esprit.studentmanagement.exceptions.AlreadyEnrolledException;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.repositories.WaitlistEntryRepository;
+import tn.esprit.studentmanagement.services.IEnrollment;
+import tn.esprit.studentmanagement.services.WaitlistService;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ✅ Liste d'attente de bout en bout : abandon d'une inscription puis promotion.
+ * Sans transaction de test : la promotion n'est déclenchée qu'après commit.
+ */
+@SpringBootTest(properties = "app.waitlist.promotion-interval-ms=3600000")
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class WaitlistIntegrationTest {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private IEnrollment enrollmentService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Test
+    @DisplayName("⏳ Abandon d'une inscription : le premier en attente récupère la place")
+    void testDropPromotesFirstWaiting() {
+        Course course = new Course();
+        course.setName("Cours complet");
+        course.setCapacity(1);
+        course = courseRepository.save(course);
+        Student holder = studentRepository.save(new Student());
+        Student first = studentRepository.save(new Student());
+        Student second = studentRepository.save(new Student());
+
+        Enrollment held = new Enrollment();
+        held.setStudent(holder);
+        held.setCourse(course);
+        held.setStatus(Status.ACTIVE);
+        held = enrollmentService.saveEnrollment(held);
+
+        WaitlistEntryDto firstEntry = waitlistService.joinWaitlist(course.getIdCourse(), first.getIdStudent());
+        waitlistService.joinWaitlist(course.getIdCourse(), second.getIdStudent());
+        // cours complet : personne n'est promu
+        assertThat(waitlistService.promotePending()).isZero();
+        assertThat(waitlistService.getWaitlist(course.getIdCourse())).hasSize(2);
+
+        held.setStatus(Status.DROPPED);
+        enrollmentService.saveEnrollment(held);
+        assertThat(waitlistService.promotePending()).isEqualTo(1);
+
+        assertThat(enrollmentRepository.findAllDtos())
+                .filteredOn(e -> e.status() == Status.ACTIVE)
+                .extracting(EnrollmentDto::studentId)
+                .containsExactly(first.getIdStudent());
+        assertThat(waitlistRepository.existsById(firstEntry.idWaitlistEntry())).isFalse();
+        assertThat(waitlistService.getWaitlist(course.getIdCourse()))
+                .extracting(WaitlistEntryDto::studentId).containsExactly(second.getIdStudent());
+        assertThat(courseRepository.findSeatsById(course.getIdCourse()).orElseThrow().seatsTaken()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("👯 Entrée déjà enregistrée hors de la file en mémoire : contrainte unique, pas de doublon")
+    void testJoinTwiceKeepsSingleEntry() {
+        Course course = courseRepository.save(new Course());
+        Student student = studentRepository.save(new Student());
+        WaitlistEntry existing = new WaitlistEntry();
+        existing.setCourse(course);
+        existing.setStudent(student);
+        existing.setRequestedAt(LocalDateTime.now());
+        existing = waitlistRepository.save(existing);
+
+        WaitlistEntryDto joined = waitlistService.joinWaitlist(course.getIdCourse(), student.getIdStudent());
+
+        assertThat(joined.idWaitlistEntry()).isEqualTo(existing.getIdWaitlistEntry());
+        assertThat(waitlistRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("🪑 Étudiant déjà inscrit au cours : 409 au lieu d'une entrée en attente")
+    void testJoinWithSeatRejected() {
+        Course course = courseRepository.save(new Course());
+        Student student = studentRepository.save(new Student());
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudent(student);
+        enrollment.setCourse(course);
+        enrollment.setStatus(Status.ACTIVE);
+        enrollmentService.saveEnrollment(enrollment);
+
+        assertThatThrownBy(() -> waitlistService.joinWaitlist(course.getIdCourse(), student.getIdStudent()))
+                .isInstanceOf(AlreadyEnrolledException.class);
+        assertThat(waitlistRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("🚪 Quitter puis revenir : l'ancienne entrée disparaît de la file, la nouvelle est promue")
+    void testLeaveRejoinPromote() {
+        Course course = new Course();
+        course.setCapacity(1);
+        course = courseRepository.save(course);
+        Student holder = studentRepository.save(new Student());
+        Student student = studentRepository.save(new Student());
+        Enrollment held = new Enrollment();
+        held.setStudent(holder);
+        held.setCourse(course);
+        held.setStatus(Status.ACTIVE);
+        held = enrollmentService.saveEnrollment(held);
+
+        WaitlistEntryDto first = waitlistService.joinWaitlist(course.getIdCourse(), student.getIdStudent());
+        waitlistService.leaveWaitlist(first.idWaitlistEntry());
+        assertThat(waitlistService.getWaitlist(course.getIdCourse())).isEmpty();
+
+        WaitlistEntryDto rejoined = waitlistService.joinWaitlist(course.getIdCourse(), student.getIdStudent());
+        assertThat(rejoined.idWaitlistEntry()).isNotEqualTo(first.idWaitlistEntry());
+        assertThat(waitlistRepository.existsById(rejoined.idWaitlistEntry())).isTrue();
+
+        held.setStatus(Status.DROPPED);
+        enrollmentService.saveEnrollment(held);
+        assertThat(waitlistService.promotePending()).isEqualTo(1);
+        assertThat(enrollmentRepository.existsForStudentWithStatus(course.getIdCourse(), student.getIdStudent(),
+                Status.ACTIVE)).isTrue();
+        assertThat(waitlistService.getWaitlist(course.getIdCourse())).isEmpty();
+    }
+}
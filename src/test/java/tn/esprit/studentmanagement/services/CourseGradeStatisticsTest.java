@@ -0,0 +1,144 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tn.esprit.studentmanagement.dto.CourseGradeStatsDto;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CourseGradeStatisticsTest {
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private ArchivedEnrollmentRepository archivedEnrollmentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CourseGradeStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new CourseGradeStatistics(enrollmentRepository, archivedEnrollmentRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("📊 Reconstruction au démarrage : moyenne, min, max et taux de réussite")
+    void testRebuild() {
+        when(enrollmentRepository.streamAllDtos()).thenReturn(Stream.of(
+                enrollment(1L, 7L, 8.0, Status.COMPLETED),
+                enrollment(2L, 7L, 12.0, Status.COMPLETED),
+                enrollment(3L, 7L, 16.0, Status.ACTIVE),
+                enrollment(4L, 7L, 19.0, Status.DROPPED),   // ignorée
+                enrollment(5L, 7L, null, Status.ACTIVE),    // pas encore notée
+                enrollment(6L, 8L, 11.0, Status.FAILED)));
+
+        statistics.rebuild();
+
+        CourseGradeStatsDto stats = statistics.getStats(7L);
+        assertThat(stats.gradedCount()).isEqualTo(3);
+        assertThat(stats.average()).isCloseTo(12.0, within(1e-9));
+        assertThat(stats.min()).isEqualTo(8.0);
+        assertThat(stats.max()).isEqualTo(16.0);
+        assertThat(stats.passRate()).isCloseTo(2.0 / 3, within(1e-9));
+        assertThat(statistics.getStats(8L).passRate()).isZero();
+    }
+
+    @Test
+    @DisplayName("🔄 Écriture pendant la reconstruction : le cours est relu, la note n'est pas comptée deux fois")
+    void testWriteDuringRebuild() {
+        EnrollmentDto before = enrollment(2L, 7L, 12.0, Status.ACTIVE);
+        EnrollmentDto after = enrollment(2L, 7L, 14.0, Status.ACTIVE);
+        // le parcours lit déjà la nouvelle note ; l'événement de cette écriture arrive en plein parcours
+        when(enrollmentRepository.streamAllDtos()).thenReturn(Stream.of(enrollment(1L, 7L, 8.0, Status.ACTIVE), after)
+                .peek(e -> {
+                    if (e.idEnrollment() == 1L) {
+                        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(before, after));
+                    }
+                }));
+        when(enrollmentRepository.findDtosByCourse(7L)).thenReturn(List.of(enrollment(1L, 7L, 8.0, Status.ACTIVE), after));
+
+        statistics.rebuild();
+
+        CourseGradeStatsDto stats = statistics.getStats(7L);
+        assertThat(stats.gradedCount()).isEqualTo(2);
+        assertThat(stats.average()).isCloseTo(11.0, within(1e-9));
+        assertThat(stats.max()).isEqualTo(14.0);
+
+        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(after, null));
+        assertThat(statistics.getStats(7L).gradedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("✏️ Changement de note : l'ancienne valeur est retirée, min/max restent exacts")
+    void testGradeChange() {
+        EnrollmentDto low = enrollment(1L, 7L, 6.0, Status.ACTIVE);
+        EnrollmentDto high = enrollment(2L, 7L, 18.0, Status.ACTIVE);
+        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(null, low));
+        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(null, high));
+
+        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(high, enrollment(2L, 7L, 14.0, Status.COMPLETED)));
+
+        CourseGradeStatsDto stats = statistics.getStats(7L);
+        assertThat(stats.gradedCount()).isEqualTo(2);
+        assertThat(stats.max()).isEqualTo(14.0);
+        assertThat(stats.average()).isCloseTo(10.0, within(1e-9));
+        assertThat(stats.passRate()).isCloseTo(0.5, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("🔀 Changement de cours puis suppression")
+    void testCourseChangeAndDelete() {
+        EnrollmentDto original = enrollment(1L, 7L, 15.0, Status.ACTIVE);
+        EnrollmentDto moved = enrollment(1L, 8L, 15.0, Status.ACTIVE);
+        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(null, original));
+
+        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(original, moved));
+        assertThat(statistics.getStats(7L)).isEqualTo(CourseGradeStatsDto.empty(7L));
+        assertThat(statistics.getStats(8L).gradedCount()).isEqualTo(1);
+
+        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(moved, null));
+        assertThat(statistics.getStats(8L).average()).isNull();
+    }
+
+    @Test
+    @DisplayName("🔃 Écouteurs dans le désordre : un retrait reçu avant son ajout ne laisse pas de fantôme")
+    void testOutOfOrderEvents() {
+        EnrollmentDto created = enrollment(1L, 7L, 9.0, Status.ACTIVE);
+        EnrollmentDto regraded = enrollment(1L, 7L, 13.0, Status.ACTIVE);
+        EnrollmentDto other = enrollment(2L, 7L, 16.0, Status.ACTIVE);
+
+        // la modification, puis la suppression de l'autre inscription, arrivent avant leurs créations
+        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(created, regraded));
+        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(other, null));
+        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(null, other));
+        statistics.onEnrollmentChanged(new EnrollmentChangedEvent(null, created));
+
+        CourseGradeStatsDto stats = statistics.getStats(7L);
+        assertThat(stats.gradedCount()).isEqualTo(1);
+        assertThat(stats.min()).isEqualTo(13.0);
+        assertThat(stats.max()).isEqualTo(13.0);
+        assertThat(stats.passRate()).isEqualTo(1.0);
+    }
+
+    private static EnrollmentDto enrollment(Long id, Long courseId, Double grade, Status status) {
+        return new EnrollmentDto(id, null, grade, status, 1L, courseId);
+    }
+}
@@ -0,0 +1,155 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.LeaderboardEntryDto;
+import tn.esprit.studentmanagement.dto.StudentRankDto;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+import static tn.esprit.studentmanagement.services.CourseGradeStatistics.EXCLUDED_STATUSES;
+
+@ExtendWith(MockitoExtension.class)
+class CourseLeaderboardTest {
+
+    private static final Long COURSE = 7L;
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CourseLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new CourseLeaderboard(enrollmentRepository, transactionManager, 3);
+    }
+
+    @Test
+    @DisplayName("🏆 Top N borné, ex æquo au même rang")
+    void testTopWithTies() {
+        when(enrollmentRepository.streamAllDtos()).thenReturn(Stream.of(
+                enrollment(1L, 101L, 12.0),
+                enrollment(2L, 102L, 17.0),
+                enrollment(3L, 103L, 17.0),
+                enrollment(4L, 104L, 9.0),
+                enrollment(5L, 105L, 19.0, Status.DROPPED)));
+
+        leaderboard.rebuild();
+
+        assertThat(leaderboard.top(COURSE, 10))
+                .extracting(LeaderboardEntryDto::rank, LeaderboardEntryDto::enrollmentId)
+                .containsExactly(tuple(1, 2L), tuple(1, 3L), tuple(3, 1L));
+    }
+
+    @Test
+    @DisplayName("🔄 Suppression pendant la reconstruction : le cours est rechargé, l'inscription lue par le parcours disparaît")
+    void testDeleteDuringRebuild() {
+        EnrollmentDto deleted = enrollment(2L, 102L, 17.0);
+        // le parcours (instantané pris avant la suppression) lit encore l'inscription 2
+        when(enrollmentRepository.streamAllDtos()).thenReturn(Stream.of(enrollment(1L, 101L, 12.0), deleted)
+                .peek(e -> {
+                    if (e.idEnrollment() == 1L) {
+                        leaderboard.onEnrollmentChanged(new EnrollmentChangedEvent(deleted, null));
+                    }
+                }));
+        when(enrollmentRepository.findRankedByCourse(COURSE, EXCLUDED_STATUSES, Limit.of(4)))
+                .thenReturn(List.of(enrollment(1L, 101L, 12.0)));
+
+        leaderboard.rebuild();
+
+        assertThat(leaderboard.top(COURSE, 10)).extracting(LeaderboardEntryDto::enrollmentId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("♻️ Retrait d'une inscription du top : le cours est rechargé depuis la base")
+    void testRefillAfterRemovingTopEntry() {
+        EnrollmentDto best = enrollment(1L, 101L, 18.0);
+        Stream.of(best, enrollment(2L, 102L, 15.0), enrollment(3L, 103L, 14.0), enrollment(4L, 104L, 11.0))
+                .forEach(e -> leaderboard.onEnrollmentChanged(new EnrollmentChangedEvent(null, e)));
+        when(enrollmentRepository.findRankedByCourse(COURSE, EXCLUDED_STATUSES, Limit.of(4))).thenReturn(List.of(
+                enrollment(2L, 102L, 15.0), enrollment(3L, 103L, 14.0), enrollment(4L, 104L, 11.0)));
+
+        leaderboard.onEnrollmentChanged(new EnrollmentChangedEvent(best, null));
+
+        assertThat(leaderboard.top(COURSE, 3)).extracting(LeaderboardEntryDto::enrollmentId).containsExactly(2L, 3L, 4L);
+        // le top contient désormais tout le cours : plus besoin de la base pour un rang absent
+        assertThat(leaderboard.rankOf(COURSE, 999L).rank()).isNull();
+        verify(enrollmentRepository, never()).countRankedAbove(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("🗄️ Bloc archivé : inscriptions retirées du top, un seul rechargement par cours")
+    void testArchivedBlockRefillsOnce() {
+        EnrollmentDto first = enrollment(1L, 101L, 18.0);
+        EnrollmentDto second = enrollment(2L, 102L, 15.0);
+        Stream.of(first, second, enrollment(3L, 103L, 14.0), enrollment(4L, 104L, 11.0), enrollment(5L, 105L, 10.0))
+                .forEach(e -> leaderboard.onEnrollmentChanged(new EnrollmentChangedEvent(null, e)));
+        when(enrollmentRepository.findRankedByCourse(COURSE, EXCLUDED_STATUSES, Limit.of(4))).thenReturn(List.of(
+                enrollment(3L, 103L, 14.0), enrollment(4L, 104L, 11.0), enrollment(5L, 105L, 10.0)));
+
+        leaderboard.onEnrollmentsArchived(new EnrollmentsArchivedEvent(List.of(first, second)));
+
+        assertThat(leaderboard.top(COURSE, 3)).extracting(LeaderboardEntryDto::enrollmentId).containsExactly(3L, 4L, 5L);
+        verify(enrollmentRepository, times(1)).findRankedByCourse(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("📝 Saisie en masse : retraits et ajouts appliqués, un seul rechargement par cours")
+    void testBatchRefillsOnce() {
+        EnrollmentDto first = enrollment(1L, 101L, 18.0);
+        EnrollmentDto second = enrollment(2L, 102L, 15.0);
+        EnrollmentDto third = enrollment(3L, 103L, 14.0);
+        Stream.of(first, second, third, enrollment(4L, 104L, 11.0), enrollment(5L, 105L, 10.0))
+                .forEach(e -> leaderboard.onEnrollmentChanged(new EnrollmentChangedEvent(null, e)));
+        EnrollmentDto regraded = enrollment(3L, 103L, 19.0);
+        when(enrollmentRepository.findRankedByCourse(COURSE, EXCLUDED_STATUSES, Limit.of(4))).thenReturn(List.of(
+                regraded, enrollment(4L, 104L, 11.0), enrollment(5L, 105L, 10.0), enrollment(6L, 106L, 9.0)));
+
+        leaderboard.onEnrollmentsChanged(new EnrollmentBatchChangedEvent(List.of(
+                new EnrollmentChangedEvent(first, enrollment(1L, 101L, 18.0, Status.DROPPED)),
+                new EnrollmentChangedEvent(second, enrollment(2L, 102L, 15.0, Status.DROPPED)),
+                new EnrollmentChangedEvent(third, regraded))));
+
+        assertThat(leaderboard.top(COURSE, 3)).extracting(LeaderboardEntryDto::enrollmentId).containsExactly(3L, 4L, 5L);
+        verify(enrollmentRepository, times(1)).findRankedByCourse(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("🔢 Rang d'un étudiant : en mémoire dans le top, COUNT en base au-delà")
+    void testRankOf() {
+        Stream.of(enrollment(1L, 101L, 18.0), enrollment(2L, 102L, 15.0),
+                        enrollment(3L, 103L, 14.0), enrollment(4L, 104L, 11.0))
+                .forEach(e -> leaderboard.onEnrollmentChanged(new EnrollmentChangedEvent(null, e)));
+
+        assertThat(leaderboard.rankOf(COURSE, 102L)).isEqualTo(new StudentRankDto(COURSE, 102L, 2L, 15.0));
+        verifyNoInteractions(enrollmentRepository);
+
+        when(enrollmentRepository.findBestRankedGrade(COURSE, 104L, EXCLUDED_STATUSES)).thenReturn(11.0);
+        when(enrollmentRepository.countRankedAbove(COURSE, 11.0, EXCLUDED_STATUSES)).thenReturn(3L);
+        assertThat(leaderboard.rankOf(COURSE, 104L).rank()).isEqualTo(4L);
+    }
+
+    private static EnrollmentDto enrollment(Long id, Long studentId, Double grade) {
+        return enrollment(id, studentId, grade, Status.COMPLETED);
+    }
+
+    private static EnrollmentDto enrollment(Long id, Long studentId, Double grade, Status status) {
+        return new EnrollmentDto(id, null, grade, status, studentId, COURSE);
+    }
+}
@@ -0,0 +1,88 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tn.esprit.studentmanagement.dto.CourseDto;
+import tn.esprit.studentmanagement.dto.CourseGradeStatsDto;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CourseServiceTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private CourseGradeStatistics courseGradeStatistics;
+
+    @Mock
+    private CourseLeaderboard courseLeaderboard;
+
+    @Mock
+    private GradeDistributions gradeDistributions;
+
+    @InjectMocks
+    private CourseService courseService;
+
+    @Test
+    @DisplayName("📋 Lister les cours via la projection DTO")
+    void testGetAllCourseDtos() {
+        when(courseRepository.findAllDtos()).thenReturn(List.of(
+                new CourseDto(1L, "DevOps", "DV101", 4, null, null),
+                new CourseDto(2L, "Spring Boot", "SB202", 3, null, null)));
+
+        assertThat(courseService.getAllCourseDtos()).hasSize(2);
+        verify(courseRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("🔍 Trouver un cours par ID")
+    void testGetCourseDtoById() {
+        when(courseRepository.findDtoById(1L)).thenReturn(Optional.of(new CourseDto(1L, "DevOps", "DV101", 4, null, null)));
+
+        assertThat(courseService.getCourseDtoById(1L).code()).isEqualTo("DV101");
+        assertThat(courseService.getCourseDtoById(2L)).isNull();
+    }
+
+    @Test
+    @DisplayName("📊 Statistiques de notes lues depuis les agrégats en mémoire")
+    void testGetCourseStats() {
+        CourseGradeStatsDto stats = new CourseGradeStatsDto(1L, 2, 13.0, 11.0, 15.0, 1.0);
+        when(courseGradeStatistics.getStats(1L)).thenReturn(stats);
+
+        assertThat(courseService.getCourseStats(1L)).isEqualTo(stats);
+        verifyNoInteractions(courseRepository);
+    }
+
+    @Test
+    @DisplayName("✅ Enregistrer un cours")
+    void testSaveCourse() {
+        Course course = new Course();
+        course.setName("Microservices");
+        when(courseRepository.save(course)).thenReturn(course);
+
+        assertThat(courseService.saveCourse(course).getName()).isEqualTo("Microservices");
+        verify(courseRepository, times(1)).save(course);
+    }
+
+    @Test
+    @DisplayName("❌ Supprimer un cours")
+    void testDeleteCourse() {
+        doNothing().when(courseRepository).deleteById(4L);
+
+        courseService.deleteCourse(4L);
+
+        verify(courseRepository, times(1)).deleteById(4L);
+    }
+}
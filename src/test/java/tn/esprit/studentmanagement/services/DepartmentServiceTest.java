@@ -7,8 +7,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.DepartmentDto;
+import tn.esprit.studentmanagement.dto.DepartmentRollupDto;
+import tn.esprit.studentmanagement.dto.DepartmentStatusTotals;
+import tn.esprit.studentmanagement.dto.DepartmentStudentCount;
 import tn.esprit.studentmanagement.entities.Department;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
 import tn.esprit.studentmanagement.repositories.DepartmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
 import tn.esprit.studentmanagement.services.DepartmentService;
 
 import java.util.Arrays;
@@ -24,6 +33,15 @@ public class DepartmentServiceTest {
     @Mock
     private DepartmentRepository departmentRepository;
 
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private ArchivedEnrollmentRepository archivedEnrollmentRepository;
+
+    @Mock
+    private GradeDistributions gradeDistributions;
+
     @InjectMocks
     private DepartmentService departmentService;
 
@@ -61,7 +79,17 @@ public class DepartmentServiceTest {
         verify(departmentRepository, times(1)).findById(1L);
     }
 
-    
+    @Test
+    @DisplayName("📄 Taille de page plafonnée")
+    void testGetDepartmentsPageClampsSize() {
+        when(departmentRepository.findDtosAfter(0L, Limit.of(CursorPage.MAX_SIZE + 1))).thenReturn(List.of());
+
+        CursorPage<DepartmentDto> page = departmentService.getDepartmentsPage(null, 10_000);
+
+        assertThat(page.items()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+    }
+
     @Test
     @DisplayName("❌ Supprimer un département")
     void testDeleteDepartment() {
@@ -72,4 +100,27 @@ public class DepartmentServiceTest {
 
         verify(departmentRepository, times(1)).deleteById(id);
     }
+
+    @Test
+    @DisplayName("📊 Synthèse par département : fusion des agrégats SQL")
+    void testGetDepartmentRollup() {
+        when(departmentRepository.countStudentsByDepartment()).thenReturn(List.of(
+                new DepartmentStudentCount(1L, "Informatique", 3L),
+                new DepartmentStudentCount(2L, "Finance", 0L)));
+        when(enrollmentRepository.totalsByDepartmentAndStatus()).thenReturn(List.of(
+                new DepartmentStatusTotals(1L, Status.ACTIVE, 4L, 1L, 12.0),
+                new DepartmentStatusTotals(1L, Status.COMPLETED, 2L, 2L, 30.0)));
+
+        List<DepartmentRollupDto> rollup = departmentService.getDepartmentRollup();
+
+        DepartmentRollupDto info = rollup.get(0);
+        assertThat(info.studentCount()).isEqualTo(3);
+        assertThat(info.activeEnrollments()).isEqualTo(4);
+        assertThat(info.totalEnrollments()).isEqualTo(6);
+        assertThat(info.averageGrade()).isEqualTo(14.0);
+        assertThat(info.enrollmentsByStatus()).containsEntry(Status.COMPLETED, 2L);
+        assertThat(rollup.get(1).averageGrade()).isNull();
+        assertThat(rollup.get(1).totalEnrollments()).isZero();
+        verify(departmentRepository, never()).findAll();
+    }
 }
@@ -6,7 +6,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tn.esprit.studentmanagement.dto.BulkItemResult;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.GradeUpdate;
+import tn.esprit.studentmanagement.entities.Course;
 import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.exceptions.CourseFullException;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
 import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
 
 import java.util.Arrays;
@@ -14,6 +26,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +35,18 @@ public class EnrollmentServiceTest {
     @Mock
     private EnrollmentRepository enrollmentRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private EnrollmentService enrollmentService;
 
@@ -71,6 +96,109 @@ public class EnrollmentServiceTest {
         verify(enrollmentRepository, times(1)).save(enrollment);
     }
 
+    @Test
+    @DisplayName("📣 Mise à jour : l'événement porte l'ancien et le nouvel état")
+    void testSaveEnrollmentPublishesChange() {
+        Course course = new Course();
+        course.setIdCourse(2L);
+        Enrollment enrollment = new Enrollment();
+        enrollment.setIdEnrollment(5L);
+        enrollment.setGrade(16.0);
+        enrollment.setStatus(Status.COMPLETED);
+        enrollment.setCourse(course);
+        EnrollmentDto before = new EnrollmentDto(5L, null, 11.0, Status.ACTIVE, null, 2L);
+
+        when(enrollmentRepository.findDtoByIdForUpdate(5L)).thenReturn(Optional.of(before));
+        when(enrollmentRepository.save(enrollment)).thenReturn(enrollment);
+
+        enrollmentService.saveEnrollment(enrollment);
+
+        verify(eventPublisher).publishEvent(new EnrollmentChangedEvent(before, EnrollmentDto.from(enrollment)));
+    }
+
+    @Test
+    @DisplayName("🎟️ Nouvelle inscription ACTIVE : une place est réservée avant l'écriture")
+    void testSaveEnrollmentReservesSeat() {
+        Enrollment enrollment = activeEnrollment(null, 2L);
+        when(courseRepository.reserveSeat(2L)).thenReturn(1);
+        when(enrollmentRepository.save(enrollment)).thenReturn(enrollment);
+
+        enrollmentService.saveEnrollment(enrollment);
+
+        var order = inOrder(courseRepository, enrollmentRepository);
+        order.verify(courseRepository).reserveSeat(2L);
+        order.verify(enrollmentRepository).save(enrollment);
+        verify(courseRepository, never()).releaseSeat(anyLong());
+    }
+
+    @Test
+    @DisplayName("🚫 Cours complet : exception, rien n'est enregistré")
+    void testSaveEnrollmentCourseFull() {
+        Enrollment enrollment = activeEnrollment(null, 2L);
+        when(courseRepository.reserveSeat(2L)).thenReturn(0);
+
+        assertThatThrownBy(() -> enrollmentService.saveEnrollment(enrollment)).isInstanceOf(CourseFullException.class);
+        verify(enrollmentRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("↩️ Passage à DROPPED puis changement de cours : la place suit l'inscription")
+    void testSeatFollowsStatusAndCourse() {
+        Enrollment dropped = activeEnrollment(5L, 2L);
+        dropped.setStatus(Status.DROPPED);
+        when(enrollmentRepository.findDtoByIdForUpdate(5L))
+                .thenReturn(Optional.of(new EnrollmentDto(5L, null, null, Status.ACTIVE, 1L, 2L)));
+        when(enrollmentRepository.save(dropped)).thenReturn(dropped);
+
+        enrollmentService.saveEnrollment(dropped);
+        verify(courseRepository).releaseSeat(2L);
+        verify(courseRepository, never()).reserveSeat(anyLong());
+
+        Enrollment moved = activeEnrollment(6L, 3L);
+        when(enrollmentRepository.findDtoByIdForUpdate(6L))
+                .thenReturn(Optional.of(new EnrollmentDto(6L, null, null, Status.ACTIVE, 1L, 2L)));
+        when(courseRepository.reserveSeat(3L)).thenReturn(1);
+        when(enrollmentRepository.save(moved)).thenReturn(moved);
+
+        enrollmentService.saveEnrollment(moved);
+        verify(courseRepository).reserveSeat(3L);
+        verify(courseRepository, times(2)).releaseSeat(2L);
+    }
+
+    private static Enrollment activeEnrollment(Long id, Long courseId) {
+        Course course = new Course();
+        course.setIdCourse(courseId);
+        Enrollment enrollment = new Enrollment();
+        enrollment.setIdEnrollment(id);
+        enrollment.setStatus(Status.ACTIVE);
+        enrollment.setCourse(course);
+        return enrollment;
+    }
+
+    @Test
+    @DisplayName("🪶 Lecture par ID projetée en DTO")
+    void testGetEnrollmentDtoById() {
+        EnrollmentDto dto = new EnrollmentDto(5L, null, 14.0, null, 1L, 2L);
+        when(enrollmentRepository.findDtoById(5L)).thenReturn(Optional.of(dto));
+
+        assertThat(enrollmentService.getEnrollmentDtoById(5L)).isEqualTo(dto);
+        verify(enrollmentRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("📄 Dernière page : pas de curseur suivant")
+    void testGetEnrollmentsLastPage() {
+        EnrollmentDto e1 = new EnrollmentDto(1L, null, 12.0, null, null, null);
+
+        when(enrollmentRepository.findDtosAfter(0L, Limit.of(21))).thenReturn(List.of(e1));
+
+        CursorPage<EnrollmentDto> page = enrollmentService.getEnrollmentsPage(null, 20);
+
+        assertThat(page.items()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
     @Test
     @DisplayName("❌ Supprimer une inscription")
     void testDeleteEnrollment() {
@@ -80,5 +208,52 @@ public class EnrollmentServiceTest {
         enrollmentService.deleteEnrollment(id);
 
         verify(enrollmentRepository, times(1)).deleteById(id);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("📝 Notes en masse : UPDATE groupés par colonnes modifiées, résultat par ligne")
+    void testPostGrades() {
+        EnrollmentDto graded = new EnrollmentDto(1L, null, 12.0, Status.COMPLETED, 10L, 2L);
+        EnrollmentDto active = new EnrollmentDto(2L, null, null, Status.ACTIVE, 11L, 2L);
+        EnrollmentDto otherCourse = new EnrollmentDto(3L, null, null, Status.ACTIVE, 12L, 9L);
+        when(enrollmentRepository.findDtosByIdInForUpdate(List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(graded, active, otherCourse));
+
+        List<BulkItemResult> results = enrollmentService.postGrades(2L, Arrays.asList(
+                new GradeUpdate(1L, 14.5, null),
+                new GradeUpdate(2L, 16.0, Status.COMPLETED),
+                new GradeUpdate(3L, 10.0, null),
+                new GradeUpdate(4L, 10.0, null),
+                new GradeUpdate(1L, 12.0, null),
+                new GradeUpdate(2L, 25.0, null)));
+
+        assertThat(results).extracting(BulkItemResult::outcome).containsExactly(
+                BulkItemResult.Outcome.UPDATED, BulkItemResult.Outcome.UPDATED,
+                BulkItemResult.Outcome.REJECTED, BulkItemResult.Outcome.REJECTED,
+                BulkItemResult.Outcome.REJECTED, BulkItemResult.Outcome.REJECTED);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE enrollment SET grade = ? WHERE"),
+                argThat((List<Object[]> rows) -> rows.size() == 1 && rows.get(0)[1].equals(1L)));
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE enrollment SET grade = ?, status = ?"),
+                argThat((List<Object[]> rows) -> rows.size() == 1 && rows.get(0)[1].equals("COMPLETED")));
+        verify(courseRepository).releaseSeats(2L, 1);
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof EnrollmentBatchChangedEvent batch && batch.changes().size() == 2));
+        verify(enrollmentRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("🎟️ Notes en masse : une réactivation sans place est refusée, les autres lignes passent")
+    void testPostGradesSeatRejected() {
+        EnrollmentDto dropped = new EnrollmentDto(1L, null, null, Status.DROPPED, 10L, 2L);
+        EnrollmentDto same = new EnrollmentDto(2L, null, 11.0, Status.COMPLETED, 11L, 2L);
+        when(enrollmentRepository.findDtosByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(dropped, same));
+        when(courseRepository.reserveSeat(2L)).thenReturn(0);
+
+        List<BulkItemResult> results = enrollmentService.postGrades(2L, List.of(
+                new GradeUpdate(1L, null, Status.ACTIVE),
+                new GradeUpdate(2L, 11.0, Status.COMPLETED)));
+
+        assertThat(results).extracting(BulkItemResult::outcome)
+                .containsExactly(BulkItemResult.Outcome.REJECTED, BulkItemResult.Outcome.UNCHANGED);
+        verifyNoInteractions(jdbcTemplate, eventPublisher);
     }
 }
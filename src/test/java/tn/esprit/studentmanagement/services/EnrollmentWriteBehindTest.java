@@ -0,0 +1,167 @@
+package tn.esprit.studentmanagement.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.WriteTicketDto;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.exceptions.CourseFullException;
+import tn.esprit.studentmanagement.exceptions.WriteQueueFullException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EnrollmentWriteBehindTest {
+
+    @Mock
+    private IEnrollment enrollmentService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong ids = new AtomicLong(100);
+    private EnrollmentWriteBehind writeBehind;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writeBehind != null) {
+            writeBehind.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("⏱️ Écriture différée : futur complété avec l'inscription enregistrée")
+    void testWritesAreFlushed() throws Exception {
+        writeBehind = create(100);
+        when(enrollmentService.saveEnrollment(any(Enrollment.class))).thenAnswer(invocation -> assignId(invocation.getArgument(0)));
+
+        CompletableFuture<EnrollmentDto> first = writeBehind.enqueue(new Enrollment());
+        CompletableFuture<EnrollmentDto> second = writeBehind.enqueue(new Enrollment());
+
+        assertThat(first.get(5, TimeUnit.SECONDS).idEnrollment()).isNotNull();
+        assertThat(second.get(5, TimeUnit.SECONDS).idEnrollment()).isNotNull();
+        assertThat(meterRegistry.get("enrollment.writebehind.batch.size").summary().totalAmount()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("🚫 Un échec dans le groupe : rejeu individuel, seule la demande fautive échoue")
+    void testFailedWriteIsIsolated() throws Exception {
+        writeBehind = create(100);
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Enrollment blocker = new Enrollment();
+        Enrollment bad = new Enrollment();
+        when(enrollmentService.saveEnrollment(any(Enrollment.class))).thenAnswer(invocation -> {
+            Enrollment enrollment = invocation.getArgument(0);
+            if (enrollment == blocker && firstStarted.getCount() > 0) {
+                firstStarted.countDown();
+                release.await();
+            }
+            if (enrollment == bad) {
+                throw new CourseFullException(3L);
+            }
+            return assignId(enrollment);
+        });
+
+        CompletableFuture<EnrollmentDto> blocking = writeBehind.enqueue(blocker);
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        // ✅ ces trois demandes forment le groupe suivant
+        CompletableFuture<EnrollmentDto> ok1 = writeBehind.enqueue(new Enrollment());
+        CompletableFuture<EnrollmentDto> failing = writeBehind.enqueue(bad);
+        CompletableFuture<EnrollmentDto> ok2 = writeBehind.enqueue(new Enrollment());
+        release.countDown();
+
+        assertThat(blocking.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(ok1.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(ok2.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(CourseFullException.class);
+        assertThat(WriteTicketDto.of("t", failing).state()).isEqualTo(WriteTicketDto.State.FAILED);
+    }
+
+    @Test
+    @DisplayName("📛 File pleine : demande refusée (503)")
+    void testBackpressure() throws Exception {
+        writeBehind = create(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(enrollmentService.saveEnrollment(any(Enrollment.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return assignId(invocation.getArgument(0));
+        });
+
+        writeBehind.enqueue(new Enrollment());
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        writeBehind.enqueue(new Enrollment());
+
+        assertThatThrownBy(() -> writeBehind.submitEnrollment(new Enrollment())).isInstanceOf(WriteQueueFullException.class);
+        assertThat(meterRegistry.get("enrollment.writebehind.rejected").counter().count()).isEqualTo(1.0);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("🛑 Arrêt : les demandes acceptées sont écrites avant la fermeture")
+    void testFlushOnShutdown() throws Exception {
+        writeBehind = create(100);
+        when(enrollmentService.saveEnrollment(any(Enrollment.class))).thenAnswer(invocation -> assignId(invocation.getArgument(0)));
+
+        WriteTicketDto ticket = writeBehind.submitEnrollment(new Enrollment());
+        writeBehind.shutdown();
+
+        assertThat(writeBehind.getWriteTicket(ticket.trackingId()).state()).isEqualTo(WriteTicketDto.State.DONE);
+        assertThatThrownBy(() -> writeBehind.enqueue(new Enrollment())).isInstanceOf(WriteQueueFullException.class);
+        writeBehind = null;
+    }
+
+    @Test
+    @DisplayName("🏁 Arrêt entre le test de fermeture et l'offer : la demande est refusée, pas oubliée en file")
+    void testEnqueueRacingShutdown() {
+        // l'arrêt complet (flusher terminé, file vidée) se glisse juste avant l'insertion
+        BlockingQueue<EnrollmentWriteBehind.PendingWrite> queue = new ArrayBlockingQueue<>(10) {
+            @Override
+            public boolean offer(EnrollmentWriteBehind.PendingWrite write) {
+                try {
+                    writeBehind.shutdown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.offer(write);
+            }
+        };
+        writeBehind = new EnrollmentWriteBehind(enrollmentService, transactionManager, meterRegistry,
+                queue, 50, Duration.ofSeconds(5), Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> writeBehind.enqueue(new Enrollment())).isInstanceOf(WriteQueueFullException.class);
+        assertThat(writeBehind.queueDepth()).isZero();
+        assertThat(meterRegistry.get("enrollment.writebehind.rejected").counter().count()).isEqualTo(1.0);
+        writeBehind = null;
+    }
+
+    private EnrollmentWriteBehind create(int capacity) {
+        return new EnrollmentWriteBehind(enrollmentService, transactionManager, meterRegistry,
+                capacity, 50, Duration.ofSeconds(5), Duration.ofMinutes(1));
+    }
+
+    private Enrollment assignId(Enrollment enrollment) {
+        enrollment.setIdEnrollment(ids.incrementAndGet());
+        return enrollment;
+    }
+}
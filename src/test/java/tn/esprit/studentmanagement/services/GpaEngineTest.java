@@ -0,0 +1,126 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.GpaTotals;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GpaEngineTest {
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private ArchivedEnrollmentRepository archivedEnrollmentRepository;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private GpaEngine gpaEngine;
+
+    @BeforeEach
+    void setUp() {
+        gpaEngine = new GpaEngine(enrollmentRepository, archivedEnrollmentRepository, studentRepository, transactionManager, 4, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gpaEngine.shutdown();
+    }
+
+    @Test
+    @DisplayName("🧮 Recalcul complet : plage d'ID découpée en tranches traitées en parallèle")
+    void testRecomputeAllByRanges() {
+        when(studentRepository.findMinId()).thenReturn(1L);
+        when(studentRepository.findMaxId()).thenReturn(20_000L);
+        List<long[]> ranges = Collections.synchronizedList(new ArrayList<>());
+        when(enrollmentRepository.streamGpaTotals(anyLong(), anyLong(), eq(GpaEngine.GPA_STATUSES)))
+                .thenAnswer(invocation -> {
+                    long from = invocation.getArgument(0);
+                    long to = invocation.getArgument(1);
+                    ranges.add(new long[]{from, to});
+                    // un étudiant noté sur trois : 12/20 sur 4 crédits
+                    return LongStream.rangeClosed(from, to).filter(id -> id % 3 == 0)
+                            .mapToObj(id -> new GpaTotals(id, 48.0, 4L));
+                });
+
+        int count = gpaEngine.recomputeAll();
+
+        assertThat(count).isEqualTo(6666);
+        assertThat(ranges).hasSize(4).allMatch(range -> range[1] - range[0] < 5000);
+        assertThat(ranges.stream().mapToLong(range -> range[1] - range[0] + 1).sum()).isEqualTo(20_000L);
+        assertThat(gpaEngine.getGpa(3L).gpa()).isCloseTo(12.0, within(1e-9));
+        assertThat(gpaEngine.getGpa(4L).gpa()).isNull();
+    }
+
+    @Test
+    @DisplayName("✏️ Écriture d'une inscription : seuls les étudiants concernés sont recalculés")
+    void testIncrementalRefresh() {
+        when(enrollmentRepository.findGpaTotals(1L, GpaEngine.GPA_STATUSES))
+                .thenReturn(Optional.of(new GpaTotals(1L, 78.0, 6L)));
+        when(enrollmentRepository.findGpaTotals(2L, GpaEngine.GPA_STATUSES)).thenReturn(Optional.empty());
+
+        EnrollmentDto before = new EnrollmentDto(9L, null, 10.0, Status.COMPLETED, 2L, 5L);
+        EnrollmentDto after = new EnrollmentDto(9L, null, 10.0, Status.COMPLETED, 1L, 5L);
+        gpaEngine.onEnrollmentChanged(new EnrollmentChangedEvent(before, after));
+
+        assertThat(gpaEngine.getGpa(1L).gpa()).isCloseTo(13.0, within(1e-9));
+        assertThat(gpaEngine.getGpa(1L).credits()).isEqualTo(6);
+        assertThat(gpaEngine.getGpa(2L).credits()).isZero();
+        verify(enrollmentRepository, never()).streamGpaTotals(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("🗄️ Inscriptions archivées : totaux cumulés avec ceux de la table vivante")
+    void testRefreshIncludesArchive() {
+        when(enrollmentRepository.findGpaTotals(1L, GpaEngine.GPA_STATUSES))
+                .thenReturn(Optional.of(new GpaTotals(1L, 60.0, 4L)));
+        when(archivedEnrollmentRepository.findGpaTotals(1L, GpaEngine.GPA_STATUSES))
+                .thenReturn(Optional.of(new GpaTotals(1L, 40.0, 4L)));
+        when(enrollmentRepository.findGpaTotals(2L, GpaEngine.GPA_STATUSES)).thenReturn(Optional.empty());
+        when(archivedEnrollmentRepository.findGpaTotals(2L, GpaEngine.GPA_STATUSES))
+                .thenReturn(Optional.of(new GpaTotals(2L, 27.0, 3L)));
+
+        gpaEngine.refresh(1L);
+        gpaEngine.refresh(2L);
+
+        assertThat(gpaEngine.getGpa(1L).gpa()).isCloseTo(12.5, within(1e-9));
+        assertThat(gpaEngine.getGpa(1L).credits()).isEqualTo(8);
+        assertThat(gpaEngine.getGpa(2L).gpa()).isCloseTo(9.0, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("🚫 Base vide : aucun accès aux inscriptions")
+    void testRecomputeEmpty() {
+        when(studentRepository.findMinId()).thenReturn(null);
+        when(studentRepository.findMaxId()).thenReturn(null);
+
+        assertThat(gpaEngine.recomputeAll()).isZero();
+        verifyNoInteractions(enrollmentRepository);
+        assertThat(gpaEngine.getGpa(1L).gpa()).isNull();
+    }
+}
@@ -0,0 +1,143 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.GradeDistributionDto;
+import tn.esprit.studentmanagement.dto.GradeSample;
+import tn.esprit.studentmanagement.dto.StudentDto;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.*;
+import static tn.esprit.studentmanagement.services.CourseGradeStatistics.EXCLUDED_STATUSES;
+
+@ExtendWith(MockitoExtension.class)
+class GradeDistributionsTest {
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private ArchivedEnrollmentRepository archivedEnrollmentRepository;
+
+    @Mock
+    private IStudentService studentService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private GradeDistributions distributions;
+
+    @BeforeEach
+    void setUp() {
+        distributions = new GradeDistributions(enrollmentRepository, archivedEnrollmentRepository, studentService, transactionManager);
+    }
+
+    @Test
+    @DisplayName("🏛️ Vue cours et vue département fusionnées depuis les cellules (cours, département)")
+    void testCourseAndDepartmentViews() {
+        when(enrollmentRepository.streamGradeSamples(EXCLUDED_STATUSES)).thenReturn(Stream.of(
+                new GradeSample(1L, 10L, 8.0),
+                new GradeSample(1L, 20L, 14.0),
+                new GradeSample(2L, 10L, 16.0),
+                new GradeSample(2L, null, 11.0)));
+
+        distributions.rebuild();
+
+        GradeDistributionDto course = distributions.forCourse(1L);
+        assertThat(course.count()).isEqualTo(2);
+        assertThat(course.median()).isCloseTo(8.0, within(GradeHistogram.MAX_ERROR));
+        GradeDistributionDto department = distributions.forDepartment(10L);
+        assertThat(department.count()).isEqualTo(2);
+        assertThat(department.p90()).isCloseTo(16.0, within(GradeHistogram.MAX_ERROR));
+        assertThat(distributions.forCourse(2L).count()).isEqualTo(2);
+        assertThat(distributions.forDepartment(99L).median()).isNull();
+    }
+
+    @Test
+    @DisplayName("🔄 Écriture pendant la reconstruction : le cours est relu, la note n'est pas comptée deux fois")
+    void testWriteDuringRebuild() {
+        EnrollmentDto before = new EnrollmentDto(2L, null, 12.0, Status.ACTIVE, 100L, 1L);
+        EnrollmentDto after = new EnrollmentDto(2L, null, 14.0, Status.ACTIVE, 100L, 1L);
+        // le parcours lit déjà la nouvelle note ; l'événement de cette écriture arrive en plein parcours
+        when(enrollmentRepository.streamGradeSamples(EXCLUDED_STATUSES)).thenReturn(Stream.of(
+                        new GradeSample(1L, 10L, 8.0), new GradeSample(1L, 10L, 14.0))
+                .peek(sample -> {
+                    if (sample.grade() == 8.0) {
+                        distributions.onEnrollmentChanged(new EnrollmentChangedEvent(before, after));
+                    }
+                }));
+        when(enrollmentRepository.findGradeSamplesByCourse(1L, EXCLUDED_STATUSES))
+                .thenReturn(List.of(new GradeSample(1L, 10L, 8.0), new GradeSample(1L, 10L, 14.0)));
+
+        distributions.rebuild();
+
+        assertThat(distributions.forCourse(1L).count()).isEqualTo(2);
+        assertThat(distributions.forDepartment(10L).count()).isEqualTo(2);
+        verifyNoInteractions(studentService);
+    }
+
+    @Test
+    @DisplayName("✏️ Changement de note : l'ancienne note est retirée de la cellule")
+    void testGradeChange() {
+        when(studentService.getStudentDtoById(5L))
+                .thenReturn(new StudentDto(5L, null, null, null, null, null, null, 10L));
+        EnrollmentDto before = new EnrollmentDto(1L, null, 6.0, Status.ACTIVE, 5L, 1L);
+        EnrollmentDto after = new EnrollmentDto(1L, null, 17.0, Status.COMPLETED, 5L, 1L);
+
+        distributions.onEnrollmentChanged(new EnrollmentChangedEvent(null, before));
+        distributions.onEnrollmentChanged(new EnrollmentChangedEvent(before, after));
+
+        assertThat(distributions.forCourse(1L).count()).isEqualTo(1);
+        assertThat(distributions.forDepartment(10L).median()).isCloseTo(17.0, within(GradeHistogram.MAX_ERROR));
+    }
+
+    @Test
+    @DisplayName("🔃 Écouteurs dans le désordre : un retrait reçu avant son ajout ne laisse pas de fantôme")
+    void testOutOfOrderEvents() {
+        when(studentService.getStudentDtoById(5L))
+                .thenReturn(new StudentDto(5L, null, null, null, null, null, null, 10L));
+        EnrollmentDto created = new EnrollmentDto(1L, null, 9.0, Status.ACTIVE, 5L, 1L);
+        EnrollmentDto regraded = new EnrollmentDto(1L, null, 13.0, Status.ACTIVE, 5L, 1L);
+
+        distributions.onEnrollmentChanged(new EnrollmentChangedEvent(created, regraded));
+        distributions.onEnrollmentChanged(new EnrollmentChangedEvent(null, created));
+
+        assertThat(distributions.forCourse(1L).count()).isEqualTo(1);
+        assertThat(distributions.forDepartment(10L).median()).isCloseTo(13.0, within(GradeHistogram.MAX_ERROR));
+    }
+
+    @Test
+    @DisplayName("🏷️ Changement de département : les cours de l'étudiant sont relus, le retrait suivant vise la bonne cellule")
+    void testStudentDepartmentChange() {
+        EnrollmentDto graded = new EnrollmentDto(1L, null, 15.0, Status.COMPLETED, 5L, 1L);
+        when(studentService.getStudentDtoById(5L))
+                .thenReturn(new StudentDto(5L, null, null, null, null, null, null, 10L))
+                .thenReturn(new StudentDto(5L, null, null, null, null, null, null, 20L));
+        distributions.onEnrollmentChanged(new EnrollmentChangedEvent(null, graded));
+        when(enrollmentRepository.findCourseIdsByStudentIn(List.of(5L))).thenReturn(List.of(1L));
+        when(enrollmentRepository.findGradeSamplesByCourse(1L, EXCLUDED_STATUSES))
+                .thenReturn(List.of(new GradeSample(1L, 20L, 15.0)));
+
+        distributions.onStudentDepartmentChanged(new StudentDepartmentChangedEvent(List.of(5L)));
+
+        assertThat(distributions.forDepartment(10L).count()).isZero();
+        assertThat(distributions.forDepartment(20L).count()).isEqualTo(1);
+
+        distributions.onEnrollmentChanged(new EnrollmentChangedEvent(graded, null));
+        assertThat(distributions.forCourse(1L).count()).isZero();
+        assertThat(distributions.forDepartment(20L).count()).isZero();
+    }
+}
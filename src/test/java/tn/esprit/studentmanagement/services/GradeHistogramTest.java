@@ -0,0 +1,58 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GradeHistogramTest {
+
+    @Test
+    @DisplayName("🎯 Médiane et p90 à MAX_ERROR près des quantiles exacts")
+    void testQuantileErrorBound() {
+        Random random = new Random(42);
+        GradeHistogram histogram = new GradeHistogram();
+        double[] grades = new double[10_001];
+        for (int i = 0; i < grades.length; i++) {
+            grades[i] = Math.min(20.0, Math.max(0.0, 11 + random.nextGaussian() * 3.5));
+            histogram.add(grades[i]);
+        }
+        Arrays.sort(grades);
+
+        for (double q : new double[]{0.1, 0.5, 0.9, 0.99, 1.0}) {
+            double exact = grades[(int) Math.ceil(q * grades.length) - 1];
+            assertThat(histogram.quantile(q)).isCloseTo(exact, within(GradeHistogram.MAX_ERROR));
+        }
+    }
+
+    @Test
+    @DisplayName("🔗 Fusion = somme des compteurs ; le retrait annule l'ajout")
+    void testMergeAndRemove() {
+        GradeHistogram a = new GradeHistogram();
+        GradeHistogram b = new GradeHistogram();
+        a.add(8.0);
+        a.add(12.0);
+        b.add(15.0);
+        b.add(20.0);
+
+        GradeHistogram merged = new GradeHistogram();
+        merged.merge(a);
+        merged.merge(b);
+        assertThat(merged.count()).isEqualTo(4);
+        assertThat(merged.quantile(0.5)).isCloseTo(12.0, within(GradeHistogram.MAX_ERROR));
+        assertThat(merged.toPointBins()).hasSize(20);
+        assertThat(merged.toPointBins().get(19).count()).isEqualTo(1);
+
+        merged.remove(20.0);
+        merged.remove(20.0); // classe vide : retrait mis en attente, le compte ne bouge pas
+        assertThat(merged.count()).isEqualTo(3);
+        assertThat(merged.quantile(1.0)).isCloseTo(15.0, within(GradeHistogram.MAX_ERROR));
+        merged.add(20.0); // l'ajout rattrape le retrait reçu avant lui
+        assertThat(merged.count()).isEqualTo(3);
+        assertThat(new GradeHistogram().quantile(0.5)).isNull();
+    }
+}
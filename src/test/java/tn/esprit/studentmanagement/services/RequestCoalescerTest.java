@@ -0,0 +1,88 @@
+package tn.esprit.studentmanagement.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTest {
+
+    private static final int THREADS = 64;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(meterRegistry);
+
+    @Test
+    @DisplayName("🧵 64 lectures concurrentes de la même clé = 1 seul chargement")
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(pool.submit(() -> coalescer.load("student", 42L, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "étudiant-42";
+                })));
+            }
+            // Le leader est bloqué tant que tous les autres ne sont pas devenus followers
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (followers() < THREADS - 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("étudiant-42");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(followers()).isEqualTo(THREADS - 1);
+        assertThat(coalescer.inFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("🔑 Des clés différentes ne sont pas regroupées")
+    void testDistinctKeysLoadIndependently() {
+        assertThat(coalescer.<Long>load("student", 1L, () -> 1L)).isEqualTo(1L);
+        assertThat(coalescer.<Long>load("student", 2L, () -> 2L)).isEqualTo(2L);
+        assertThat(coalescer.<Long>load("enrollment", 1L, () -> 10L)).isEqualTo(10L);
+        assertThat(followers()).isZero();
+    }
+
+    @Test
+    @DisplayName("💥 L'erreur du chargement est propagée et la clé libérée")
+    void testFailureIsPropagatedAndKeyReleased() {
+        assertThatThrownBy(() -> coalescer.load("student", 7L, () -> {
+            throw new IllegalStateException("base indisponible");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(coalescer.inFlightCount()).isZero();
+        assertThat(coalescer.<String>load("student", 7L, () -> "ok")).isEqualTo("ok");
+    }
+
+    private double followers() {
+        var counter = meterRegistry.find("coalescing.requests").tag("role", "follower").counters();
+        return counter.stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tn.esprit.studentmanagement.dto.StudentDto;
+import tn.esprit.studentmanagement.dto.StudentSearchHit;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class StudentSearchIndexTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StudentSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StudentSearchIndex(studentRepository, null, transactionManager);
+        index.index(student(1L, "Iheb", "Jdey", "iheb.jdey@example.com"));
+        index.index(student(2L, "Hélène", "Ben Ali", "helene@esprit.tn"));
+        index.index(student(3L, "Ibrahim", "Jaziri", "ibrahim@example.com"));
+    }
+
+    @Test
+    @DisplayName("🔎 Recherche par préfixe du prénom, insensible à la casse et aux accents")
+    void testPrefixSearch() {
+        assertThat(ids(index.search("i", 10))).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(ids(index.search("HEL", 10))).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("🔎 Tous les termes doivent correspondre (nom + email)")
+    void testMultiTermSearch() {
+        assertThat(ids(index.search("i j", 10))).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(ids(index.search("ibr exa", 10))).containsExactly(3L);
+        assertThat(ids(index.search("esprit ben", 10))).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("♻️ Mise à jour et suppression incrémentales")
+    void testIncrementalUpdates() {
+        index.index(student(1L, "Iheb", "Trabelsi", "iheb@example.com"));
+        assertThat(index.search("jdey", 10)).isEmpty();
+        assertThat(ids(index.search("trab", 10))).containsExactly(1L);
+
+        index.remove(1L);
+        assertThat(index.search("iheb", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("📏 Le nombre de résultats est limité")
+    void testLimit() {
+        assertThat(index.search("e", 1)).hasSize(1);
+        assertThat(index.search("   ", 10)).isEmpty();
+    }
+
+    private static StudentDto student(Long id, String firstName, String lastName, String email) {
+        return new StudentDto(id, firstName, lastName, email, null, null, null, null);
+    }
+
+    private static List<Long> ids(List<StudentSearchHit> hits) {
+        return hits.stream().map(StudentSearchHit::idStudent).toList();
+    }
+}
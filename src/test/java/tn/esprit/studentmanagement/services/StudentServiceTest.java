@@ -1,19 +1,31 @@
 package tn.esprit.studentmanagement.services;
 
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import tn.esprit.studentmanagement.dto.BatchGetItem;
+import tn.esprit.studentmanagement.dto.BulkItemResult;
+import tn.esprit.studentmanagement.dto.CursorPage;
+import tn.esprit.studentmanagement.dto.StudentDto;
+import tn.esprit.studentmanagement.entities.Department;
 import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.repositories.ArchivedEnrollmentRepository;
 import tn.esprit.studentmanagement.repositories.StudentRepository;
 import tn.esprit.studentmanagement.services.StudentService;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -24,6 +36,21 @@ public class StudentServiceTest {
     @Mock
     private StudentRepository studentRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private StudentSearchIndex studentSearchIndex;
+
+    @Mock
+    private GpaEngine gpaEngine;
+
+    @Mock
+    private ArchivedEnrollmentRepository archivedEnrollmentRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private StudentService studentService;
 
@@ -59,7 +86,143 @@ public class StudentServiceTest {
         verify(studentRepository, times(1)).findById(1L);
     }
 
-    
+    @Test
+    @DisplayName("🪶 Lecture par ID via la projection DTO")
+    void testGetStudentDtoById() {
+        StudentDto dto = new StudentDto(3L, "Youssef", "Trabelsi", "youssef@example.com", null, null, null, 2L);
+        when(studentRepository.findDtoById(3L)).thenReturn(Optional.of(dto));
+
+        assertThat(studentService.getStudentDtoById(3L)).isEqualTo(dto);
+        assertThat(studentService.getStudentDtoById(4L)).isNull();
+        verify(studentRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("🧺 Lecture multiple : ordre de la requête, doublons et absents")
+    void testGetStudentsByIds() {
+        StudentDto s1 = new StudentDto(1L, "Ali", null, null, null, null, null, null);
+        StudentDto s3 = new StudentDto(3L, "Omar", null, null, null, null, null, null);
+        when(studentRepository.findDtosByIdIn(List.of(3L, 2L, 1L))).thenReturn(Arrays.asList(s1, s3));
+
+        List<BatchGetItem<StudentDto>> items = studentService.getStudentsByIds(Arrays.asList(3L, 2L, 1L, 3L));
+
+        assertThat(items).extracting(BatchGetItem::id).containsExactly(3L, 2L, 1L, 3L);
+        assertThat(items).extracting(BatchGetItem::found).containsExactly(true, false, true, true);
+        assertThat(items.get(1).value()).isNull();
+        verify(studentRepository, times(1)).findDtosByIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("🧱 Lecture multiple découpée en blocs de 500 ID")
+    void testGetStudentsByIdsChunked() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            ids.add(id);
+        }
+        when(studentRepository.findDtosByIdIn(anyCollection())).thenReturn(List.of());
+
+        List<BatchGetItem<StudentDto>> items = studentService.getStudentsByIds(ids);
+
+        assertThat(items).hasSize(1200).noneMatch(BatchGetItem::found);
+        verify(studentRepository, times(3)).findDtosByIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("📄 Pagination keyset des étudiants")
+    void testGetStudentsPage() {
+        StudentDto s1 = new StudentDto(11L, "Ali", null, null, null, null, null, null);
+        StudentDto s2 = new StudentDto(12L, "Sana", null, null, null, null, null, null);
+        StudentDto s3 = new StudentDto(13L, "Omar", null, null, null, null, null, null);
+
+        when(studentRepository.findDtosAfter(10L, Limit.of(3))).thenReturn(Arrays.asList(s1, s2, s3));
+
+        CursorPage<StudentDto> page = studentService.getStudentsPage(CursorPage.encodeCursor(10L), 2);
+
+        assertThat(page.items()).extracting(StudentDto::idStudent).containsExactly(11L, 12L);
+        assertThat(CursorPage.decodeCursor(page.nextCursor())).isEqualTo(12L);
+    }
+
+    @Test
+    @DisplayName("📤 Export en flux : chaque étudiant est émis puis détaché")
+    void testExportStudents() {
+        Student s1 = new Student();
+        s1.setIdStudent(1L);
+        s1.setEmail("a@example.com");
+        Student s2 = new Student();
+        s2.setIdStudent(2L);
+        s2.setEmail("b@example.com");
+
+        when(studentRepository.streamAllBy()).thenReturn(Stream.of(s1, s2));
+
+        List<StudentDto> exported = new ArrayList<>();
+        studentService.exportStudents(exported::add);
+
+        assertThat(exported).extracting(StudentDto::email).containsExactly("a@example.com", "b@example.com");
+        verify(entityManager).detach(s1);
+        verify(entityManager).detach(s2);
+    }
+
+    @Test
+    @DisplayName("📦 Création/mise à jour en masse avec résultat par élément")
+    void testSaveAllStudents() {
+        Student created = new Student();
+        created.setFirstName("Nour");
+        Student updated = new Student();
+        updated.setIdStudent(5L);
+        Student unknown = new Student();
+        unknown.setIdStudent(99L);
+
+        Student existing = new Student();
+        existing.setIdStudent(5L);
+        when(studentRepository.findAllById(Set.of(5L, 99L))).thenReturn(List.of(existing));
+        when(studentRepository.save(created)).thenAnswer(invocation -> {
+            created.setIdStudent(51L);
+            return created;
+        });
+        when(studentRepository.save(updated)).thenReturn(updated);
+
+        List<BulkItemResult> results = studentService.saveAllStudents(Arrays.asList(created, updated, unknown, null));
+
+        assertThat(results).extracting(BulkItemResult::outcome).containsExactly(
+                BulkItemResult.Outcome.CREATED, BulkItemResult.Outcome.UPDATED,
+                BulkItemResult.Outcome.REJECTED, BulkItemResult.Outcome.REJECTED);
+        assertThat(results.get(0).id()).isEqualTo(51L);
+        verify(studentRepository, never()).save(unknown);
+        verify(entityManager).flush();
+    }
+
+    @Test
+    @DisplayName("💾 Enregistrer un étudiant met à jour l'index de recherche")
+    void testSaveStudentUpdatesSearchIndex() {
+        Student student = new Student();
+        student.setIdStudent(7L);
+        student.setFirstName("Amira");
+
+        when(studentRepository.save(student)).thenReturn(student);
+
+        assertThat(studentService.saveStudent(student)).isSameAs(student);
+        verify(studentSearchIndex, times(1)).afterCommit(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("🏷️ Changement de département : signalé une seule fois, pas pour une simple mise à jour")
+    void testSaveStudentPublishesDepartmentChange() {
+        Department department = new Department();
+        department.setIdDepartment(20L);
+        Student student = new Student();
+        student.setIdStudent(7L);
+        student.setDepartment(department);
+        when(studentRepository.findDtoById(7L))
+                .thenReturn(Optional.of(new StudentDto(7L, null, null, null, null, null, null, 10L)))
+                .thenReturn(Optional.of(new StudentDto(7L, null, null, null, null, null, null, 20L)));
+        when(studentRepository.save(student)).thenReturn(student);
+
+        studentService.saveStudent(student);
+        studentService.saveStudent(student);
+
+        verify(eventPublisher, times(1)).publishEvent(new StudentDepartmentChangedEvent(List.of(7L)));
+    }
+
     @Test
     @DisplayName("❌ Supprimer un étudiant")
     void testDeleteStudent() {
@@ -0,0 +1,223 @@
+package tn.esprit.studentmanagement.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import tn.esprit.studentmanagement.dto.CourseSeatsDto;
+import tn.esprit.studentmanagement.dto.EnrollmentDto;
+import tn.esprit.studentmanagement.dto.WaitlistEntryDto;
+import tn.esprit.studentmanagement.entities.Course;
+import tn.esprit.studentmanagement.entities.Enrollment;
+import tn.esprit.studentmanagement.entities.Status;
+import tn.esprit.studentmanagement.entities.Student;
+import tn.esprit.studentmanagement.entities.WaitlistEntry;
+import tn.esprit.studentmanagement.exceptions.AlreadyEnrolledException;
+import tn.esprit.studentmanagement.exceptions.CourseFullException;
+import tn.esprit.studentmanagement.repositories.CourseRepository;
+import tn.esprit.studentmanagement.repositories.EnrollmentRepository;
+import tn.esprit.studentmanagement.repositories.StudentRepository;
+import tn.esprit.studentmanagement.repositories.WaitlistEntryRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTest {
+
+    @Mock
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Mock
+    private EnrollmentRepository enrollmentRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private IEnrollment enrollmentService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WaitlistService waitlistService;
+
+    @BeforeEach
+    void setUp() {
+        waitlistService = new WaitlistService(waitlistRepository, enrollmentRepository, courseRepository, studentRepository,
+                enrollmentService, transactionManager, 2);
+    }
+
+    @Test
+    @DisplayName("🔁 Seuls l'abandon, la suppression ou le déplacement d'une inscription ACTIVE libèrent une place")
+    void testFreesSeat() {
+        EnrollmentDto active = enrollment(Status.ACTIVE, 2L);
+        assertThat(WaitlistService.freesSeat(active, enrollment(Status.DROPPED, 2L))).isTrue();
+        assertThat(WaitlistService.freesSeat(active, enrollment(Status.WITHDRAWN, 2L))).isTrue();
+        assertThat(WaitlistService.freesSeat(active, null)).isTrue();
+        assertThat(WaitlistService.freesSeat(active, enrollment(Status.ACTIVE, 3L))).isTrue();
+        assertThat(WaitlistService.freesSeat(active, enrollment(Status.ACTIVE, 2L))).isFalse();
+        assertThat(WaitlistService.freesSeat(enrollment(Status.COMPLETED, 2L), null)).isFalse();
+        assertThat(WaitlistService.freesSeat(null, active)).isFalse();
+    }
+
+    @Test
+    @DisplayName("⏳ Promotion FIFO limitée par les places libres")
+    void testPromotionFollowsQueueOrder() {
+        when(waitlistRepository.findAllDtosInOrder()).thenReturn(List.of(entry(1L, 10L), entry(2L, 11L), entry(3L, 12L)));
+        waitlistService.loadAtStartup();
+        when(courseRepository.findSeatsById(5L)).thenReturn(Optional.of(new CourseSeatsDto(5L, 30, 29)));
+        when(waitlistRepository.deleteEntry(1L)).thenReturn(1);
+
+        assertThat(waitlistService.promotePending()).isEqualTo(1);
+
+        verify(enrollmentService, times(1)).saveEnrollment(any(Enrollment.class));
+        verify(waitlistRepository, never()).deleteEntry(2L);
+        assertThat(waitlistService.getWaitlist(5L)).extracting(WaitlistEntryDto::studentId).containsExactly(11L, 12L);
+        // rien de marqué : un second passage ne fait rien
+        assertThat(waitlistService.promotePending()).isZero();
+    }
+
+    @Test
+    @DisplayName("📦 Promotion par lots : le cours reste marqué tant que la file n'est pas vidée")
+    void testPromotionInBatches() {
+        when(waitlistRepository.findAllDtosInOrder()).thenReturn(List.of(entry(1L, 10L), entry(2L, 11L), entry(3L, 12L)));
+        waitlistService.loadAtStartup();
+        when(courseRepository.findSeatsById(5L)).thenReturn(Optional.of(new CourseSeatsDto(5L, null, 0)));
+        when(waitlistRepository.deleteEntry(anyLong())).thenReturn(1);
+
+        assertThat(waitlistService.promotePending()).isEqualTo(2);
+        assertThat(waitlistService.promotePending()).isEqualTo(1);
+        assertThat(waitlistService.getWaitlist(5L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("🚫 Place reprise entre-temps : l'étudiant garde son rang")
+    void testCourseFullKeepsEntry() {
+        when(waitlistRepository.findAllDtosInOrder()).thenReturn(List.of(entry(1L, 10L)));
+        waitlistService.loadAtStartup();
+        when(courseRepository.findSeatsById(5L)).thenReturn(Optional.of(new CourseSeatsDto(5L, 30, 29)));
+        when(waitlistRepository.deleteEntry(1L)).thenReturn(1);
+        when(enrollmentService.saveEnrollment(any(Enrollment.class))).thenThrow(new CourseFullException(5L));
+
+        assertThat(waitlistService.promotePending()).isZero();
+        assertThat(waitlistService.getWaitlist(5L)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("💥 Échec de promotion (rollback) : l'entrée reste en file, replacée en fin de file")
+    void testFailedPromotionKeepsEntry() {
+        when(waitlistRepository.findAllDtosInOrder()).thenReturn(List.of(entry(1L, 10L), entry(2L, 11L)));
+        waitlistService.loadAtStartup();
+        when(courseRepository.findSeatsById(5L)).thenReturn(Optional.of(new CourseSeatsDto(5L, 30, 29)));
+        when(waitlistRepository.deleteEntry(anyLong())).thenReturn(1);
+        when(studentRepository.getReferenceById(10L)).thenReturn(student(10L));
+        when(studentRepository.getReferenceById(11L)).thenReturn(student(11L));
+        when(enrollmentService.saveEnrollment(any(Enrollment.class))).thenAnswer(invocation -> {
+            Enrollment enrollment = invocation.getArgument(0);
+            if (enrollment.getStudent().getIdStudent() == 10L) {
+                throw new IllegalStateException("panne");
+            }
+            return enrollment;
+        });
+
+        assertThat(waitlistService.promotePending()).isEqualTo(1);
+        assertThat(waitlistService.getWaitlist(5L)).extracting(WaitlistEntryDto::studentId).containsExactly(10L);
+    }
+
+    @Test
+    @DisplayName("➕ Rejoindre la liste : persisté, sans doublon")
+    void testJoinWaitlist() {
+        when(courseRepository.existsById(5L)).thenReturn(true);
+        when(studentRepository.existsById(10L)).thenReturn(true);
+        when(waitlistRepository.saveAndFlush(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+            WaitlistEntry entry = invocation.getArgument(0);
+            entry.setIdWaitlistEntry(7L);
+            return entry;
+        });
+        when(courseRepository.getReferenceById(5L)).thenReturn(course(5L));
+        when(studentRepository.getReferenceById(10L)).thenReturn(student(10L));
+
+        WaitlistEntryDto joined = waitlistService.joinWaitlist(5L, 10L);
+
+        assertThat(joined.idWaitlistEntry()).isEqualTo(7L);
+        assertThat(waitlistService.joinWaitlist(5L, 10L)).isEqualTo(joined);
+        verify(waitlistRepository, times(1)).saveAndFlush(any(WaitlistEntry.class));
+    }
+
+    @Test
+    @DisplayName("👯 Demande simultanée déjà enregistrée : contrainte unique, l'entrée existante est renvoyée")
+    void testJoinWaitlistDuplicateKey() {
+        WaitlistEntryDto existing = new WaitlistEntryDto(7L, 10L, 5L, null);
+        when(courseRepository.existsById(5L)).thenReturn(true);
+        when(studentRepository.existsById(10L)).thenReturn(true);
+        when(waitlistRepository.saveAndFlush(any(WaitlistEntry.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_waitlist_entry_course_student"));
+        when(waitlistRepository.findDtoByCourseAndStudent(5L, 10L)).thenReturn(Optional.of(existing));
+
+        assertThat(waitlistService.joinWaitlist(5L, 10L)).isEqualTo(existing);
+    }
+
+    @Test
+    @DisplayName("🪑 Étudiant déjà inscrit (ACTIVE) au cours : refusé, aucune entrée créée")
+    void testJoinWaitlistWithSeatRejected() {
+        when(courseRepository.existsById(5L)).thenReturn(true);
+        when(studentRepository.existsById(10L)).thenReturn(true);
+        when(enrollmentRepository.existsForStudentWithStatus(5L, 10L, Status.ACTIVE)).thenReturn(true);
+
+        assertThatThrownBy(() -> waitlistService.joinWaitlist(5L, 10L)).isInstanceOf(AlreadyEnrolledException.class);
+        verify(waitlistRepository, never()).saveAndFlush(any(WaitlistEntry.class));
+    }
+
+    @Test
+    @DisplayName("🪑 Place obtenue par ailleurs avant la promotion : entrée retirée, pas de seconde inscription")
+    void testPromotionSkipsStudentWithSeat() {
+        when(waitlistRepository.findAllDtosInOrder()).thenReturn(List.of(entry(1L, 10L), entry(2L, 11L)));
+        waitlistService.loadAtStartup();
+        when(courseRepository.findSeatsById(5L)).thenReturn(Optional.of(new CourseSeatsDto(5L, 30, 29)));
+        when(waitlistRepository.deleteEntry(anyLong())).thenReturn(1);
+        when(enrollmentRepository.existsForStudentWithStatus(5L, 10L, Status.ACTIVE)).thenReturn(true);
+        when(studentRepository.getReferenceById(11L)).thenReturn(student(11L));
+
+        // la place libre revient au suivant
+        assertThat(waitlistService.promotePending()).isEqualTo(1);
+
+        ArgumentCaptor<Enrollment> created = ArgumentCaptor.forClass(Enrollment.class);
+        verify(enrollmentService, times(1)).saveEnrollment(created.capture());
+        assertThat(created.getValue().getStudent().getIdStudent()).isEqualTo(11L);
+        assertThat(waitlistService.getWaitlist(5L)).isEmpty();
+    }
+
+    private static WaitlistEntryDto entry(Long id, Long studentId) {
+        return new WaitlistEntryDto(id, studentId, 5L, null);
+    }
+
+    private static EnrollmentDto enrollment(Status status, Long courseId) {
+        return new EnrollmentDto(1L, null, null, status, 10L, courseId);
+    }
+
+    private static Course course(Long id) {
+        Course course = new Course();
+        course.setIdCourse(id);
+        return course;
+    }
+
+    private static Student student(Long id) {
+        Student student = new Student();
+        student.setIdStudent(id);
+        return student;
+    }
+}